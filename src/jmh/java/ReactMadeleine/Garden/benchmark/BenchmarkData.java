@@ -0,0 +1,81 @@
+package ReactMadeleine.Garden.benchmark;
+
+import ReactMadeleine.Garden.dto.BookingSummary;
+import ReactMadeleine.Garden.model.Booking;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Deterministic booking fixtures shared by the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private static final String[] BOOKING_TYPES = {"Room", "Garden", "Event Hall", "Terrace"};
+    private static final String[] COUNTRIES = {"Rwanda", "Belgium", "France", "Kenya", "Uganda"};
+    private static final String[] STATUSES = {"Pending", "Confirmed", "Cancelled"};
+
+    private BenchmarkData() {
+    }
+
+    public static Booking booking(SplittableRandom random, long id) {
+        LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(365));
+        Booking booking = new Booking();
+        booking.setFirstName("Guest" + id);
+        booking.setLastName("Family" + (id % 97));
+        booking.setEmail("guest" + id + "@example.com");
+        booking.setPhone("+250788" + String.format("%06d", id % 1_000_000));
+        booking.setBookingType(BOOKING_TYPES[random.nextInt(BOOKING_TYPES.length)]);
+        booking.setCountry(COUNTRIES[random.nextInt(COUNTRIES.length)]);
+        booking.setCity("Kigali");
+        booking.setAddress("KG " + id + " Ave");
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(14)));
+        booking.setArrival(LocalTime.of(12 + random.nextInt(8), 0));
+        booking.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+        booking.setTotalPrice(BigDecimal.valueOf(5000 + random.nextInt(95000), 2));
+        return booking;
+    }
+
+    public static List<Booking> bookings(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bookings.add(booking(random, i));
+        }
+        return bookings;
+    }
+
+    // The GET /api/bookings rows, as read by the constructor projection
+    public static List<BookingSummary> summaries(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<BookingSummary> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking b = booking(random, i);
+            summaries.add(new BookingSummary((long) i + 1, b.getFirstName(), b.getLastName(), b.getEmail(),
+                    b.getPhone(), b.getBookingType(), b.getCountry(), b.getCity(), b.getCheckInDate(),
+                    b.getCheckOutDate(), b.getArrival(), b.getStatus(), b.getTotalPrice(), null));
+        }
+        return summaries;
+    }
+
+    // Repository stand-in answering the named methods from memory; any other call fails the benchmark
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> repository, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(repository.getSimpleName() + "." + method.getName());
+                    }
+                    return answer.apply(args);
+                });
+    }
+}
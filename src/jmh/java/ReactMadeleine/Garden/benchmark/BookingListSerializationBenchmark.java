@@ -0,0 +1,114 @@
+package ReactMadeleine.Garden.benchmark;
+
+import ReactMadeleine.Garden.config.BookingSummaryJsonSerializer;
+import ReactMadeleine.Garden.dto.BookingSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The GET /api/bookings list payload (BookingSummary rows) through each step of the tuned path:
+ * plain Boot ObjectMapper, with Blackbird, and with the precomputed serializer; written in one go,
+ * streamed, and streamed through gzip. Bytes on the wire (raw and gzip) are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingListSerializationBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"default", "blackbird", "precomputed"})
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter streamingWriter;
+    private List<BookingSummary> bookings;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (!"default".equals(mapper)) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        if ("precomputed".equals(mapper)) {
+            objectMapper.registerModule(new SimpleModule()
+                    .addSerializer(BookingSummary.class, new BookingSummaryJsonSerializer()));
+        }
+        streamingWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        bookings = BenchmarkData.summaries(size, 11L);
+
+        byte[] raw = objectMapper.writeValueAsBytes(bookings);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(raw);
+        }
+        System.out.printf("%n%d bookings (%s): %d bytes raw, %d bytes gzip%n", size, mapper, raw.length, gzip.size());
+    }
+
+    @Benchmark
+    public byte[] writeList() throws IOException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    // What JsonArrayStreams does, minus the database
+    @Benchmark
+    public int writeStreamed() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writeArray(out);
+        return out.count;
+    }
+
+    // Includes the cost of server.compression (gzip, default level)
+    @Benchmark
+    public int writeStreamedGzip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            writeArray(gzip);
+        }
+        return out.count;
+    }
+
+    private void writeArray(OutputStream out) throws IOException {
+        try (SequenceWriter array = streamingWriter.writeValuesAsArray(out)) {
+            for (BookingSummary booking : bookings) {
+                array.write(booking);
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        int count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ReactMadeleine.Garden.benchmark;
+
+import ReactMadeleine.Garden.SecurityConfig;
+import ReactMadeleine.Garden.model.User;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import ReactMadeleine.Garden.service.CustomUserDetailsService;
+import jakarta.servlet.Filter;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent in Spring Security's filter chains per request, by kind of traffic: health probes, CORS
+ * preflights and public POSTs go through the lightweight chains, an authenticated GET through the main
+ * one (HTTP Basic with the password check cached). The servlet behind the chain does nothing, so the
+ * numbers are the security overhead alone, plus building the mock request and response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final String USERNAME = "bench-user";
+    private static final String PASSWORD = "Garden-Password-1";
+    private static final String ORIGIN = "http://localhost:3000";
+
+    private AnnotationConfigWebApplicationContext context;
+    private Filter springSecurityFilterChain;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(SecurityBenchmarkConfig.class);
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.refresh();
+        springSecurityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((USERNAME + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int health() throws Exception {
+        return run(new MockHttpServletRequest("GET", "/actuator/health"));
+    }
+
+    @Benchmark
+    public int preflight() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/api/bookings");
+        request.addHeader("Origin", ORIGIN);
+        request.addHeader("Access-Control-Request-Method", "GET");
+        return run(request);
+    }
+
+    @Benchmark
+    public int publicPost() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/forgot-password");
+        request.addHeader("Origin", ORIGIN);
+        return run(request);
+    }
+
+    @Benchmark
+    public int authenticatedGet() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Origin", ORIGIN);
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(SecurityConfig.class)
+    static class SecurityBenchmarkConfig {
+
+        @Bean
+        CustomUserDetailsService customUserDetailsService() {
+            User user = new User();
+            user.setId(1L);
+            user.setUsername(USERNAME);
+            user.setEmail(USERNAME + "@example.com");
+            user.setPassword(new BCryptPasswordEncoder().encode(PASSWORD));
+            ReflectionTestUtils.setField(user, "version", 0L);
+            UserRepository userRepository = Mockito.mock(UserRepository.class);
+            Mockito.when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(user));
+            Mockito.when(userRepository.findVersionById(1L)).thenReturn(Optional.of(0L));
+            return new CustomUserDetailsService(userRepository, Mockito.mock(AdminRepository.class),
+                    Duration.ofMinutes(5), 10_000);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ReactMadeleine.Garden.model;
+
+import ReactMadeleine.Garden.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingValidationBenchmark {
+
+    private Booking booking;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @Setup
+    public void setUp() {
+        booking = BenchmarkData.booking(new SplittableRandom(42L), 1L);
+        checkIn = LocalDate.now().plusDays(30);
+        checkOut = checkIn.plusDays(4);
+    }
+
+    @Benchmark
+    public Booking validate() {
+        booking.validate();
+        return booking;
+    }
+
+    @Benchmark
+    public Booking setterValidation() {
+        Booking fresh = new Booking();
+        fresh.setFirstName(" Madeleine ");
+        fresh.setLastName(" Uwase ");
+        fresh.setEmail("Madeleine.Uwase@Example.com");
+        fresh.setPhone("+250788123456");
+        fresh.setBookingType("Room");
+        fresh.setCountry("Rwanda");
+        fresh.setCity("Kigali");
+        fresh.setAddress("KG 7 Ave");
+        fresh.setCheckInDate(checkIn);
+        fresh.setCheckOutDate(checkOut);
+        fresh.setArrival(LocalTime.NOON);
+        fresh.setStatus("Pending");
+        fresh.setTotalPrice(new BigDecimal("240.00"));
+        return fresh;
+    }
+}
@@ -0,0 +1,31 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.exception.InvalidBookingStateException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingStatusTransitionBenchmark {
+
+    @Param({"Pending", "Confirmed", "Cancelled"})
+    public String currentStatus;
+
+    @Param({"Confirmed", "Pending"})
+    public String newStatus;
+
+    @Benchmark
+    public boolean validateStatusTransition() {
+        try {
+            BookingStatusTransitions.check(currentStatus, newStatus);
+            return true;
+        } catch (InvalidBookingStateException e) {
+            return false;
+        }
+    }
+}
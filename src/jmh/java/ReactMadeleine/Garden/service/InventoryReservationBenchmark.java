@@ -0,0 +1,108 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.benchmark.BenchmarkData;
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.model.BookableUnit;
+import ReactMadeleine.Garden.model.Booking;
+import ReactMadeleine.Garden.model.InventoryLock;
+import ReactMadeleine.Garden.repository.BookableUnitRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.InventoryLockRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The overlap check of a booking as InventoryService makes it: a unit is picked with the occupancy calendars,
+ * then the unit's bookings overlapping the stay (what findActiveOnUnit returns) are counted against its
+ * capacity. The repositories answer from memory, so only the application's share of the cost is measured;
+ * the query itself is covered by BookingRepositoryQueryPlanTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoryReservationBenchmark {
+
+    private static final int UNITS = 20;
+
+    @Param({"1000", "10000"})
+    public int bookings;
+
+    private InventoryService inventory;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        from = LocalDate.now();
+        to = from.plusDays(364);
+        checkIn = from.plusDays(180);
+        checkOut = checkIn.plusDays(3);
+
+        // Enough places per unit for the stay to fit whatever the number of bookings
+        int capacity = Math.max(2, bookings / 100);
+        List<BookableUnit> units = new ArrayList<>();
+        for (long id = 1; id <= UNITS; id++) {
+            units.add(new BookableUnit(id, "Room " + id, "Room", capacity, true, TenantContext.DEFAULT_TENANT));
+        }
+        Map<Long, BookableUnit> unitsById = units.stream()
+                .collect(Collectors.toMap(BookableUnit::getId, Function.identity()));
+
+        List<BookingSnapshot> snapshots = new ArrayList<>();
+        List<Booking> generated = BenchmarkData.bookings(bookings, 3L);
+        for (int i = 0; i < generated.size(); i++) {
+            Booking booking = generated.get(i);
+            snapshots.add(new BookingSnapshot((long) i + 1, booking.getCheckInDate(), booking.getCheckOutDate(), "Room",
+                    booking.getCountry(), booking.getStatus(), booking.getTotalPrice(), (long) (i % UNITS) + 1, 0L));
+        }
+        // Same rule as ACTIVE_OVERLAPPING, computed once: the database's share is not measured
+        Map<Long, List<BookingSnapshot>> overlapping = snapshots.stream()
+                .filter(booking -> !booking.isCancelled())
+                .filter(booking -> !booking.checkInDate().isAfter(checkOut) && !booking.checkOutDate().isBefore(checkIn))
+                .collect(Collectors.groupingBy(BookingSnapshot::unitId));
+
+        BookableUnitRepository unitRepository = BenchmarkData.stub(BookableUnitRepository.class, Map.of(
+                "findAll", args -> units,
+                "findById", args -> Optional.ofNullable(unitsById.get((Long) args[0])),
+                "lockById", args -> Optional.ofNullable(unitsById.get((Long) args[0]))));
+        BookingRepository bookingRepository = BenchmarkData.stub(BookingRepository.class, Map.of(
+                "findAllSnapshots", args -> snapshots,
+                "findActiveOnUnit", args -> overlapping.getOrDefault((Long) args[0], List.of()),
+                "findActiveUnassigned", args -> List.of()));
+        InventoryLockRepository lockRepository = BenchmarkData.stub(InventoryLockRepository.class, Map.of(
+                "existsById", args -> true,
+                "lockByName", args -> Optional.of(new InventoryLock((String) args[0]))));
+
+        inventory = new InventoryService(unitRepository, bookingRepository, lockRepository,
+                new Tenants(List.of(TenantContext.DEFAULT_TENANT)), Period.ofYears(3), Duration.ofMinutes(2));
+        inventory.loadInventory();
+    }
+
+    // Outside a transaction the reservation gives its days back at once, so every call sees the same calendars
+    @Benchmark
+    public Long reserve() {
+        return inventory.reserve("Room", null, checkIn, checkOut);
+    }
+
+    @Benchmark
+    public List<AvailabilityRange> typeAvailabilityYear() {
+        return inventory.getAvailability(from, to, "Room", null);
+    }
+}
@@ -0,0 +1,53 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.benchmark.BenchmarkData;
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+import ReactMadeleine.Garden.model.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A year of availability from one occupancy calendar, and the cost of writing a booking into it.
+ * InventoryReservationBenchmark measures the calendars as InventoryService uses them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OccupancyCalendarBenchmark {
+
+    @Param({"1000", "10000"})
+    public int bookings;
+
+    private OccupancyCalendar calendar;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup
+    public void setUp() {
+        from = LocalDate.now();
+        to = from.plusDays(364);
+        calendar = new OccupancyCalendar(from.minusDays(1), to);
+        for (Booking booking : BenchmarkData.bookings(bookings, 3L)) {
+            if (!"Cancelled".equals(booking.getStatus())) {
+                calendar.add(booking.getCheckInDate(), booking.getCheckOutDate(), 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AvailabilityRange> calendarYear() {
+        return calendar.ranges(from, to, 1);
+    }
+
+    @Benchmark
+    public void bookingWrite() {
+        calendar.add(from.plusDays(100), from.plusDays(103), 1);
+        calendar.add(from.plusDays(100), from.plusDays(103), -1);
+    }
+}
@@ -0,0 +1,57 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.RateTable;
+import ReactMadeleine.Garden.model.StayDiscount;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Night-by-night quoting from the in-memory rate snapshot, for short and long stays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"1", "7", "30", "90", "365"})
+    public int nights;
+
+    private PricingSnapshot snapshot;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @Setup
+    public void setUp() {
+        List<RateTable> rates = List.of(
+                new RateTable(1L, "Room", "Low season", 1, 1, 12, 31, new BigDecimal("80.00"), new BigDecimal("95.00"), TenantContext.DEFAULT_TENANT),
+                new RateTable(2L, "Room", "High season", 6, 15, 9, 15, new BigDecimal("120.00"), new BigDecimal("140.00"), TenantContext.DEFAULT_TENANT),
+                new RateTable(3L, "Room", "Holidays", 12, 20, 1, 5, new BigDecimal("150.00"), new BigDecimal("170.00"), TenantContext.DEFAULT_TENANT));
+        List<StayDiscount> discounts = List.of(
+                new StayDiscount(1L, null, 7, new BigDecimal("10.00"), TenantContext.DEFAULT_TENANT),
+                new StayDiscount(2L, "Room", 28, new BigDecimal("25.00"), TenantContext.DEFAULT_TENANT));
+        snapshot = PricingSnapshot.build(rates, discounts);
+        checkIn = LocalDate.now().plusDays(10);
+        checkOut = checkIn.plusDays(nights);
+    }
+
+    @Benchmark
+    public Optional<BigDecimal> quote() {
+        return snapshot.quote("Room", checkIn, checkOut);
+    }
+
+    @Benchmark
+    public PricingSnapshot rebuildSnapshot() {
+        return PricingSnapshot.build(
+                List.of(new RateTable(1L, "Room", "All year", 1, 1, 12, 31, new BigDecimal("80.00"), new BigDecimal("95.00"), TenantContext.DEFAULT_TENANT)),
+                List.of(new StayDiscount(1L, null, 7, new BigDecimal("10.00"), TenantContext.DEFAULT_TENANT)));
+    }
+}
@@ -0,0 +1,223 @@
+package ReactMadeleine.Garden.loadtest;
+
+import ReactMadeleine.Garden.model.Admin;
+import ReactMadeleine.Garden.model.Booking;
+import ReactMadeleine.Garden.model.User;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds bookings, users and admins straight through the repositories (no overlap checks), using a
+ * fixed random seed so every run works on the same dataset. Past stays ({@code loadtest.historyYears})
+ * are inserted with JDBC, since {@link Booking} rejects past dates.
+ */
+@Component
+@Profile("loadtest")
+public class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    public static final String LOAD_TEST_USERNAME = "loadtest";
+    public static final String LOAD_TEST_PASSWORD = "loadtest-password";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] BOOKING_TYPES = {"Room", "Room", "Room", "Garden", "Event Hall", "Terrace"};
+    private static final String[] COUNTRIES = {"Rwanda", "Rwanda", "Rwanda", "Kenya", "Uganda", "Belgium", "France", "USA"};
+    private static final String[] CITIES = {"Kigali", "Musanze", "Huye", "Rubavu", "Nairobi", "Kampala", "Brussels", "Paris"};
+    private static final String[] FIRST_NAMES = {"Aline", "Jean", "Claudine", "Eric", "Grace", "Patrick", "Diane", "Olivier", "Sandrine", "Emmanuel"};
+    private static final String[] LAST_NAMES = {"Uwase", "Mugisha", "Niyonsaba", "Habimana", "Ingabire", "Nkurunziza", "Mukamana", "Dupont", "Martin", "Smith"};
+
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final AdminRepository adminRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DataSeeder(BookingRepository bookingRepository, UserRepository userRepository,
+                      AdminRepository adminRepository, PasswordEncoder passwordEncoder,
+                      JdbcTemplate jdbcTemplate) {
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.adminRepository = adminRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public SeededData seed(LoadTestSettings settings) {
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        // Hashing once keeps seeding fast; every seeded account shares the same password
+        String passwordHash = passwordEncoder.encode(LOAD_TEST_PASSWORD);
+
+        User loadTestUser = new User();
+        loadTestUser.setUsername(LOAD_TEST_USERNAME);
+        loadTestUser.setEmail("loadtest@example.com");
+        loadTestUser.setPassword(passwordHash);
+        userRepository.save(loadTestUser);
+
+        List<User> users = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < settings.users(); i++) {
+            User user = new User();
+            user.setUsername("seed-user-" + i);
+            user.setEmail("seed-user-" + i + "@example.com");
+            user.setPassword(passwordHash);
+            users.add(user);
+            if (users.size() == BATCH_SIZE) {
+                userRepository.saveAll(users);
+                users.clear();
+            }
+        }
+        userRepository.saveAll(users);
+
+        List<String> adminEmails = new ArrayList<>(settings.admins());
+        List<Admin> admins = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < settings.admins(); i++) {
+            String email = "admin" + i + "@madeleinegarden.test";
+            admins.add(new Admin(null, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), passwordHash,
+                    i == 0 ? "SUPER_ADMIN" : "ADMIN", email, null, null, null));
+            adminEmails.add(email);
+            if (admins.size() == BATCH_SIZE) {
+                adminRepository.saveAll(admins);
+                admins.clear();
+            }
+        }
+        adminRepository.saveAll(admins);
+
+        List<Long> bookingIds = new ArrayList<>(settings.bookings());
+        List<Long> pendingBookingIds = new ArrayList<>();
+        List<String> guestNames = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < settings.bookings(); i++) {
+            Booking booking = booking(random, i);
+            bookings.add(booking);
+            if (guestNames.size() < 100) {
+                guestNames.add(booking.getLastName());
+            }
+            if (bookings.size() == BATCH_SIZE) {
+                saveBookings(bookings, bookingIds, pendingBookingIds);
+                bookings.clear();
+            }
+        }
+        saveBookings(bookings, bookingIds, pendingBookingIds);
+
+        int pastStays = seedHistory(random, settings.historyYears(), settings.bookings());
+
+        logger.info("Seeded {} bookings ({} past stays), {} users and {} admins",
+                bookingIds.size() + pastStays, pastStays, settings.users(), settings.admins());
+        // Scenarios run as the first admin (SUPER_ADMIN) since several cover admin-only routes
+        String username = adminEmails.isEmpty() ? LOAD_TEST_USERNAME : adminEmails.get(0);
+        return new SeededData(username, LOAD_TEST_PASSWORD, bookingIds, pendingBookingIds,
+                adminEmails, guestNames);
+    }
+
+    private void saveBookings(List<Booking> bookings, List<Long> bookingIds, List<Long> pendingBookingIds) {
+        for (Booking saved : bookingRepository.saveAll(bookings)) {
+            bookingIds.add(saved.getId());
+            if ("Pending".equals(saved.getStatus())) {
+                pendingBookingIds.add(saved.getId());
+            }
+        }
+    }
+
+    private Booking booking(SplittableRandom random, int index) {
+        LocalDate checkIn = checkInDate(random);
+        int nights = stayLength(random, checkIn);
+
+        Booking booking = new Booking();
+        booking.setFirstName(pick(random, FIRST_NAMES));
+        booking.setLastName(pick(random, LAST_NAMES));
+        booking.setEmail("guest" + index + "@example.com");
+        booking.setPhone("+2507" + (80_000_000 + random.nextInt(20_000_000)));
+        booking.setBookingType(pick(random, BOOKING_TYPES));
+        booking.setCountry(pick(random, COUNTRIES));
+        booking.setCity(pick(random, CITIES));
+        booking.setAddress("KG " + (1 + random.nextInt(700)) + " St");
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkIn.plusDays(nights));
+        booking.setArrival(LocalTime.of(11 + random.nextInt(10), random.nextBoolean() ? 0 : 30));
+        int statusRoll = random.nextInt(100);
+        booking.setStatus(statusRoll < 60 ? "Confirmed" : statusRoll < 90 ? "Pending" : "Cancelled");
+        booking.setTotalPrice(BigDecimal.valueOf(nights * (4000L + random.nextInt(16000)), 2));
+        return booking;
+    }
+
+    // One year of past stays per year of history, at the same volume as the upcoming bookings
+    private int seedHistory(SplittableRandom random, int years, int perYear) {
+        LocalDate today = LocalDate.now();
+        int total = years * perYear;
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < total; i++) {
+            LocalDate checkIn = today.minusDays(2 + random.nextInt(years * 365));
+            LocalDate checkOut = checkIn.plusDays(stayLength(random, checkIn));
+            if (!checkOut.isBefore(today)) {
+                checkOut = today.minusDays(1);
+            }
+            int nights = (int) Math.max(1, checkOut.toEpochDay() - checkIn.toEpochDay());
+            int statusRoll = random.nextInt(100);
+            rows.add(new Object[]{
+                    pick(random, FIRST_NAMES), pick(random, LAST_NAMES),
+                    "+2507" + (80_000_000 + random.nextInt(20_000_000)), "past-guest" + i + "@example.com",
+                    pick(random, BOOKING_TYPES), pick(random, COUNTRIES), pick(random, CITIES),
+                    Date.valueOf(checkIn), Date.valueOf(checkOut),
+                    Time.valueOf(LocalTime.of(11 + random.nextInt(10), random.nextBoolean() ? 0 : 30)),
+                    statusRoll < 85 ? "Confirmed" : "Cancelled",
+                    BigDecimal.valueOf(nights * (4000L + random.nextInt(16000)), 2),
+                    "KG " + (1 + random.nextInt(700)) + " St",
+                    Timestamp.valueOf(checkIn.minusDays(1 + random.nextInt(60)).atStartOfDay())
+            });
+            if (rows.size() == BATCH_SIZE || i == total - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO bookings (first_name, last_name, phone, email, booking_type, "
+                        + "country, city, check_in_date, check_out_date, arrival, status, total_price, address, "
+                        + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        return total;
+    }
+
+    // Lead times are roughly exponential (most bookings are made a few weeks ahead) and skew toward weekends
+    private LocalDate checkInDate(SplittableRandom random) {
+        int leadDays = (int) Math.min(364, -Math.log(1.0 - random.nextDouble()) * 45);
+        LocalDate date = LocalDate.now().plusDays(1 + leadDays);
+        if (random.nextInt(100) < 35) {
+            while (date.getDayOfWeek() != DayOfWeek.FRIDAY && date.getDayOfWeek() != DayOfWeek.SATURDAY) {
+                date = date.plusDays(1);
+            }
+        }
+        return date;
+    }
+
+    // Mostly 1-3 nights, with a weekly tail; weekend arrivals tend to be short stays
+    private int stayLength(SplittableRandom random, LocalDate checkIn) {
+        boolean weekend = checkIn.getDayOfWeek() == DayOfWeek.FRIDAY || checkIn.getDayOfWeek() == DayOfWeek.SATURDAY;
+        int roll = random.nextInt(100);
+        if (roll < (weekend ? 75 : 55)) {
+            return 1 + random.nextInt(3);
+        }
+        if (roll < 90) {
+            return 4 + random.nextInt(4);
+        }
+        return 8 + random.nextInt(14);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,34 @@
+package ReactMadeleine.Garden.loadtest;
+
+public record EndpointResult(
+        String endpoint,
+        int requests,
+        int errors,
+        double throughputPerSecond,
+        double p50Ms,
+        double p95Ms,
+        double p99Ms,
+        double maxMs,
+        long avgResponseBytes,
+        long avgAllocatedBytes,
+        double avgCpuMicros
+) {
+
+    static EndpointResult of(String endpoint, LatencyRecorder.Snapshot latencies, int errors,
+                             long responseBytes, long allocatedBytes, long cpuNanos, long elapsedNanos) {
+        int requests = latencies.count();
+        return new EndpointResult(
+                endpoint,
+                requests,
+                errors,
+                requests / (elapsedNanos / 1_000_000_000.0),
+                latencies.percentileMillis(50),
+                latencies.percentileMillis(95),
+                latencies.percentileMillis(99),
+                latencies.maxMillis(),
+                requests == 0 ? 0 : responseBytes / requests,
+                requests == 0 ? 0 : allocatedBytes / requests,
+                requests == 0 ? 0 : cpuNanos / 1_000.0 / requests
+        );
+    }
+}
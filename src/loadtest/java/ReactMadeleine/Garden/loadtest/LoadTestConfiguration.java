@@ -0,0 +1,39 @@
+package ReactMadeleine.Garden.loadtest;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+    @Bean
+    @Primary
+    public StubMailSender stubMailSender() {
+        return new StubMailSender();
+    }
+
+    /**
+     * Accepts every message without talking to SMTP; all JavaMailSenderImpl send paths end in doSend.
+     */
+    public static class StubMailSender extends JavaMailSenderImpl {
+
+        private final AtomicLong sentMessages = new AtomicLong();
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            sentMessages.addAndGet(mimeMessages.length);
+        }
+
+        public long getSentMessages() {
+            return sentMessages.get();
+        }
+    }
+}
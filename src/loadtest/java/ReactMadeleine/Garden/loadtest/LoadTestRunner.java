@@ -0,0 +1,90 @@
+package ReactMadeleine.Garden.loadtest;
+
+import ReactMadeleine.Garden.GardenApplication;
+import ReactMadeleine.Garden.admission.AdmissionController;
+import ReactMadeleine.Garden.scheduler.BookingLifecycleJobs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Entry point of the load-test profile: boots the application on a random port against H2,
+ * seeds data, runs each selected scenario and writes the report.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(GardenApplication.class)
+                .profiles("loadtest")
+                .run("--server.port=0")) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            SeededData data = context.getBean(DataSeeder.class).seed(settings);
+            if (settings.archive()) {
+                // Same job as in production; compare a run with -Dloadtest.archive=false to see the hot/cold gain
+                BookingLifecycleJobs.JobRun archived = context.getBean(BookingLifecycleJobs.class).archivePastBookings();
+                System.out.printf("Archived %d past bookings in %d chunks (%d ms)%n",
+                        archived.affected(), archived.chunks(), archived.duration().toMillis());
+            }
+            ScenarioRunner runner = new ScenarioRunner(URI.create("http://localhost:" + port), data.username(), data.password());
+
+            List<EndpointResult> results = new ArrayList<>();
+            for (Scenario scenario : Scenarios.all(runner, data)) {
+                if (settings.runs(scenario.name())) {
+                    results.add(runner.run(scenario, settings.requests(), settings.concurrency()));
+                }
+            }
+            if (StatusUpdateComparison.selected(settings)) {
+                results.addAll(StatusUpdateComparison.run(runner, data, settings.concurrency()));
+            }
+            if (OverloadComparison.selected(settings)) {
+                results.addAll(OverloadComparison.run(runner, data, context.getBean(AdmissionController.class),
+                        settings.requests(), settings.concurrency()));
+            }
+
+            print(settings, results);
+            write(settings, results);
+        }
+    }
+
+    private static void print(LoadTestSettings settings, List<EndpointResult> results) {
+        System.out.printf("%nLoad test: %d bookings, %d users, %d admins, %d requests/endpoint, concurrency %d%n",
+                settings.bookings(), settings.users(), settings.admins(), settings.requests(), settings.concurrency());
+        if (settings.historyYears() > 0) {
+            System.out.printf("History: %d years of past stays, %s%n", settings.historyYears(),
+                    settings.archive() ? "archived before the run" : "left in the live table");
+        }
+        System.out.printf("%-26s %9s %7s %10s %9s %9s %9s %9s %10s %12s %11s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "avg bytes",
+                "alloc B/req", "cpu us/req");
+        for (EndpointResult result : results) {
+            System.out.printf("%-26s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %10d %12d %11.1f%n",
+                    result.endpoint(), result.requests(), result.errors(), result.throughputPerSecond(),
+                    result.p50Ms(), result.p95Ms(), result.p99Ms(), result.maxMs(), result.avgResponseBytes(),
+                    result.avgAllocatedBytes(), result.avgCpuMicros());
+        }
+    }
+
+    private static void write(LoadTestSettings settings, List<EndpointResult> results) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings.toString());
+        report.put("results", results);
+        if (settings.report().getParent() != null) {
+            Files.createDirectories(settings.report().getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.report().toFile(), report);
+        System.out.println("Report written to " + settings.report().toAbsolutePath());
+    }
+}
@@ -0,0 +1,45 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Harness parameters, passed as -Dloadtest.* system properties by the load-test Maven profile.
+ */
+public record LoadTestSettings(
+        int bookings,
+        int users,
+        int admins,
+        int requests,
+        int concurrency,
+        long seed,
+        int historyYears,
+        boolean archive,
+        Set<String> scenarios,
+        Path report
+) {
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.bookings", 10_000),
+                Integer.getInteger("loadtest.users", 1_000),
+                Integer.getInteger("loadtest.admins", 200),
+                Integer.getInteger("loadtest.requests", 2_000),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Long.getLong("loadtest.seed", 20241201L),
+                Integer.getInteger("loadtest.historyYears", 0),
+                Boolean.getBoolean("loadtest.archive"),
+                Arrays.stream(System.getProperty("loadtest.scenarios", "all").split(","))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty())
+                        .collect(Collectors.toSet()),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"))
+        );
+    }
+
+    public boolean runs(String scenario) {
+        return scenarios.contains("all") || scenarios.contains(scenario);
+    }
+}
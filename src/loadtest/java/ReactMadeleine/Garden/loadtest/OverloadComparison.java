@@ -0,0 +1,152 @@
+package ReactMadeleine.Garden.loadtest;
+
+import ReactMadeleine.Garden.admission.AdmissionController;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the server past saturation twice, once without admission control and once with it: {@value #WRITE_FLOOD}
+ * times {@code concurrency} clients register users back to back (BCrypt, a row per call) while {@code concurrency}
+ * readers send {@code requests} {@code GET /api/bookings/{id}}. With admission control the reads should keep
+ * their p99 and the writes should get fast 503s instead of queueing behind each other.
+ * <p>
+ * A 503 counts as an error in the rows and is also printed on its own. Allocation and CPU are left at zero:
+ * the flood and the reads share the process, so neither could be attributed to one row.
+ */
+public final class OverloadComparison {
+
+    static final String NAME = "overload";
+    private static final int WRITE_FLOOD = 4;
+    // Lets the flood fill the server's queues before the reads are measured
+    private static final Duration RAMP_UP = Duration.ofSeconds(2);
+
+    private OverloadComparison() {
+    }
+
+    public static boolean selected(LoadTestSettings settings) {
+        return settings.runs(NAME);
+    }
+
+    public static List<EndpointResult> run(ScenarioRunner runner, SeededData data, AdmissionController admission,
+                                           int requests, int concurrency) throws InterruptedException {
+        boolean enabled = admission.isEnabled();
+        try {
+            admission.setEnabled(false);
+            Round off = round(runner, data, "admission-off", requests, concurrency);
+            admission.setEnabled(true);
+            Round on = round(runner, data, "admission-on", requests, concurrency);
+            off.printRejections();
+            on.printRejections();
+            return List.of(off.reads(), on.reads(), off.writes(), on.writes());
+        } finally {
+            admission.setEnabled(enabled);
+        }
+    }
+
+    private static Round round(ScenarioRunner runner, SeededData data, String label, int requests, int concurrency)
+            throws InterruptedException {
+        Measurement reads = new Measurement("overload-reads-" + label, requests);
+        Measurement writes = new Measurement("overload-writes-" + label, requests * WRITE_FLOOD);
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger registrations = new AtomicInteger();
+
+        long start;
+        long readsElapsed;
+        try (ExecutorService flood = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < WRITE_FLOOD * concurrency; i++) {
+                flood.submit(() -> {
+                    while (flooding.get() && !Thread.currentThread().isInterrupted()) {
+                        int n = registrations.getAndIncrement();
+                        writes.send(runner, HttpRequest.newBuilder(runner.uri("/api/users/register"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"lt-" + label + "-" + n
+                                        + "\",\"email\":\"lt-" + label + "-" + n + "@example.com\","
+                                        + "\"password\":\"secret-" + n + "\"}")));
+                    }
+                });
+            }
+            Thread.sleep(RAMP_UP);
+
+            start = System.nanoTime();
+            Semaphore inFlight = new Semaphore(concurrency);
+            try (ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < requests; i++) {
+                    inFlight.acquire();
+                    Long id = data.bookingIds().get(i % data.bookingIds().size());
+                    readers.submit(() -> {
+                        try {
+                            reads.send(runner, HttpRequest.newBuilder(runner.uri("/api/bookings/" + id)).GET());
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            }
+            readsElapsed = System.nanoTime() - start;
+            flooding.set(false);
+        }
+        long writesElapsed = System.nanoTime() - start;
+        return new Round(label, reads.result(readsElapsed), writes.result(writesElapsed), reads.rejected.get(),
+                writes.rejected.get());
+    }
+
+    private record Round(String label, EndpointResult reads, EndpointResult writes, int readsRejected,
+                         int writesRejected) {
+
+        void printRejections() {
+            System.out.printf("Overload, %s: %d reads and %d writes turned away with 503%n",
+                    label, readsRejected, writesRejected);
+        }
+    }
+
+    private static final class Measurement {
+        final String name;
+        final LatencyRecorder recorder;
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicLong responseBytes = new AtomicLong();
+
+        Measurement(String name, int capacity) {
+            this.name = name;
+            this.recorder = new LatencyRecorder(capacity);
+        }
+
+        void send(ScenarioRunner runner, HttpRequest.Builder builder) {
+            HttpRequest request = builder
+                    .header("Authorization", runner.authorization())
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            try {
+                long sent = System.nanoTime();
+                HttpResponse<byte[]> response = runner.client().send(request, HttpResponse.BodyHandlers.ofByteArray());
+                recorder.record(System.nanoTime() - sent);
+                responseBytes.addAndGet(response.body().length);
+                if (response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                }
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Writes past the recorder's capacity still count as errors or rejections, not in the percentiles
+        EndpointResult result(long elapsedNanos) {
+            return EndpointResult.of(name, recorder.snapshot(), errors.get(), responseBytes.get(), 0, 0, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.IntFunction;
+
+/**
+ * One endpoint under load: a name for the report and a factory for the n-th request.
+ */
+public record Scenario(String name, IntFunction<HttpRequest.Builder> requestFactory) {
+}
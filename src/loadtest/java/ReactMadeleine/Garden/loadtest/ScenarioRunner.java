@@ -0,0 +1,126 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop driver: at most {@code concurrency} requests are in flight, each on its own virtual thread.
+ */
+public final class ScenarioRunner {
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final String authorization;
+
+    public ScenarioRunner(URI baseUri, String username, String password) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUri = baseUri;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public URI uri(String pathAndQuery) {
+        return baseUri.resolve(pathAndQuery);
+    }
+
+    public String authorization() {
+        return authorization;
+    }
+
+    public HttpClient client() {
+        return client;
+    }
+
+    // ETag a polling client would hold after its first full GET of this path
+    public String etag(String pathAndQuery) {
+        HttpRequest request = HttpRequest.newBuilder(uri(pathAndQuery))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag")
+                    .orElseThrow(() -> new IllegalStateException("No ETag on " + pathAndQuery));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public EndpointResult run(Scenario scenario, int requests, int concurrency) throws InterruptedException {
+        // Warm up connections, JIT and Hibernate caches before measuring
+        execute(scenario, Math.max(1, requests / 10), concurrency, new LatencyRecorder(requests), 0);
+        LatencyRecorder recorder = new LatencyRecorder(requests);
+        return execute(scenario, requests, concurrency, recorder, requests);
+    }
+
+    private EndpointResult execute(Scenario scenario, int requests, int concurrency,
+                                   LatencyRecorder recorder, int offset) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger errors = new AtomicInteger();
+        AtomicLong responseBytes = new AtomicLong();
+
+        long allocatedBefore = allocatedBytes();
+        long cpuBefore = cpuNanos();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int sequence = offset + i;
+                executor.submit(() -> {
+                    try {
+                        HttpRequest request = scenario.requestFactory().apply(sequence)
+                                .header("Authorization", authorization)
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long sent = System.nanoTime();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        recorder.record(System.nanoTime() - sent);
+                        responseBytes.addAndGet(response.body().length);
+                        // 304 is the expected answer of a conditional poll
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return EndpointResult.of(scenario.name(), recorder.snapshot(), errors.get(), responseBytes.get(),
+                allocatedBytes() - allocatedBefore, cpuNanos() - cpuBefore, elapsed);
+    }
+
+    // CPU time of the whole process, server and this client alike
+    static long cpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    // Heap allocated by the whole JVM, server and this client alike: compare runs, not absolute values
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getTotalThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,82 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * The endpoints measured before each deploy. Names double as values for -Dloadtest.scenarios.
+ */
+public final class Scenarios {
+
+    private Scenarios() {
+    }
+
+    public static List<Scenario> all(ScenarioRunner runner, SeededData data) {
+        List<Scenario> scenarios = new ArrayList<>();
+
+        scenarios.add(new Scenario("bookings-list", n -> HttpRequest.newBuilder(runner.uri("/api/bookings")).GET()));
+
+        scenarios.add(new Scenario("users-list", n -> HttpRequest.newBuilder(runner.uri("/api/users")).GET()));
+
+        scenarios.add(new Scenario("bookings-get", n -> HttpRequest.newBuilder(
+                runner.uri("/api/bookings/" + data.bookingIds().get(n % data.bookingIds().size()))).GET()));
+
+        scenarios.add(new Scenario("bookings-search", n -> {
+            String name = data.guestNames().get(n % data.guestNames().size());
+            String status = n % 2 == 0 ? "Confirmed" : "Pending";
+            return HttpRequest.newBuilder(runner.uri("/api/bookings/search?customerName="
+                    + URLEncoder.encode(name, StandardCharsets.UTF_8) + "&status=" + status)).GET();
+        }));
+
+        scenarios.add(new Scenario("bookings-history", n -> {
+            String name = data.guestNames().get(n % data.guestNames().size());
+            return HttpRequest.newBuilder(runner.uri("/api/bookings/history?customerName="
+                    + URLEncoder.encode(name, StandardCharsets.UTF_8) + "&size=50")).GET();
+        }));
+
+        // Same listings with and without COUNT: compare the -exact, -none and -approximate rows of the report.
+        // Raise -Dloadtest.admins / users / bookings to see how the COUNT cost grows with table size.
+        for (String listing : List.of("admins", "users", "bookings")) {
+            for (String total : List.of("exact", "none", "approximate")) {
+                scenarios.add(new Scenario(listing + "-page-" + total, n -> HttpRequest.newBuilder(
+                        runner.uri("/api/" + listing + "?page=" + (n % 10) + "&size=20&total=" + total)).GET()));
+            }
+        }
+
+        // Polling with If-None-Match, to compare with bookings-list, bookings-get and admins-page-exact.
+        // Nothing is written during a run, so every poll is answered 304.
+        scenarios.add(conditional("bookings-list-conditional", runner, n -> "/api/bookings"));
+        scenarios.add(conditional("bookings-get-conditional", runner,
+                n -> "/api/bookings/" + data.bookingIds().get(n % Math.min(100, data.bookingIds().size()))));
+        scenarios.add(conditional("admins-page-conditional", runner, n -> "/api/admins?page=" + (n % 10) + "&size=20"));
+
+        scenarios.add(new Scenario("users-register", n -> HttpRequest.newBuilder(runner.uri("/api/users/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"lt-user-" + n + "\","
+                        + "\"email\":\"lt-user-" + n + "@example.com\",\"password\":\"secret-" + n + "\"}"))));
+
+        scenarios.add(new Scenario("admins-login", n -> HttpRequest.newBuilder(runner.uri("/api/admins/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\""
+                        + data.adminEmails().get(n % data.adminEmails().size())
+                        + "\",\"password\":\"" + data.password() + "\"}"))));
+
+        return scenarios;
+    }
+
+    private static Scenario conditional(String name, ScenarioRunner runner, IntFunction<String> path) {
+        Map<String, String> etags = new ConcurrentHashMap<>();
+        return new Scenario(name, n -> {
+            String pathAndQuery = path.apply(n);
+            return HttpRequest.newBuilder(runner.uri(pathAndQuery))
+                    .header("If-None-Match", etags.computeIfAbsent(pathAndQuery, runner::etag))
+                    .GET();
+        });
+    }
+}
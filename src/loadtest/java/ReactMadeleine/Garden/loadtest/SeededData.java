@@ -0,0 +1,16 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.util.List;
+
+/**
+ * What the scenarios need to know about the seeded dataset.
+ */
+public record SeededData(
+        String username,
+        String password,
+        List<Long> bookingIds,
+        List<Long> pendingBookingIds,
+        List<String> adminEmails,
+        List<String> guestNames
+) {
+}
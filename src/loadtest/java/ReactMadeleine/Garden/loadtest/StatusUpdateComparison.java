@@ -0,0 +1,148 @@
+package ReactMadeleine.Garden.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Confirms {@value #BOOKINGS_PER_ROUND} Pending bookings per round through {@code PATCH /api/bookings/{id}/status},
+ * one call per booking as the admin UI used to, and another {@value #BOOKINGS_PER_ROUND} through a single
+ * {@code PATCH /api/bookings/status}. Each sample is the time to update all of them.
+ * <p>
+ * Every round uses bookings that are still Pending, so both paths really write; the number of rounds is
+ * bounded by the seeded Pending bookings (about 30%), so raise {@code -Dloadtest.bookings} for more samples.
+ * Runs after the other scenarios since it changes the data they read.
+ */
+public final class StatusUpdateComparison {
+
+    static final String PER_ROW = "bookings-status-per-row-500";
+    static final String BATCH = "bookings-status-batch-500";
+    private static final int BOOKINGS_PER_ROUND = 500;
+    private static final int WARM_UP = 50;
+
+    private StatusUpdateComparison() {
+    }
+
+    public static boolean selected(LoadTestSettings settings) {
+        return settings.runs(PER_ROW) || settings.runs(BATCH);
+    }
+
+    public static List<EndpointResult> run(ScenarioRunner runner, SeededData data, int concurrency)
+            throws InterruptedException {
+        List<Long> pending = data.pendingBookingIds();
+        int rounds = (pending.size() - 2 * WARM_UP) / (2 * BOOKINGS_PER_ROUND);
+        if (rounds < 1) {
+            System.out.printf("Skipping %s/%s: %d Pending bookings, need %d%n", PER_ROW, BATCH, pending.size(),
+                    2 * (WARM_UP + BOOKINGS_PER_ROUND));
+            return List.of();
+        }
+
+        // Warm up both endpoints on bookings that are not measured
+        perRow(runner, pending.subList(0, WARM_UP), concurrency, new AtomicInteger(), new AtomicLong());
+        batch(runner, pending.subList(WARM_UP, 2 * WARM_UP), new AtomicInteger(), new AtomicLong());
+
+        Measurement perRow = new Measurement(PER_ROW, rounds);
+        Measurement batch = new Measurement(BATCH, rounds);
+        int offset = 2 * WARM_UP;
+        for (int round = 0; round < rounds; round++) {
+            List<Long> perRowIds = pending.subList(offset, offset + BOOKINGS_PER_ROUND);
+            List<Long> batchIds = pending.subList(offset + BOOKINGS_PER_ROUND, offset + 2 * BOOKINGS_PER_ROUND);
+            offset += 2 * BOOKINGS_PER_ROUND;
+            perRow.measure(() -> perRow(runner, perRowIds, concurrency, perRow.errors, perRow.responseBytes));
+            batch.measure(() -> batch(runner, batchIds, batch.errors, batch.responseBytes));
+        }
+        return List.of(perRow.result(), batch.result());
+    }
+
+    // One PATCH per booking, at most concurrency in flight
+    private static void perRow(ScenarioRunner runner, List<Long> ids, int concurrency,
+                               AtomicInteger errors, AtomicLong responseBytes) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long id : ids) {
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        send(runner, "/api/bookings/" + id + "/status", "{\"status\":\"Confirmed\"}",
+                                errors, responseBytes);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private static void batch(ScenarioRunner runner, List<Long> ids, AtomicInteger errors, AtomicLong responseBytes) {
+        String body = ids.stream()
+                .map(id -> "{\"id\":" + id + ",\"status\":\"Confirmed\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        send(runner, "/api/bookings/status", body, errors, responseBytes);
+    }
+
+    private static void send(ScenarioRunner runner, String path, String body,
+                             AtomicInteger errors, AtomicLong responseBytes) {
+        HttpRequest request = HttpRequest.newBuilder(runner.uri(path))
+                .header("Authorization", runner.authorization())
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<byte[]> response = runner.client().send(request, HttpResponse.BodyHandlers.ofByteArray());
+            responseBytes.addAndGet(response.body().length);
+            if (response.statusCode() >= 400) {
+                errors.incrementAndGet();
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Round {
+        void run() throws InterruptedException;
+    }
+
+    private static final class Measurement {
+        final String name;
+        final LatencyRecorder recorder;
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicLong responseBytes = new AtomicLong();
+        long allocatedBytes;
+        long cpuNanos;
+        long elapsedNanos;
+
+        Measurement(String name, int rounds) {
+            this.name = name;
+            this.recorder = new LatencyRecorder(rounds);
+        }
+
+        void measure(Round round) throws InterruptedException {
+            long allocatedBefore = ScenarioRunner.allocatedBytes();
+            long cpuBefore = ScenarioRunner.cpuNanos();
+            long start = System.nanoTime();
+            round.run();
+            long elapsed = System.nanoTime() - start;
+            recorder.record(elapsed);
+            elapsedNanos += elapsed;
+            allocatedBytes += ScenarioRunner.allocatedBytes() - allocatedBefore;
+            cpuNanos += ScenarioRunner.cpuNanos() - cpuBefore;
+        }
+
+        // One "request" per round of 500 bookings, so the rows compare directly
+        EndpointResult result() {
+            return EndpointResult.of(name, recorder.snapshot(), errors.get(), responseBytes.get(),
+                    allocatedBytes, cpuNanos, elapsedNanos);
+        }
+    }
+}
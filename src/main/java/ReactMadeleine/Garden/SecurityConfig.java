@@ -1,21 +1,33 @@
 package ReactMadeleine.Garden;
 
+import ReactMadeleine.Garden.config.RequestIdFilter;
+import ReactMadeleine.Garden.implementation.CachingAuthenticationProvider;
 import ReactMadeleine.Garden.service.CustomUserDetailsService;
+import ReactMadeleine.Garden.service.IdempotencyService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.NullSecurityContextRepository;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsUtils;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebSecurity
@@ -24,40 +36,104 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Value("${garden.cors.allowed-origins:http://localhost:3000,http://localhost:3001}")
+    private List<String> allowedOrigins;
+
+    @Value("${garden.cors.max-age:PT1H}")
+    private Duration corsMaxAge;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
+    // One provider for users (username) and admins (email), used by HTTP Basic and /api/admins/login alike
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(
+            @Value("${garden.auth.cache-size:10000}") int cacheSize) {
+        return new CachingAuthenticationProvider(userDetailsService, passwordEncoder(), cacheSize);
+    }
+
     @Bean
-    public AuthenticationManager authManager(HttpSecurity http) throws Exception {
-        AuthenticationManagerBuilder authenticationManagerBuilder =
-                http.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder.userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
-        return authenticationManagerBuilder.build();
+    public AuthenticationManager authManager(CachingAuthenticationProvider authenticationProvider) {
+        return new ProviderManager(authenticationProvider);
     }
 
+    // The only CORS configuration: Spring MVC has none, every chain below uses this source
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(Arrays.asList("http://localhost:3000", "http://localhost:3001"));
+        configuration.setAllowedOrigins(allowedOrigins);
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+                HttpHeaders.RETRY_AFTER, IdempotencyService.REPLAYED_HEADER, RequestIdFilter.REQUEST_ID_HEADER));
         configuration.setAllowCredentials(true);
+        // Browsers reuse a preflight answer for this long instead of sending OPTIONS before each call
+        configuration.setMaxAge(corsMaxAge);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
 
+    /**
+     * CORS preflight (OPTIONS with Origin and Access-Control-Request-Method): answered by the CORS
+     * filter without authentication, session or the rest of the chain.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain preflightFilterChain(HttpSecurity http) throws Exception {
+        lightweight(http.securityMatcher(CorsUtils::isPreFlightRequest))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    // Load balancer and orchestrator probes: no CORS, no credentials
+    @Bean
+    @Order(2)
+    public SecurityFilterChain healthFilterChain(HttpSecurity http) throws Exception {
+        lightweight(http.securityMatcher("/actuator/health", "/actuator/health/**"))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    // Account entry points, reachable without credentials; no Basic parsing. Registration is not one of
+    // them: it still takes an existing account, as it always has
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    @Order(3)
+    public SecurityFilterChain publicFilterChain(HttpSecurity http) throws Exception {
+        lightweight(http.securityMatchers(matchers -> matchers.requestMatchers(HttpMethod.POST,
+                "/api/admins/login", "/api/users/forgot-password", "/api/users/reset-password")))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+        return http.build();
+    }
+
+    // Everything else: HTTP Basic and role rules
+    @Bean
+    @Order(4)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationManager authManager) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
+                .authenticationManager(authManager)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/admins/login").permitAll()
+                        // Managing admins
+                        .requestMatchers(HttpMethod.POST, "/api/admins", "/api/admins/**").hasRole("SUPER_ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/admins/**").hasRole("SUPER_ADMIN")
+                        .requestMatchers("/api/admins", "/api/admins/**").hasRole("ADMIN")
+                        // Back-office reads and bulk operations
+                        .requestMatchers("/api/analytics/**", "/api/bookings/stream").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH, "/api/bookings/status").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/bookings/**", "/api/users/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/users").hasRole("ADMIN")
+                        // Bookings carry guests' contact details: any account may book, only admins read or change them
+                        .requestMatchers(HttpMethod.POST, "/api/bookings").authenticated()
+                        .requestMatchers("/api/bookings", "/api/bookings/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/pricing/**", "/api/units", "/api/units/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PUT, "/api/pricing/**", "/api/units/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/pricing/**", "/api/units/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .httpBasic(basic -> {})
@@ -72,4 +148,14 @@ public class SecurityConfig {
 
         return http.build();
     }
-}
\ No newline at end of file
+
+    // Stateless, no CSRF, request cache or logout: the chains above never authenticate anyone
+    private static HttpSecurity lightweight(HttpSecurity http) throws Exception {
+        return http
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new NullSecurityContextRepository()))
+                .requestCache(cache -> cache.disable())
+                .logout(logout -> logout.disable());
+    }
+}
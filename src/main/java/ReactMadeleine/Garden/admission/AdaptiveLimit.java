@@ -0,0 +1,64 @@
+package ReactMadeleine.Garden.admission;
+
+/**
+ * Concurrency limit learned from service times, in the style of TCP Vegas. The shortest recent service time
+ * stands for the no-load time, so {@code limit * (1 - noLoad / sample)} estimates how many requests are
+ * waiting inside the server (connection pool, row locks, SMTP) rather than being worked on. The limit grows
+ * while that estimate is small and shrinks when it builds up; a failed request cuts it by 10% (AIMD).
+ */
+final class AdaptiveLimit {
+
+    // Samples after which the no-load time is re-measured, so it follows slow drifts (bigger tables, a new host)
+    private static final int NO_LOAD_WINDOW = 500;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private long noLoadNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Records one admitted request: its service time, the requests in flight when it finished (itself
+     * included) and whether it failed on the server side.
+     */
+    synchronized void onSample(long nanos, int inFlight, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        nanos = Math.max(1, nanos);
+        noLoadNanos = Math.min(noLoadNanos, nanos);
+        windowMinNanos = Math.min(windowMinNanos, nanos);
+        if (++windowSamples == NO_LOAD_WINDOW) {
+            noLoadNanos = windowMinNanos;
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+
+        // Far below the limit, latency says nothing about where the limit should be
+        if (inFlight * 2 < limit) {
+            return;
+        }
+        // Steps and thresholds grow with log10(limit): small limits move by one, large ones faster
+        double step = Math.max(1, Math.log10(limit));
+        double queued = limit * (1 - (double) noLoadNanos / nanos);
+        if (queued < 3 * step) {
+            limit = Math.min(maxLimit, limit + step);
+        } else if (queued > 6 * step) {
+            limit = Math.max(minLimit, limit - step);
+        }
+    }
+}
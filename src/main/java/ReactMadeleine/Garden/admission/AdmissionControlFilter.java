@@ -0,0 +1,103 @@
+package ReactMadeleine.Garden.admission;
+
+import ReactMadeleine.Garden.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs {@link AdmissionController} before Spring Security, so a request turned away costs neither a password
+ * check nor a connection: it gets a 503 with {@code Retry-After} (and the CORS headers, for the browser to
+ * read it). Admitted requests hold their slot until the response is complete, including async ones.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionController admissionController;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final ObjectMapper objectMapper;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public AdmissionControlFilter(AdmissionController admissionController,
+                                  // By name: MVC's HandlerMappingIntrospector is a CorsConfigurationSource too
+                                  @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource,
+                                  ObjectMapper objectMapper) {
+        this.admissionController = admissionController;
+        this.corsConfigurationSource = corsConfigurationSource;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdmissionController.Permit permit = admissionController.admit(request);
+        if (permit == null) {
+            reject(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(permit, response));
+            } else {
+                permit.release(response.getStatus());
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null) {
+            corsProcessor.processRequest(cors, request, response);
+        }
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        response.setStatus(status.value());
+        long retryAfterSeconds = Math.max(1, admissionController.retryAfter().toSeconds());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.getReasonPhrase(), "Server busy, please retry later", status.value()));
+    }
+
+    private record ReleaseOnCompletion(AdmissionController.Permit permit, HttpServletResponse response)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release(response.getStatus());
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release(HttpStatus.SERVICE_UNAVAILABLE.value());
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
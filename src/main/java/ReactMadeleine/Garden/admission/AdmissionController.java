@@ -0,0 +1,205 @@
+package ReactMadeleine.Garden.admission;
+
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.function.SingletonSupplier;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Decides which API requests may run now. Each tenant's endpoints (method and mapped pattern, see
+ * {@link EndpointTemplates}) have their own {@link AdaptiveLimit} and a short queue, so a slow endpoint
+ * (registration waiting on SMTP) only throttles itself and a busy property does not use up another's slots.
+ * Paths no controller maps share one limiter per tenant and priority, so they cannot add limiters either.
+ * Reads go first: while any of the tenant's reads is waiting for a slot, its new writes are turned away instead
+ * of taking connections the reads need. Everything turned away gets a fast 503 from {@link AdmissionControlFilter}.
+ * <p>
+ * Only {@code /api/**} is controlled; CORS preflights and the long-lived SSE stream are not. Runs after
+ * {@code TenantFilter}, so the tenant is known and valid.
+ */
+@Component
+public class AdmissionController {
+
+    public enum Priority { READ, WRITE }
+
+    private static final String STREAM_PATH = "/api/bookings/stream";
+
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeoutNanos;
+    private final Duration retryAfter;
+    private final Supplier<EndpointTemplates> templates;
+
+    // Keyed by tenant and template: both sets are fixed, so the map is bounded
+    private final Map<String, EndpointLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Waiting> waiting = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+
+    @Autowired
+    public AdmissionController(MeterRegistry meterRegistry,
+                               // By name: the actuator registers other RequestMappingHandlerMappings
+                               @Lazy @Qualifier("requestMappingHandlerMapping")
+                               RequestMappingHandlerMapping requestMappingHandlerMapping,
+                               @Value("${garden.admission.enabled:true}") boolean enabled,
+                               @Value("${garden.admission.initial-limit:20}") int initialLimit,
+                               @Value("${garden.admission.min-limit:2}") int minLimit,
+                               @Value("${garden.admission.max-limit:200}") int maxLimit,
+                               @Value("${garden.admission.queue-size:16}") int queueSize,
+                               @Value("${garden.admission.queue-timeout:PT0.1S}") Duration queueTimeout,
+                               @Value("${garden.admission.retry-after:PT1S}") Duration retryAfter) {
+        // Read on first use: the mappings are complete by the time requests arrive
+        this(meterRegistry, SingletonSupplier.of(() -> EndpointTemplates.of(requestMappingHandlerMapping)),
+                enabled, initialLimit, minLimit, maxLimit, queueSize, queueTimeout, retryAfter);
+    }
+
+    AdmissionController(MeterRegistry meterRegistry, Supplier<EndpointTemplates> templates, boolean enabled,
+                        int initialLimit, int minLimit, int maxLimit, int queueSize, Duration queueTimeout,
+                        Duration retryAfter) {
+        if (minLimit < 1 || maxLimit < minLimit || queueSize < 0) {
+            throw new IllegalArgumentException(
+                    "garden.admission limits must satisfy 1 <= min-limit <= max-limit and queue-size >= 0");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.retryAfter = retryAfter;
+        this.templates = templates;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Switched at runtime by the load test, to compare the same instance with and without admission control
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Waits (briefly) for a slot. Returns the permit to release once the response is complete, or null when
+     * the request must be turned away.
+     */
+    public Permit admit(HttpServletRequest request) {
+        EndpointLimiter limiter = enabled ? limiterFor(request) : null;
+        if (limiter == null) {
+            return Permit.UNCONTROLLED;
+        }
+        if (limiter.priority() == Priority.WRITE && limiter.readsWaiting().get() > 0) {
+            rejected(limiter, "shed-for-reads");
+            return null;
+        }
+        EndpointLimiter.Outcome outcome;
+        try {
+            outcome = limiter.acquire(queueTimeoutNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected(limiter, "interrupted");
+            return null;
+        }
+        return switch (outcome) {
+            case ADMITTED -> new Permit(limiter);
+            case QUEUE_FULL -> rejected(limiter, "queue-full");
+            case TIMED_OUT -> rejected(limiter, "queue-timeout");
+        };
+    }
+
+    private Permit rejected(EndpointLimiter limiter, String reason) {
+        Counter.builder("garden.admission.rejected")
+                .description("API requests turned away with 503 by admission control")
+                .tag("endpoint", limiter.name())
+                .tag("tenant", TenantContext.current())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return null;
+    }
+
+    private EndpointLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/") || path.equals(STREAM_PATH) || CorsUtils.isPreFlightRequest(request)) {
+            return null;
+        }
+        String method = request.getMethod();
+        Priority priority = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                ? Priority.READ : Priority.WRITE;
+        String template = templates.get().resolve(method, path);
+        String endpoint = template != null ? template
+                : priority == Priority.READ ? "READ /api/**" : "WRITE /api/**";
+        String tenant = TenantContext.current();
+        return limiters.computeIfAbsent(tenant + " " + endpoint, key -> newLimiter(tenant, endpoint, priority));
+    }
+
+    private EndpointLimiter newLimiter(String tenant, String endpoint, Priority priority) {
+        Waiting tenantWaiting = waiting.computeIfAbsent(tenant, t -> new Waiting());
+        EndpointLimiter limiter = new EndpointLimiter(endpoint, priority,
+                new AdaptiveLimit(initialLimit, minLimit, maxLimit), queueSize,
+                priority == Priority.READ ? tenantWaiting.reads : tenantWaiting.writes, tenantWaiting.reads);
+        Gauge.builder("garden.admission.limit", limiter, EndpointLimiter::limit)
+                .description("Current adaptive concurrency limit of the endpoint")
+                .tag("endpoint", endpoint)
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder("garden.admission.in_flight", limiter, EndpointLimiter::inFlight)
+                .description("Admitted requests of the endpoint still running")
+                .tag("endpoint", endpoint)
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    // Requests of one tenant waiting for a slot, by priority
+    private static final class Waiting {
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+    }
+
+    /**
+     * A slot held by an admitted request. Releasing it records the service time (a 5xx counts as a failure,
+     * which cuts the limit); further calls are ignored.
+     */
+    public static final class Permit {
+
+        static final Permit UNCONTROLLED = new Permit(null);
+
+        private final EndpointLimiter limiter;
+        private final long startedNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(EndpointLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        public void release(int status) {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.release(startedNanos, status >= 500);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ReactMadeleine.Garden.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission for one endpoint: up to {@link AdaptiveLimit#limit()} requests run at once, a few more wait
+ * for a bounded time, the rest are turned away at once. Newcomers do not overtake waiting requests.
+ */
+final class EndpointLimiter {
+
+    enum Outcome { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final String name;
+    private final AdmissionController.Priority priority;
+    private final AdaptiveLimit limit;
+    private final int queueSize;
+    // Shared by every endpoint of the same tenant and priority
+    private final AtomicInteger waitingOfPriority;
+    // The tenant's waiting reads, which its writes give way to
+    private final AtomicInteger readsWaiting;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int inFlight;
+    private int waiting;
+
+    EndpointLimiter(String name, AdmissionController.Priority priority, AdaptiveLimit limit, int queueSize,
+                    AtomicInteger waitingOfPriority, AtomicInteger readsWaiting) {
+        this.name = name;
+        this.priority = priority;
+        this.limit = limit;
+        this.queueSize = queueSize;
+        this.waitingOfPriority = waitingOfPriority;
+        this.readsWaiting = readsWaiting;
+    }
+
+    String name() {
+        return name;
+    }
+
+    AdmissionController.Priority priority() {
+        return priority;
+    }
+
+    AtomicInteger readsWaiting() {
+        return readsWaiting;
+    }
+
+    int limit() {
+        return limit.limit();
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Outcome acquire(long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiting == 0 && inFlight < limit.limit()) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (waiting >= queueSize) {
+                return Outcome.QUEUE_FULL;
+            }
+            waiting++;
+            waitingOfPriority.incrementAndGet();
+            try {
+                long remaining = timeoutNanos;
+                while (inFlight >= limit.limit()) {
+                    if (remaining <= 0) {
+                        return Outcome.TIMED_OUT;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Outcome.ADMITTED;
+            } finally {
+                waiting--;
+                waitingOfPriority.decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long startedNanos, boolean failed) {
+        long nanos = System.nanoTime() - startedNanos;
+        lock.lock();
+        try {
+            limit.onSample(nanos, inFlight, failed);
+            inFlight--;
+            // The limit may have moved by more than one: every waiter re-checks
+            if (waiting > 0) {
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ReactMadeleine.Garden.admission;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The endpoints the application actually serves, as {@code METHOD pattern} (for instance
+ * {@code GET /api/bookings/{id}}), taken from the request mappings. Admission limits are kept per template,
+ * so their number is fixed by the code and no request path can add one.
+ */
+final class EndpointTemplates {
+
+    private final List<Template> templates;
+
+    // "GET /api/bookings/{id}"; a template without a method matches every method
+    EndpointTemplates(List<String> endpoints) {
+        List<Template> parsed = new ArrayList<>(endpoints.size());
+        for (String endpoint : endpoints) {
+            int space = endpoint.indexOf(' ');
+            String method = space < 0 ? null : endpoint.substring(0, space);
+            String pattern = space < 0 ? endpoint : endpoint.substring(space + 1);
+            parsed.add(new Template(method, PathPatternParser.defaultInstance.parse(pattern)));
+        }
+        // Most specific first: /api/bookings/search before /api/bookings/{id}
+        parsed.sort(Comparator.comparing(Template::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        this.templates = List.copyOf(parsed);
+    }
+
+    static EndpointTemplates of(RequestMappingHandlerMapping handlerMapping) {
+        List<String> endpoints = new ArrayList<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> mapping : handlerMapping.getHandlerMethods().entrySet()) {
+            RequestMappingInfo info = mapping.getKey();
+            if (info.getPathPatternsCondition() == null) {
+                continue;
+            }
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            for (PathPattern pattern : info.getPathPatternsCondition().getPatterns()) {
+                if (methods.isEmpty()) {
+                    endpoints.add(pattern.getPatternString());
+                }
+                for (RequestMethod method : methods) {
+                    endpoints.add(method.name() + " " + pattern.getPatternString());
+                }
+            }
+        }
+        return new EndpointTemplates(endpoints);
+    }
+
+    /**
+     * The template serving this request, or null when no mapping matches (the request will get a 404 or 405).
+     */
+    String resolve(String method, String path) {
+        if (RequestMethod.resolve(method) == null) {
+            return null;
+        }
+        // GET mappings answer HEAD too
+        String mapped = method.equals("HEAD") ? "GET" : method;
+        PathContainer container = PathContainer.parsePath(path);
+        for (Template template : templates) {
+            if ((template.method == null || template.method.equals(mapped) || template.method.equals(method))
+                    && template.pattern.matches(container)) {
+                return (template.method == null ? method : template.method) + " " + template.pattern.getPatternString();
+            }
+        }
+        return null;
+    }
+
+    private record Template(String method, PathPattern pattern) {
+    }
+}
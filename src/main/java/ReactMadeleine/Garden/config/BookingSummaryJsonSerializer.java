@@ -0,0 +1,98 @@
+package ReactMadeleine.Garden.config;
+
+import ReactMadeleine.Garden.dto.BookingSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for the booking list rows: field names are encoded once, and dates and
+ * prices are written directly instead of going through the bean and java.time serializers. The output
+ * is identical to the default serialization (ISO dates, nulls included).
+ */
+@JsonComponent
+public class BookingSummaryJsonSerializer extends JsonSerializer<BookingSummary> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializableString LAST_NAME = new SerializedString("lastName");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString PHONE = new SerializedString("phone");
+    private static final SerializableString BOOKING_TYPE = new SerializedString("bookingType");
+    private static final SerializableString COUNTRY = new SerializedString("country");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString CHECK_IN_DATE = new SerializedString("checkInDate");
+    private static final SerializableString CHECK_OUT_DATE = new SerializedString("checkOutDate");
+    private static final SerializableString ARRIVAL = new SerializedString("arrival");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString TOTAL_PRICE = new SerializedString("totalPrice");
+    private static final SerializableString UNIT_ID = new SerializedString("unitId");
+
+    @Override
+    public void serialize(BookingSummary booking, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(booking);
+        writeNumber(gen, ID, booking.getId());
+        writeString(gen, FIRST_NAME, booking.getFirstName());
+        writeString(gen, LAST_NAME, booking.getLastName());
+        writeString(gen, EMAIL, booking.getEmail());
+        writeString(gen, PHONE, booking.getPhone());
+        writeString(gen, BOOKING_TYPE, booking.getBookingType());
+        writeString(gen, COUNTRY, booking.getCountry());
+        writeString(gen, CITY, booking.getCity());
+        writeDate(gen, CHECK_IN_DATE, booking.getCheckInDate());
+        writeDate(gen, CHECK_OUT_DATE, booking.getCheckOutDate());
+        gen.writeFieldName(ARRIVAL);
+        LocalTime arrival = booking.getArrival();
+        if (arrival == null) {
+            gen.writeNull();
+        } else {
+            // Same format as Jackson's LocalTimeSerializer: seconds always present
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_TIME.format(arrival));
+        }
+        writeString(gen, STATUS, booking.getStatus());
+        gen.writeFieldName(TOTAL_PRICE);
+        if (booking.getTotalPrice() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(booking.getTotalPrice());
+        }
+        writeNumber(gen, UNIT_ID, booking.getUnitId());
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeDate(JsonGenerator gen, SerializableString name, LocalDate value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            // LocalDate.toString() is ISO-8601 (yyyy-MM-dd), as written by LocalDateSerializer
+            gen.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ReactMadeleine.Garden.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Modules declared as beans are registered on Spring Boot's ObjectMapper
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter/setter calls with generated lambdas (the Java 11+ successor of Afterburner).
+    // Switched off for native images, which cannot define classes at runtime (see the native profile).
+    @Bean
+    @ConditionalOnProperty(name = "garden.jackson.blackbird.enabled", matchIfMissing = true)
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
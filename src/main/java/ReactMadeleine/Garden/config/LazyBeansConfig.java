@@ -0,0 +1,31 @@
+package ReactMadeleine.Garden.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Auto-configured beans nothing needs at startup, created on first use instead. Everything else stays eager:
+ * the in-memory loaders must be ready before the first request and the jobs must be scheduled.
+ */
+@Configuration(proxyBeanMethods = false)
+public class LazyBeansConfig {
+
+    // Mail goes through the (lazy) EmailService only. Thymeleaf renders no views (spring.thymeleaf.enabled=false),
+    // its engine is kept for whoever needs a template.
+    private static final List<String> LAZY_BEANS = List.of("mailSender", "templateEngine", "defaultTemplateResolver");
+
+    // Static: runs before the other bean definitions are instantiated
+    @Bean
+    public static BeanFactoryPostProcessor lazyAutoConfiguredBeans() {
+        return beanFactory -> {
+            for (String name : LAZY_BEANS) {
+                if (beanFactory.containsBeanDefinition(name)) {
+                    beanFactory.getBeanDefinition(name).setLazyInit(true);
+                }
+            }
+        };
+    }
+}
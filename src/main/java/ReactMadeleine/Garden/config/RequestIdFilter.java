@@ -0,0 +1,51 @@
+package ReactMadeleine.Garden.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Puts a request ID in the MDC so that log lines written asynchronously can still be
+ * correlated to the request that produced them. An incoming X-Request-Id header is reused
+ * (so the React front end or a proxy can propagate its own ID), otherwise one is generated.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = resolveRequestId(request.getHeader(REQUEST_ID_HEADER));
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    private String resolveRequestId(String header) {
+        // Only trust short, printable IDs from the client so they can't pollute the JSON logs
+        if (header != null && !header.isBlank() && header.length() <= MAX_REQUEST_ID_LENGTH
+                && header.chars().allMatch(c -> c > 32 && c < 127)) {
+            return header;
+        }
+        return UUID.randomUUID().toString();
+    }
+}
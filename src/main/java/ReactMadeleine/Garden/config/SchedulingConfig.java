@@ -0,0 +1,10 @@
+package ReactMadeleine.Garden.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Active les jobs de maintenance (package scheduler)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
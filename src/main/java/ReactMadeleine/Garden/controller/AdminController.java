@@ -1,13 +1,17 @@
 package ReactMadeleine.Garden.controller;
 
+import ReactMadeleine.Garden.dto.AdminSummary;
+import ReactMadeleine.Garden.dto.PageResponse;
 import ReactMadeleine.Garden.model.Admin;
 import ReactMadeleine.Garden.service.AdminService;
+import ReactMadeleine.Garden.service.CollectionVersions;
+import ReactMadeleine.Garden.service.PagingMode;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -15,42 +19,52 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admins")
-@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"},
-        allowedHeaders = "*",
-        methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
 public class AdminController {
 
     private final AdminService adminService;
+    private final ConditionalRequests conditionalRequests;
 
     @Autowired
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, ConditionalRequests conditionalRequests) {
         this.adminService = adminService;
+        this.conditionalRequests = conditionalRequests;
     }
 
+    // total=exact (default) | none | approximate, see PagingMode
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllAdmins(
+    public ResponseEntity<PageResponse<AdminSummary>> getAllAdmins(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "exact") String total,
+            ServletWebRequest webRequest) {
+        PagingMode mode;
         try {
-            Page<Admin> adminPage = adminService.getAllAdminsPaginated(page, size);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", adminPage.getContent());
-            response.put("totalPages", adminPage.getTotalPages());
-            response.put("totalElements", adminPage.getTotalElements());
-            response.put("currentPage", adminPage.getNumber());
-
-            return ResponseEntity.ok(response);
+            mode = PagingMode.fromParameter(total);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.ADMINS)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL)
+                    .body(adminService.getAllAdminsPaginated(mode, page, size));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Admin> getAdminById(@PathVariable Long id) {
-        return adminService.getAdminById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Admin> getAdminById(@PathVariable Long id, ServletWebRequest webRequest) {
+        Admin admin = adminService.getAdminById(id).orElse(null);
+        if (admin == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.ADMINS,
+                admin.getId(), admin.getVersion(), admin.getUpdatedAt())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(admin);
     }
 
     @PostMapping
@@ -68,27 +82,36 @@ public class AdminController {
         try {
             Admin updatedAdmin = adminService.updateAdmin(id, adminDetails);
             return ResponseEntity.ok(updatedAdmin);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchAdmins(
+    public ResponseEntity<PageResponse<AdminSummary>> searchAdmins(
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "prefix") String match,
+            @RequestParam(defaultValue = "exact") String total,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            ServletWebRequest webRequest) {
+        if (!"prefix".equals(match) && !"contains".equals(match)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PagingMode mode;
         try {
-            Page<Admin> adminPage = adminService.searchAdmins(email, name, page, size);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("content", adminPage.getContent());
-            response.put("totalPages", adminPage.getTotalPages());
-            response.put("totalElements", adminPage.getTotalElements());
-            response.put("currentPage", adminPage.getNumber());
-
-            return ResponseEntity.ok(response);
+            mode = PagingMode.fromParameter(total);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.ADMINS)) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(adminService.searchAdmins(email, name, "contains".equals(match), mode, page, size));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -107,7 +130,7 @@ public class AdminController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
         try {
-            Admin admin = adminService.login(loginRequest.getEmail(), loginRequest.getPassword());
+            AdminSummary admin = adminService.login(loginRequest.getEmail(), loginRequest.getPassword());
 
             // Create a secure response map
             Map<String, Object> response = new HashMap<>();
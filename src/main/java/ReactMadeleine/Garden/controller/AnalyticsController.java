@@ -0,0 +1,71 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.dto.OccupancyRow;
+import ReactMadeleine.Garden.dto.RevenueRow;
+import ReactMadeleine.Garden.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @Autowired
+    public AnalyticsController(AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    // e.g. /api/analytics/occupancy?from=2025-01-01&to=2025-12-31&granularity=month&groupBy=bookingType
+    @GetMapping("/occupancy")
+    public ResponseEntity<List<OccupancyRow>> getOccupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(defaultValue = "none") String groupBy,
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(analyticsService.occupancy(
+                from, to, parseGranularity(granularity), parseDimension(groupBy), status));
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueRow>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(defaultValue = "none") String groupBy,
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(analyticsService.revenue(
+                from, to, parseGranularity(granularity), parseDimension(groupBy), status));
+    }
+
+    private AnalyticsService.Granularity parseGranularity(String granularity) {
+        try {
+            return AnalyticsService.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be 'day' or 'month'");
+        }
+    }
+
+    private AnalyticsService.Dimension parseDimension(String groupBy) {
+        return switch (groupBy) {
+            case "none" -> AnalyticsService.Dimension.NONE;
+            case "bookingType" -> AnalyticsService.Dimension.BOOKING_TYPE;
+            case "country" -> AnalyticsService.Dimension.COUNTRY;
+            case "status" -> AnalyticsService.Dimension.STATUS;
+            default -> throw new IllegalArgumentException("groupBy must be one of: none, bookingType, country, status");
+        };
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,60 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.model.BookableUnit;
+import ReactMadeleine.Garden.service.InventoryService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/units")
+public class BookableUnitController {
+
+    private final InventoryService inventoryService;
+
+    @Autowired
+    public BookableUnitController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BookableUnit>> getAllUnits() {
+        return ResponseEntity.ok(inventoryService.getAllUnits());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BookableUnit> getUnitById(@PathVariable Long id) {
+        return inventoryService.getUnitById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createUnit(@Valid @RequestBody BookableUnit unit) {
+        try {
+            unit.setId(null);
+            return ResponseEntity.status(HttpStatus.CREATED).body(inventoryService.createUnit(unit));
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A unit with this name already exists");
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<BookableUnit> updateUnit(@PathVariable Long id, @Valid @RequestBody BookableUnit unitDetails) {
+        return inventoryService.updateUnit(id, unitDetails)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivateUnit(@PathVariable Long id) {
+        return inventoryService.deactivateUnit(id)
+                .map(unit -> ResponseEntity.noContent().<Void>build())
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
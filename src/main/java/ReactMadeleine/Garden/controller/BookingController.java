@@ -1,21 +1,38 @@
 package ReactMadeleine.Garden.controller;
 
 
+import ReactMadeleine.Garden.dto.BookingStatusChange;
+import ReactMadeleine.Garden.dto.BookingStatusResult;
+import ReactMadeleine.Garden.dto.BookingSummary;
 import ReactMadeleine.Garden.exception.BookingNotFoundException;
+import ReactMadeleine.Garden.exception.IdempotencyKeyConflictException;
+import ReactMadeleine.Garden.exception.IdempotencyKeyMismatchException;
 import ReactMadeleine.Garden.exception.InvalidBookingStateException;
+import ReactMadeleine.Garden.model.ArchivedBooking;
 import ReactMadeleine.Garden.model.Booking;
 import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.service.BookingHistoryService;
 import ReactMadeleine.Garden.service.BookingService;
+import ReactMadeleine.Garden.service.CollectionVersions;
+import ReactMadeleine.Garden.service.IdempotencyService;
+import ReactMadeleine.Garden.service.PagedQueries;
+import ReactMadeleine.Garden.service.PagingMode;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -25,32 +42,68 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BookingController {
 
-    @Autowired
-    private BookingRepository bookingRepository;
-
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+    private final BookingRepository bookingRepository;
     private final BookingService bookingService;
+    private final BookingHistoryService bookingHistoryService;
+    private final PagedQueries pagedQueries;
+    private final ConditionalRequests conditionalRequests;
+    private final JsonArrayStreams jsonArrayStreams;
+    private final IdempotencyService idempotencyService;
 
+    // A retry with the same Idempotency-Key gets the first response back instead of a second booking
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@Valid @RequestBody Booking booking) {
+    public ResponseEntity<?> createBooking(
+            @Valid @RequestBody Booking booking,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("REST request to create Booking");
-        Booking result = bookingService.createBooking(booking);
-        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings", booking,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(bookingService.createBooking(booking)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBooking(@PathVariable Long id) {
+    public ResponseEntity<Booking> getBooking(@PathVariable Long id, ServletWebRequest webRequest) {
         logger.info("REST request to get Booking : {}", id);
-        return bookingService.getBookingById(id)
-                .map(ResponseEntity::ok)
+        Booking booking = bookingService.getBookingById(id)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + id));
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.BOOKINGS,
+                booking.getId(), booking.getVersion(), booking.getUpdatedAt())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(booking);
     }
 
-    @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
+    // Whole listing, streamed. Declared as StreamingResponseBody so that MVC writes the body itself
+    // instead of handing the lambda to Jackson.
+    @GetMapping(params = "!page")
+    public ResponseEntity<StreamingResponseBody> getAllBookings(ServletWebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.BOOKINGS)) {
+            return null;
+        }
         logger.info("REST request to get all Bookings");
-        List<Booking> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(bookings);
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreams.array(bookingRepository::streamAllSummaries));
+    }
+
+    // total=exact|none|approximate (see PagingMode)
+    @GetMapping(params = "page")
+    public ResponseEntity<?> getBookingsPage(
+            @RequestParam int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "exact") String total,
+            ServletWebRequest webRequest) {
+        PagingMode mode = PagingMode.fromParameter(total);
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.BOOKINGS)) {
+            return null;
+        }
+        logger.info("REST request to get Bookings page {} (size {}, total {})", page, size, total);
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalRequests.CACHE_CONTROL)
+                .body(pagedQueries.fetch(mode, PageRequest.of(page, size, Sort.by("id")), "bookings",
+                        bookingRepository::findSummaries, bookingRepository::findSummariesWithTotal,
+                        bookingRepository::count));
     }
 
     @PutMapping("/{id}")
@@ -62,6 +115,14 @@ public class BookingController {
         return ResponseEntity.ok(updatedBooking);
     }
 
+    // Batch variant of PATCH /{id}/status: one transaction, results per item in request order
+    @PatchMapping("/status")
+    public ResponseEntity<List<BookingStatusResult>> updateBookingStatuses(
+            @RequestBody List<BookingStatusChange> changes) {
+        logger.info("REST request to update status of {} Bookings", changes.size());
+        return ResponseEntity.ok(bookingService.updateBookingStatuses(changes));
+    }
+
     @PatchMapping("/{id}/status")
     public ResponseEntity updateBookingStatus(
             @PathVariable Long id,
@@ -98,22 +159,38 @@ public class BookingController {
     }
 
     @GetMapping("/search")
-    public List<Booking> searchBookings(
+    public ResponseEntity<StreamingResponseBody> searchBookings(
             @RequestParam(required = false) String customerName,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(required = false) Double minPrice,
-            @RequestParam(required = false) Double maxPrice) {
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonArrayStreams.array(() -> bookingRepository.streamBookingSummaries(
+                        customerName,
+                        status,
+                        startDate,
+                        endDate,
+                        minPrice,
+                        maxPrice
+                )));
+    }
 
-        return bookingRepository.searchBookings(
-                customerName,
-                status,
-                startDate,
-                endDate,
-                minPrice,
-                maxPrice
-        );
+    // Séjours archivés (voir BookingLifecycleJobs.archivePastBookings)
+    @GetMapping("/history")
+    public ResponseEntity<List<ArchivedBooking>> getBookingHistory(
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String bookingType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        logger.info("REST request to get Booking history from {} to {}", from, to);
+        return ResponseEntity.ok(bookingHistoryService.findHistory(customerName, status, bookingType, from, to, page, size));
     }
 
     @ExceptionHandler(BookingNotFoundException.class)
@@ -126,6 +203,16 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
     }
 
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(ex.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyKeyMismatch(IdempotencyKeyMismatchException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<String> handleIllegalArgument(IllegalArgumentException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
@@ -0,0 +1,70 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.service.BookingEventHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Server-Sent Events feed of booking changes for the admin dashboard, replacing list polling.
+ * Event names: created, updated, status_changed, deleted, and resync (reload the list).
+ */
+@RestController
+@RequestMapping("/api/bookings")
+public class BookingStreamController {
+    private static final Logger logger = LoggerFactory.getLogger(BookingStreamController.class);
+
+    private final BookingEventHub bookingEventHub;
+    private final long timeoutMillis;
+
+    public BookingStreamController(BookingEventHub bookingEventHub,
+                                   @Value("${garden.sse.timeout:PT30M}") Duration timeout) {
+        this.bookingEventHub = bookingEventHub;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("REST request to stream Booking changes (Last-Event-ID: {})", lastEventId);
+        // The browser reconnects on timeout and resumes from its Last-Event-ID
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        BookingEventHub.Subscription subscription = bookingEventHub.subscribe(new EmitterSink(emitter), lastEventId);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements BookingEventHub.Sink {
+
+        @Override
+        public void send(BookingEventHub.Event event) throws IOException {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON);
+            if (event.id() != null) {
+                builder.id(event.id());
+            }
+            emitter.send(builder);
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.service.CollectionVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * If-None-Match / If-Modified-Since handling for polled reads. When a check returns {@code true} the
+ * response is already a 304 with its ETag and the handler returns {@code null}; otherwise the ETag and
+ * Last-Modified headers are set and the handler builds its body as usual, with {@link #CACHE_CONTROL}.
+ */
+@Component
+public class ConditionalRequests {
+
+    // Browsers keep the response but revalidate on every poll
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final CollectionVersions collectionVersions;
+
+    public ConditionalRequests(CollectionVersions collectionVersions) {
+        this.collectionVersions = collectionVersions;
+    }
+
+    // Listing: answered from the collection stamp, one index-only query instead of the listing
+    public boolean notModified(ServletWebRequest request, String collection) {
+        String variant = request.getRequest().getQueryString();
+        CollectionStamp stamp = collectionVersions.stamp(collection);
+        return request.checkNotModified(collectionVersions.etag(collection, stamp, variant),
+                collectionVersions.lastModified(stamp));
+    }
+
+    // Single row: answered from its @Version, before serialization
+    public boolean notModified(ServletWebRequest request, String collection, Long id, Long version,
+                               LocalDateTime updatedAt) {
+        long lastModified = updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(collectionVersions.etag(collection, id, version), lastModified);
+    }
+}
@@ -0,0 +1,59 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a large query result as a JSON array while it is read from the database, instead of building
+ * the whole list (and its serialized form) in memory. The query runs in a read-only transaction on the
+ * async response thread, for the tenant of the request, and output is flushed every {@link #FLUSH_EVERY}
+ * rows.
+ */
+@Component
+public class JsonArrayStreams {
+
+    static final int FLUSH_EVERY = 1000;
+
+    private final ObjectWriter writer;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public JsonArrayStreams(ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        // Flushing is done per chunk below; the servlet container owns the output stream
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public <T> StreamingResponseBody array(Supplier<Stream<T>> query) {
+        String tenant = TenantContext.current();
+        return out -> TenantContext.runAs(tenant, () -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get(); SequenceWriter array = writer.writeValuesAsArray(out)) {
+                int written = 0;
+                for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                    array.write(it.next());
+                    if (++written % FLUSH_EVERY == 0) {
+                        array.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+}
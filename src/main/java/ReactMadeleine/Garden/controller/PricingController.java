@@ -0,0 +1,94 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.dto.PriceQuote;
+import ReactMadeleine.Garden.model.RateTable;
+import ReactMadeleine.Garden.model.StayDiscount;
+import ReactMadeleine.Garden.service.PricingService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/pricing")
+public class PricingController {
+
+    private final PricingService pricingService;
+
+    @Autowired
+    public PricingController(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    @GetMapping("/quote")
+    public ResponseEntity<PriceQuote> getQuote(
+            @RequestParam String bookingType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkInDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOutDate) {
+        if (checkOutDate.isBefore(checkInDate)) {
+            throw new IllegalArgumentException("Check-out date must be after check-in date");
+        }
+        return pricingService.quote(bookingType, checkInDate, checkOutDate)
+                .map(price -> ResponseEntity.ok(new PriceQuote(bookingType, checkInDate, checkOutDate, price)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/rates")
+    public ResponseEntity<List<RateTable>> getAllRates() {
+        return ResponseEntity.ok(pricingService.getAllRates());
+    }
+
+    @PostMapping("/rates")
+    public ResponseEntity<RateTable> createRate(@Valid @RequestBody RateTable rate) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(pricingService.createRate(rate));
+    }
+
+    @PutMapping("/rates/{id}")
+    public ResponseEntity<RateTable> updateRate(@PathVariable Long id, @Valid @RequestBody RateTable rate) {
+        return pricingService.updateRate(id, rate)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/rates/{id}")
+    public ResponseEntity<Void> deleteRate(@PathVariable Long id) {
+        return pricingService.deleteRate(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/discounts")
+    public ResponseEntity<List<StayDiscount>> getAllDiscounts() {
+        return ResponseEntity.ok(pricingService.getAllDiscounts());
+    }
+
+    @PostMapping("/discounts")
+    public ResponseEntity<StayDiscount> createDiscount(@Valid @RequestBody StayDiscount discount) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(pricingService.createDiscount(discount));
+    }
+
+    @PutMapping("/discounts/{id}")
+    public ResponseEntity<StayDiscount> updateDiscount(@PathVariable Long id, @Valid @RequestBody StayDiscount discount) {
+        return pricingService.updateDiscount(id, discount)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/discounts/{id}")
+    public ResponseEntity<Void> deleteDiscount(@PathVariable Long id) {
+        return pricingService.deleteDiscount(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, DateTimeException.class})
+    public ResponseEntity<String> handleInvalidPricing(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
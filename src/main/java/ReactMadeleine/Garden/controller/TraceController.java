@@ -0,0 +1,37 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.tracing.RecordedTrace;
+import ReactMadeleine.Garden.tracing.SlowTraceRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admins/traces")
+public class TraceController {
+
+    private final SlowTraceRecorder slowTraceRecorder;
+
+    @Autowired
+    public TraceController(SlowTraceRecorder slowTraceRecorder) {
+        this.slowTraceRecorder = slowTraceRecorder;
+    }
+
+    // Most recent slow traces first
+    @GetMapping
+    public ResponseEntity<List<RecordedTrace>> getSlowTraces(
+            @RequestParam(defaultValue = "0") double minDurationMs) {
+        List<RecordedTrace> traces = slowTraceRecorder.getRecentSlowTraces().stream()
+                .filter(trace -> trace.durationMs() >= minDurationMs)
+                .toList();
+        return ResponseEntity.ok(traces);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearSlowTraces() {
+        slowTraceRecorder.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
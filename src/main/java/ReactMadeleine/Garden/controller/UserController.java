@@ -1,21 +1,34 @@
 package ReactMadeleine.Garden.controller;
 
 
+import ReactMadeleine.Garden.exception.IdempotencyKeyConflictException;
+import ReactMadeleine.Garden.exception.IdempotencyKeyMismatchException;
+import ReactMadeleine.Garden.implementation.CustomUserDetails;
 import ReactMadeleine.Garden.model.User;
 import ReactMadeleine.Garden.repository.UserRepository;
+import ReactMadeleine.Garden.service.CollectionVersions;
 import ReactMadeleine.Garden.service.EmailService;
+import ReactMadeleine.Garden.service.IdempotencyService;
+import ReactMadeleine.Garden.service.PagedQueries;
+import ReactMadeleine.Garden.service.PagingMode;
+import ReactMadeleine.Garden.service.PasswordResetService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
 
 @RestController
 @RequestMapping("/api/users")
@@ -28,14 +41,41 @@ public class UserController {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
+    @Lazy
     private EmailService emailService;
 
+    @Autowired
+    private PagedQueries pagedQueries;
+
+    @Autowired
+    private ConditionalRequests conditionalRequests;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PasswordResetService passwordResetService;
 
 
-    // Create
+
+
+    // Create; a retry with the same Idempotency-Key gets the first response back without re-registering
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody User user) {
+    public ResponseEntity<?> registerUser(
+            @RequestBody User user,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        try {
+            return idempotencyService.execute(idempotencyKey, "POST /api/users/register", user, () -> register(user));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Validation error: " + e.getMessage());
+        } catch (IdempotencyKeyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+        } catch (IdempotencyKeyMismatchException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> register(User user) {
         try {
             // Validate user object
             if (user == null) {
@@ -97,22 +137,53 @@ public class UserController {
         }
     }
 
-    // Read all (including encoded passwords)
+    // Read all (id, username, email); paginated when page is given, total=exact|none|approximate
     @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ResponseEntity<?> getAllUsers(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "exact") String total,
+            ServletWebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.USERS)) {
+            return null;
+        }
+        if (page == null) {
+            return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(userRepository.findAllSummaries());
+        }
+        try {
+            PagingMode mode = PagingMode.fromParameter(total);
+            return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(pagedQueries.fetch(mode, PageRequest.of(page, size, Sort.by("id")), "users",
+                    userRepository::findSummaries, userRepository::findSummariesWithTotal, userRepository::count));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
-    // Read one
+    // Read one: own account, or any as admin
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<User> getUserById(@PathVariable Long id, ServletWebRequest webRequest,
+                                            @AuthenticationPrincipal CustomUserDetails principal) {
+        if (!mayAccess(principal, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         Optional<User> user = userRepository.findById(id);
-        return user.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (conditionalRequests.notModified(webRequest, CollectionVersions.USERS,
+                id, user.get().getVersion(), user.get().getUpdatedAt())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(ConditionalRequests.CACHE_CONTROL).body(user.get());
     }
 
-    // Update
+    // Update: own account, or any as admin
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails,
+                                           @AuthenticationPrincipal CustomUserDetails principal) {
+        if (!mayAccess(principal, id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         Optional<User> optionalUser = userRepository.findById(id);
         if (optionalUser.isPresent()) {
             User user = optionalUser.get();
@@ -127,6 +198,17 @@ public class UserController {
         }
     }
 
+    // User and admin ids are separate sequences: only a user principal can own a user id
+    private static boolean mayAccess(CustomUserDetails principal, Long id) {
+        if (principal == null) {
+            return false;
+        }
+        if (principal.getAuthorities().contains(new SimpleGrantedAuthority(CustomUserDetails.ROLE_ADMIN))) {
+            return true;
+        }
+        return principal.getKind() == CustomUserDetails.Kind.USER && principal.getId().equals(id);
+    }
+
     // Delete
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
@@ -149,41 +231,15 @@ public class UserController {
 
 
 
+    // Same answer whether or not the address has an account, so it cannot be used to probe for emails
     @PostMapping("/forgot-password")
     public ResponseEntity<?> forgotPassword(@RequestBody Map<String, String> request) {
         String email = request.get("email");
-        if (email == null || email.isEmpty()) {
+        if (email == null || email.isBlank()) {
             return ResponseEntity.badRequest().body("Email is required.");
         }
-
-        try {
-            Optional<User> userOptional = userRepository.findByEmail(email);
-
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                String resetToken = generateResetToken();
-                user.setResetToken(resetToken);
-                user.setResetTokenExpiration(LocalDateTime.now().plusHours(1)); // Token valid for 1 hour
-                userRepository.save(user);
-
-                // Send email with reset token
-                String subject = "Password Reset Request";
-                String body = "Dear " + user.getUsername() + ",\n\n"
-                        + "You have requested to reset your password. Please use the following code to reset your password:\n\n"
-                        + resetToken + "\n\n"
-                        + "This code will expire in 1 hour.\n\n"
-                        + "If you did not request a password reset, please ignore this email.\n\n"
-                        + "Best regards,\nThe MadeleineGarden Team";
-
-                emailService.sendEmail(email, subject, body);
-                return ResponseEntity.ok("Reset code sent to your email.");
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No account found with this email.");
-            }
-        } catch (Exception e) {
-            e.printStackTrace(); // Log the exception
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An error occurred while processing your request.");
-        }
+        passwordResetService.requestReset(email);
+        return ResponseEntity.ok("If an account exists for this email, a reset code has been sent.");
     }
 
     @PostMapping("/reset-password")
@@ -192,33 +248,14 @@ public class UserController {
         String resetToken = request.get("resetToken");
         String newPassword = request.get("newPassword");
 
-        Optional<User> userOptional = userRepository.findByEmail(email);
-
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            if (user.getResetToken() != null &&
-                    user.getResetToken().equals(resetToken) &&
-                    user.getResetTokenExpiration().isAfter(LocalDateTime.now())) {
-
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setResetToken(null);
-                user.setResetTokenExpiration(null);
-                userRepository.save(user);
-
-                return ResponseEntity.ok("Password reset successful.");
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired reset token.");
-            }
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No account found with this email.");
+        if (newPassword == null || newPassword.length() < 6) {
+            return ResponseEntity.badRequest().body("Password must have at least 6 characters");
         }
+        if (passwordResetService.resetPassword(email, resetToken, newPassword)) {
+            return ResponseEntity.ok("Password reset successful.");
+        }
+        // Unknown email, wrong, expired or exhausted code: one answer for all
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired reset token.");
     }
 
-    private String generateResetToken() {
-        // Generate a random 6-digit code
-        return String.format("%06d", new Random().nextInt(999999));
-    }
-
-
-
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package ReactMadeleine.Garden.dto;
+
+import ReactMadeleine.Garden.model.Admin;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Admin without password hash
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdminSummary {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String role;
+
+    public static AdminSummary of(Admin admin) {
+        return new AdminSummary(admin.getId(), admin.getFirstName(), admin.getLastName(),
+                admin.getEmail(), admin.getRole());
+    }
+}
@@ -0,0 +1,19 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A run of consecutive days with the same availability; {@code from} and {@code to} are inclusive.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityRange {
+    private LocalDate from;
+    private LocalDate to;
+    private boolean available;
+}
@@ -0,0 +1,14 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One item of PATCH /api/bookings/status
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStatusChange {
+    private Long id;
+    private String status;
+}
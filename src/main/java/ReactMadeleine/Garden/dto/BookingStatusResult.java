@@ -0,0 +1,28 @@
+package ReactMadeleine.Garden.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of PATCH /api/bookings/status, in request order. {@code status} is the booking's
+ * status after the batch; {@code message} explains a rejection.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingStatusResult {
+    private Long id;
+    private Outcome outcome;
+    private String status;
+    private String message;
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        REJECTED
+    }
+}
@@ -0,0 +1,16 @@
+package ReactMadeleine.Garden.dto;
+
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Data of one /api/bookings/stream event; booking is the state after the change, null for deletions
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStreamEvent {
+    private String type;
+    private Long bookingId;
+    private BookingSnapshot booking;
+}
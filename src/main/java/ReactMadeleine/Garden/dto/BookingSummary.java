@@ -0,0 +1,33 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Booking row for list and search responses, read with a constructor projection. The address and
+ * timestamps are only returned by {@code GET /api/bookings/{id}}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSummary {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private String bookingType;
+    private String country;
+    private String city;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private LocalTime arrival;
+    private String status;
+    private BigDecimal totalPrice;
+    private Long unitId;
+}
@@ -0,0 +1,21 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of one tenant's rows in a table, read in one index-only query: any insert, update or delete
+ * changes at least one field (updates bump {@code @Version}, inserts take a new id).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CollectionStamp {
+    private Long rows;
+    private Long lastId;
+    private Long versions;
+    private LocalDateTime lastUpdate;
+}
@@ -0,0 +1,15 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OccupancyRow {
+    private String period;
+    private String group;
+    private Long occupiedNights;
+    private Long checkIns;
+}
@@ -0,0 +1,26 @@
+package ReactMadeleine.Garden.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a listing. The totals are only present when the request asked for them
+ * ({@code total=exact} or {@code total=approximate}); {@code hasNext} is always set.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PageResponse<T> {
+    private List<T> content;
+    private Integer currentPage;
+    private Integer size;
+    private Boolean hasNext;
+    private Long totalElements;
+    private Integer totalPages;
+    private Boolean totalApproximate;
+}
@@ -0,0 +1,17 @@
+package ReactMadeleine.Garden.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueRow {
+    private String period;
+    private String group;
+    private BigDecimal revenue;
+    private Long bookings;
+}
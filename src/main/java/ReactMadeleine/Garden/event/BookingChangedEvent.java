@@ -0,0 +1,36 @@
+package ReactMadeleine.Garden.event;
+
+/**
+ * Published by BookingService for every booking write. Listeners that maintain derived state should
+ * use {@code @TransactionalEventListener} so they only see committed changes.
+ * {@code before} is null for creations, {@code after} is null for deletions.
+ */
+public record BookingChangedEvent(Type type, BookingSnapshot before, BookingSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    public static BookingChangedEvent created(BookingSnapshot after) {
+        return new BookingChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static BookingChangedEvent updated(BookingSnapshot before, BookingSnapshot after) {
+        return new BookingChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static BookingChangedEvent statusChanged(BookingSnapshot before, BookingSnapshot after) {
+        return new BookingChangedEvent(Type.STATUS_CHANGED, before, after);
+    }
+
+    public static BookingChangedEvent deleted(BookingSnapshot before) {
+        return new BookingChangedEvent(Type.DELETED, before, null);
+    }
+
+    public Long bookingId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,49 @@
+package ReactMadeleine.Garden.event;
+
+import ReactMadeleine.Garden.model.Booking;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Immutable copy of the booking fields that in-memory aggregates depend on. Taken before and after a
+ * change so listeners can retract the old contribution and add the new one without re-reading the row.
+ * {@code version} is the row's {@code @Version} as written, which tells a rebuilt aggregate whether the
+ * rows it read already include a change.
+ */
+public record BookingSnapshot(
+        Long id,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        String bookingType,
+        String country,
+        String status,
+        BigDecimal totalPrice,
+        Long unitId,
+        Long version
+) {
+
+    public static BookingSnapshot of(Booking booking) {
+        return new BookingSnapshot(
+                booking.getId(),
+                booking.getCheckInDate(),
+                booking.getCheckOutDate(),
+                booking.getBookingType(),
+                booking.getCountry(),
+                booking.getStatus(),
+                booking.getTotalPrice(),
+                booking.getUnitId(),
+                booking.getVersion()
+        );
+    }
+
+    // The bulk status updates bump the version by one, like an entity update
+    public BookingSnapshot withStatus(String newStatus) {
+        return new BookingSnapshot(id, checkInDate, checkOutDate, bookingType, country, newStatus, totalPrice, unitId,
+                version == null ? null : version + 1);
+    }
+
+    public boolean isCancelled() {
+        return "Cancelled".equals(status);
+    }
+}
@@ -0,0 +1,80 @@
+package ReactMadeleine.Garden.implementation;
+
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link DaoAuthenticationProvider} that runs BCrypt once per account and password rather than on every
+ * HTTP Basic request. After a successful check it keeps an HMAC of the presented password (under a key
+ * that never leaves the process) next to the cached {@link UserDetails} instance; a later request with
+ * the same password and the same cached instance is accepted on a constant-time HMAC comparison.
+ * <p>
+ * The remembered HMAC is tied to that instance: when {@code CustomUserDetailsService} reloads the account
+ * (expiry, or a new version of its row written by any instance), the next request goes through BCrypt again.
+ */
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final SecretKeySpec key;
+    private final int maxEntries;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                         int maxEntries) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+        byte[] presented = hmac(credentials.toString());
+        // The same login can exist in several tenants
+        String account = TenantContext.current() + "/" + userDetails.getUsername();
+        Verified previous = verified.get(account);
+        if (previous != null && previous.details == userDetails && MessageDigest.isEqual(previous.hmac, presented)) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        if (verified.size() >= maxEntries) {
+            verified.clear();
+        }
+        verified.put(account, new Verified(userDetails, presented));
+    }
+
+    private byte[] hmac(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private record Verified(UserDetails details, byte[] hmac) {
+    }
+}
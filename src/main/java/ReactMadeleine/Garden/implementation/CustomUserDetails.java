@@ -1,53 +1,113 @@
 package ReactMadeleine.Garden.implementation;
 
 
+import ReactMadeleine.Garden.dto.AdminSummary;
+import ReactMadeleine.Garden.model.Admin;
 import ReactMadeleine.Garden.model.User;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Authenticated principal for both kinds of accounts: users log in with their username, admins with
+ * their email. Immutable and without the entity, so it can be cached between requests; it deliberately
+ * does not implement {@code CredentialsContainer}, which would erase the cached password hash.
+ */
 public class CustomUserDetails implements UserDetails {
-    private final User user;
+    public static final String ROLE_USER = "ROLE_USER";
+    public static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    public enum Kind {
+        USER,
+        ADMIN
+    }
+
+    private final Kind kind;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+    // Row version when loaded; the cache compares it with the table's
+    private final Long version;
+    // Only for admins: what /api/admins/login returns, without another query
+    private final AdminSummary admin;
 
     public CustomUserDetails(User user) {
-        this.user = user;
+        this.kind = Kind.USER;
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.authorities = List.of(new SimpleGrantedAuthority(ROLE_USER));
+        this.version = user.getVersion();
+        this.admin = null;
+    }
+
+    // Every admin gets ROLE_ADMIN; other roles (SUPER_ADMIN) are added on top
+    public CustomUserDetails(Admin admin) {
+        this.kind = Kind.ADMIN;
+        this.id = admin.getId();
+        this.username = admin.getEmail();
+        this.password = admin.getPassword();
+        String role = admin.getRole() == null ? "" : "ROLE_" + admin.getRole().trim().toUpperCase(Locale.ROOT);
+        this.authorities = role.isEmpty() || role.equals(ROLE_ADMIN)
+                ? List.of(new SimpleGrantedAuthority(ROLE_ADMIN))
+                : List.of(new SimpleGrantedAuthority(ROLE_ADMIN), new SimpleGrantedAuthority(role));
+        this.version = admin.getVersion();
+        this.admin = AdminSummary.of(admin);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public AdminSummary getAdmin() {
+        return admin;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Return authorities associated with the user
-        return null; // TODO: implement this
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
     public boolean isAccountNonExpired() {
-        return true; // Adjust as needed
+        return true;
     }
 
     @Override
     public boolean isAccountNonLocked() {
-        return true; // Adjust as needed
+        return true;
     }
 
     @Override
     public boolean isCredentialsNonExpired() {
-        return true; // Adjust as needed
+        return true;
     }
 
     @Override
     public boolean isEnabled() {
-        return true; // Adjust as needed
+        return true;
     }
 }
-
@@ -0,0 +1,65 @@
+package ReactMadeleine.Garden.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drops the single-column unique keys of the V1 schema, before V3 makes usernames and emails unique per
+ * tenant. A database baselined at V1 got them from {@code @Column(unique = true)} under ddl-auto, which
+ * named them after a hash, so they are looked up rather than dropped by name. Registered by Spring Boot
+ * as a bean rather than found by a classpath scan.
+ */
+@Component
+public class V2__Drop_legacy_unique_keys extends BaseJavaMigration {
+
+    private static final String[][] LEGACY_UNIQUE_COLUMNS = {
+            {"users", "username"},
+            {"users", "email"},
+            {"admins", "email"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        // Unique on their own, these would stop two tenants from using the same username or email
+        for (String[] unique : LEGACY_UNIQUE_COLUMNS) {
+            for (String index : singleColumnUniqueIndexes(connection, unique[0], unique[1])) {
+                execute(connection, "alter table " + unique[0] + " drop index `" + index + "`");
+            }
+        }
+    }
+
+    private static List<String> singleColumnUniqueIndexes(Connection connection, String table, String column)
+            throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select index_name from information_schema.statistics " +
+                        "where table_schema = database() and table_name = ? and non_unique = 0 " +
+                        "and index_name <> 'PRIMARY' " +
+                        "group by index_name having count(*) = 1 and max(column_name) = ?")) {
+            statement.setString(1, table);
+            statement.setString(2, column);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    indexes.add(rows.getString(1));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package ReactMadeleine.Garden.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "admins")
+// email is unique per tenant and covered by that index; names get their own for prefix search
+@Table(name = "admins", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_admins_tenant_email", columnNames = {"tenant_id", "email"})
+}, indexes = {
+        @Index(name = "idx_admins_tenant_first_name", columnList = "tenant_id, first_name"),
+        @Index(name = "idx_admins_tenant_last_name", columnList = "tenant_id, last_name"),
+        @Index(name = "idx_admins_tenant_updated_at", columnList = "tenant_id, updated_at, version")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,12 +36,33 @@ public class Admin {
     @Column(name = "last_name")
     private String lastName;
 
+    // Accepted on create/update, never serialized
     @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Column(nullable = false)
     private String role;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
+
+    // Bumped on every write; drives the ETag of this admin. Existing rows start at 0.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Admins only manage the property they belong to
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package ReactMadeleine.Garden.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+/**
+ * A room or space that can be booked. {@code capacity} is how many bookings the unit can hold on
+ * the same day (e.g. a dormitory or a garden area shared by several groups).
+ */
+@Entity
+@Table(name = "bookable_units", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_bookable_units_tenant_name", columnNames = {"tenant_id", "name"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookableUnit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Name is required")
+    @Column(nullable = false)
+    private String name;
+
+    @NotBlank(message = "Booking type is required")
+    @Column(name = "booking_type", nullable = false)
+    private String bookingType;
+
+    @Min(value = 1, message = "Capacity must be at least 1")
+    @Column(nullable = false)
+    private Integer capacity = 1;
+
+    @Column(nullable = false)
+    private Boolean active = true;
+
+    // Units, and so their occupancy calendars, belong to one property
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
+}
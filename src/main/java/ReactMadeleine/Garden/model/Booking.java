@@ -1,16 +1,36 @@
 package ReactMadeleine.Garden.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "bookings")
+// Every query is tenant-qualified, so every index leads with tenant_id. The schema itself comes from
+// db/migration; the functional index on upper(email) (V4) cannot be declared here.
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_tenant_dates", columnList = "tenant_id, check_in_date, check_out_date"),
+        @Index(name = "idx_bookings_tenant_check_out", columnList = "tenant_id, check_out_date"),
+        @Index(name = "idx_bookings_tenant_status", columnList = "tenant_id, status, id"),
+        @Index(name = "idx_bookings_tenant_status_check_in", columnList = "tenant_id, status, check_in_date"),
+        @Index(name = "idx_bookings_tenant_booking_type", columnList = "tenant_id, booking_type"),
+        @Index(name = "idx_bookings_tenant_total_price", columnList = "tenant_id, total_price"),
+        @Index(name = "idx_bookings_tenant_unit_check_in", columnList = "tenant_id, unit_id, check_in_date"),
+        @Index(name = "idx_bookings_tenant_updated_at", columnList = "tenant_id, updated_at, version")
+})
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -69,14 +89,43 @@ public class Booking {
     @Column(nullable = false)
     private String status = "Pending";
 
+    // Fixed-point money: always stored with 2 decimals
     @NotNull(message = "Total price is required")
-    @Column(name = "total_price", nullable = false)
-    private Double totalPrice = 0.0;
+    @Column(name = "total_price", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPrice = BigDecimal.ZERO.setScale(2);
 
     @NotBlank(message = "Address is required")
     @Column(nullable = false)
     private String address;
 
+    // Unit the booking occupies; null for booking types that have no units (the whole garden)
+    @Column(name = "unit_id")
+    private Long unitId;
+
+    // Null for bookings created before this column existed
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Bumped on every write; drives the ETag of this booking. Existing rows start at 0.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Property the row belongs to; set by Hibernate from TenantContext and added to every query
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
+
     // Custom setters for validated fields
     public void setFirstName(String firstName) {
         if (firstName == null || firstName.trim().isEmpty()) {
@@ -139,14 +188,14 @@ public class Booking {
         this.checkOutDate = checkOutDate;
     }
 
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(BigDecimal totalPrice) {
         if (totalPrice == null) {
             throw new IllegalArgumentException("Total price cannot be null");
         }
-        if (totalPrice < 0) {
+        if (totalPrice.signum() < 0) {
             throw new IllegalArgumentException("Total price cannot be negative");
         }
-        this.totalPrice = totalPrice;
+        this.totalPrice = totalPrice.setScale(2, RoundingMode.HALF_UP);
     }
 
     public void setArrival(LocalTime arrival) {
@@ -184,12 +233,16 @@ public class Booking {
         this.address = address.trim();
     }
 
+    public void setUnitId(Long unitId) {
+        this.unitId = unitId;
+    }
+
     public void setDefaultValues() {
         if (this.status == null) {
             this.status = "Pending";
         }
         if (this.totalPrice == null) {
-            this.totalPrice = 0.0;
+            this.totalPrice = BigDecimal.ZERO.setScale(2);
         }
     }
 
@@ -207,7 +260,7 @@ public class Booking {
         }
 
         // Validate total price
-        if (totalPrice != null && totalPrice < 0) {
+        if (totalPrice != null && totalPrice.signum() < 0) {
             throw new IllegalArgumentException("Total price cannot be negative");
         }
 
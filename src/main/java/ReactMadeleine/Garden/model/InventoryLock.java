@@ -0,0 +1,24 @@
+package ReactMadeleine.Garden.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row that booking transactions lock ({@code SELECT ... FOR UPDATE}) when no other row stands for
+ * what they reserve: bookings of types without units all share the "unassigned" place of a tenant.
+ * Reservations on a unit lock the unit's own row instead. The name carries the tenant, so this table
+ * has no tenant column.
+ */
+@Entity
+@Table(name = "inventory_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLock {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+}
@@ -0,0 +1,51 @@
+package ReactMadeleine.Garden.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live password reset code, checked and counted by {@code PasswordResetService}. Only an HMAC of the code
+ * is stored; at most one code per user is live.
+ */
+@Entity
+@Table(name = "password_reset_tokens", indexes = {
+        @Index(name = "idx_password_reset_tokens_tenant_expires_at", columnList = "tenant_id, expires_at"),
+        @Index(name = "idx_password_reset_tokens_tenant_email", columnList = "tenant_id, email")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordResetToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, unique = true)
+    private Long userId;
+
+    // Normalized (trimmed, lower case) address the code was sent to
+    @Column(nullable = false)
+    private String email;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Tenant of the user; the same address can have an account in several tenants
+    @TenantId
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
+}
@@ -0,0 +1,72 @@
+package ReactMadeleine.Garden.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+
+/**
+ * Nightly rates of a booking type for a season. A season runs from its start month/day to its end
+ * month/day (inclusive) every year and may wrap around New Year. Where seasons overlap, the one with
+ * the highest id wins. Friday and Saturday nights use the weekend rate.
+ */
+@Entity
+@Table(name = "rate_tables", indexes = {
+        @Index(name = "idx_rate_tables_tenant_booking_type", columnList = "tenant_id, booking_type")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateTable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Booking type is required")
+    @Column(name = "booking_type", nullable = false)
+    private String bookingType;
+
+    @NotBlank(message = "Season name is required")
+    @Column(name = "season_name", nullable = false)
+    private String seasonName;
+
+    @NotNull @Min(1) @Max(12)
+    @Column(name = "start_month", nullable = false)
+    private Integer startMonth;
+
+    @NotNull @Min(1) @Max(31)
+    @Column(name = "start_day", nullable = false)
+    private Integer startDay;
+
+    @NotNull @Min(1) @Max(12)
+    @Column(name = "end_month", nullable = false)
+    private Integer endMonth;
+
+    @NotNull @Min(1) @Max(31)
+    @Column(name = "end_day", nullable = false)
+    private Integer endDay;
+
+    @NotNull(message = "Weekday rate is required")
+    @DecimalMin(value = "0.00", message = "Weekday rate cannot be negative")
+    @Column(name = "weekday_rate", nullable = false, precision = 10, scale = 2)
+    private BigDecimal weekdayRate;
+
+    @NotNull(message = "Weekend rate is required")
+    @DecimalMin(value = "0.00", message = "Weekend rate cannot be negative")
+    @Column(name = "weekend_rate", nullable = false, precision = 10, scale = 2)
+    private BigDecimal weekendRate;
+
+    // Each property sets its own seasons and rates
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
+}
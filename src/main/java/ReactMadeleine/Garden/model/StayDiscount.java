@@ -0,0 +1,54 @@
+package ReactMadeleine.Garden.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+
+/**
+ * Length-of-stay discount. The discount with the largest {@code minNights} not exceeding the stay
+ * applies; a null booking type applies to every type.
+ */
+@Entity
+@Table(name = "stay_discounts", indexes = {
+        @Index(name = "idx_stay_discounts_tenant_booking_type", columnList = "tenant_id, booking_type")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StayDiscount {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_type")
+    private String bookingType;
+
+    @NotNull(message = "Minimum nights is required")
+    @Min(value = 1, message = "Minimum nights must be at least 1")
+    @Column(name = "min_nights", nullable = false)
+    private Integer minNights;
+
+    @NotNull(message = "Discount percent is required")
+    @DecimalMin(value = "0.00")
+    @DecimalMax(value = "100.00")
+    @Column(name = "discount_percent", nullable = false, precision = 5, scale = 2)
+    private BigDecimal discountPercent;
+
+    // Each property sets its own discounts
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
+}
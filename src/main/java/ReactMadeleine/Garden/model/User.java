@@ -1,40 +1,64 @@
 package ReactMadeleine.Garden.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "users")
+// Usernames and emails are unique per tenant
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_tenant_username", columnNames = {"tenant_id", "username"}),
+        @UniqueConstraint(name = "uk_users_tenant_email", columnNames = {"tenant_id", "email"})
+}, indexes = {
+        @Index(name = "idx_users_tenant_updated_at", columnList = "tenant_id, updated_at, version")
+})
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @NotEmpty(message = "Username is required")
     private String username;
 
     @Column(nullable = false)
     @Size(min = 6, message = "Password must have at least 6 characters")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Email
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @NotEmpty(message = "Email is required")
     private String email;
 
+    // Bumped on every write; drives the ETag of this user. Existing rows start at 0.
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 
-    @Column(name = "reset_token")
-    private String resetToken;
+    @UpdateTimestamp
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
 
-    @Column(name = "reset_token_expiration")
-    private LocalDateTime resetTokenExpiration;
+    // An account belongs to one property; the same person registers again elsewhere
+    @TenantId
+    @JsonIgnore
+    @ColumnDefault("'default'")
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 32)
+    private String tenantId;
 
 
     // Getters and Setters
@@ -71,19 +95,11 @@ public class User {
     }
     // Existing getters and setters
 
-    public String getResetToken() {
-        return resetToken;
-    }
-
-    public void setResetToken(String resetToken) {
-        this.resetToken = resetToken;
-    }
-
-    public LocalDateTime getResetTokenExpiration() {
-        return resetTokenExpiration;
+    public Long getVersion() {
+        return version;
     }
 
-    public void setResetTokenExpiration(LocalDateTime resetTokenExpiration) {
-        this.resetTokenExpiration = resetTokenExpiration;
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
     }
 }
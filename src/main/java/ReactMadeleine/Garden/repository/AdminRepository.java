@@ -1,9 +1,14 @@
 package ReactMadeleine.Garden.repository;
 
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.dto.AdminSummary;
 import ReactMadeleine.Garden.model.Admin;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,13 +17,49 @@ import java.util.Optional;
 public interface AdminRepository extends JpaRepository<Admin, Long> {
     Optional<Admin> findByEmail(String email);
 
-    Page<Admin> findByEmailContaining(String email, Pageable pageable);
+    // Validateurs HTTP des listes (CollectionVersions) : lecture de l'index (tenant_id, updated_at, version) seul
+    @Query("SELECT new ReactMadeleine.Garden.dto.CollectionStamp(COUNT(a), MAX(a.id), SUM(a.version), MAX(a.updatedAt)) " +
+            "FROM Admin a")
+    CollectionStamp findStamp();
 
-    Page<Admin> findByFirstNameContainingOrLastNameContaining(
-            String firstName, String lastName, Pageable pageable
+    // Cache d'authentification : le compte en mémoire reste valable tant que la version n'a pas bougé
+    @Query("SELECT a.version FROM Admin a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Projection pour les listes : jamais de mot de passe
+    String SUMMARY = "SELECT new ReactMadeleine.Garden.dto.AdminSummary(a.id, a.firstName, a.lastName, a.email, a.role) " +
+            "FROM Admin a ";
+
+    // Page sans COUNT (PagingMode.NONE / APPROXIMATE)
+    @Query(SUMMARY)
+    Slice<AdminSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY, countQuery = "SELECT COUNT(a) FROM Admin a")
+    Page<AdminSummary> findSummariesWithTotal(Pageable pageable);
+
+    // Recherche admin : motifs LIKE construits par AdminService (échappement '!'), un seul critère nom
+    // sur prénom OU nom, combiné en ET avec l'email. Les motifs préfixes utilisent les index.
+    String SEARCH_WHERE = "WHERE " +
+            "(:emailPattern IS NULL OR a.email LIKE :emailPattern ESCAPE '!') AND " +
+            "(:namePattern IS NULL OR a.firstName LIKE :namePattern ESCAPE '!' " +
+            "OR a.lastName LIKE :namePattern ESCAPE '!') ";
+    String SEARCH = SUMMARY + SEARCH_WHERE + "ORDER BY a.id";
+
+    // Slice : lit size + 1 lignes, sans requête COUNT
+    @Query(SEARCH)
+    Slice<AdminSummary> search(
+            @Param("emailPattern") String emailPattern,
+            @Param("namePattern") String namePattern,
+            Pageable pageable
     );
 
-    Page<Admin> findByEmailContainingAndFirstNameContainingOrLastNameContaining(
-            String email, String firstName, String lastName, Pageable pageable
+    @Query(value = SEARCH, countQuery = "SELECT COUNT(a) FROM Admin a " + SEARCH_WHERE)
+    Page<AdminSummary> searchWithTotal(
+            @Param("emailPattern") String emailPattern,
+            @Param("namePattern") String namePattern,
+            Pageable pageable
     );
-}
\ No newline at end of file
+
+    @Query("SELECT COUNT(a) FROM Admin a " + SEARCH_WHERE)
+    long countSearch(@Param("emailPattern") String emailPattern, @Param("namePattern") String namePattern);
+}
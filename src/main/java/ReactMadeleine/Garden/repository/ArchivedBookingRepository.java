@@ -0,0 +1,56 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.model.ArchivedBooking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    // Copie des réservations vers l'archive, sans passer par les entités.
+    // Requête native : Hibernate n'y ajoute pas le filtre de tenant, les ids viennent d'un lot déjà filtré
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, first_name, last_name, phone, email, booking_type, country, city, " +
+            "check_in_date, check_out_date, arrival, status, total_price, address, unit_id, created_at, archived_at, " +
+            "tenant_id) " +
+            "SELECT id, first_name, last_name, phone, email, booking_type, country, city, " +
+            "check_in_date, check_out_date, arrival, status, total_price, address, unit_id, created_at, :archivedAt, " +
+            "tenant_id " +
+            "FROM bookings WHERE id IN (:ids)", nativeQuery = true)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    // Historique : séjours qui chevauchent [from, to], du plus récent au plus ancien
+    @Query("SELECT b FROM ArchivedBooking b WHERE " +
+            "(:customerName IS NULL OR " +
+            "LOWER(b.firstName) LIKE LOWER(CONCAT('%', :customerName, '%')) OR " +
+            "LOWER(b.lastName) LIKE LOWER(CONCAT('%', :customerName, '%'))) AND " +
+            "(:status IS NULL OR b.status = :status) AND " +
+            "(:bookingType IS NULL OR b.bookingType = :bookingType) AND " +
+            "(:from IS NULL OR b.checkOutDate >= :from) AND " +
+            "(:to IS NULL OR b.checkInDate <= :to) " +
+            "ORDER BY b.checkOutDate DESC, b.id DESC")
+    List<ArchivedBooking> findHistory(
+            @Param("customerName") String customerName,
+            @Param("status") String status,
+            @Param("bookingType") String bookingType,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            Pageable page
+    );
+
+    // Archived rows are never written again, so their version is irrelevant
+    @Query("SELECT new ReactMadeleine.Garden.event.BookingSnapshot(" +
+            "b.id, b.checkInDate, b.checkOutDate, b.bookingType, b.country, b.status, b.totalPrice, b.unitId, 0L) " +
+            "FROM ArchivedBooking b")
+    List<BookingSnapshot> findAllSnapshots();
+}
@@ -0,0 +1,22 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.model.BookableUnit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookableUnitRepository extends JpaRepository<BookableUnit, Long> {
+    List<BookableUnit> findByBookingType(String bookingType);
+
+    // Sérialise les réservations d'une unité entre instances ; lit aussi sa capacité à jour
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM BookableUnit u WHERE u.id = :id")
+    Optional<BookableUnit> lockById(@Param("id") Long id);
+}
@@ -3,14 +3,30 @@ package ReactMadeleine.Garden.repository;
 
 
 
+import ReactMadeleine.Garden.dto.BookingSummary;
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.event.BookingSnapshot;
 import ReactMadeleine.Garden.model.Booking;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -18,25 +34,64 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByCheckInDateBetween(LocalDate startDate, LocalDate endDate);
     List<Booking> findByStatus(String status);
     List<Booking> findByBookingType(String bookingType);
-    List<Booking> findByTotalPriceBetween(Double minPrice, Double maxPrice);
+    List<Booking> findByTotalPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     List<Booking> findByEmailIgnoreCase(String email);
 
+    // Projection pour les listes : ni entités gérées, ni colonnes inutiles
+    String SUMMARY = "SELECT new ReactMadeleine.Garden.dto.BookingSummary(b.id, b.firstName, b.lastName, " +
+            "b.email, b.phone, b.bookingType, b.country, b.city, b.checkInDate, b.checkOutDate, b.arrival, " +
+            "b.status, b.totalPrice, b.unitId) FROM Booking b ";
+
+    // Lecture en flux pour les grosses réponses (JsonArrayStreams) : avec useCursorFetch=true,
+    // MySQL renvoie les lignes par lots de STREAM_FETCH_SIZE au lieu de tout charger
+    String STREAM_FETCH_SIZE = "1000";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY + "ORDER BY b.id")
+    Stream<BookingSummary> streamAllSummaries();
+
+    // Page sans COUNT (PagingMode.NONE / APPROXIMATE)
+    @Query(SUMMARY)
+    Slice<BookingSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY, countQuery = "SELECT COUNT(b) FROM Booking b")
+    Page<BookingSummary> findSummariesWithTotal(Pageable pageable);
+
+    // Validateurs HTTP des listes (CollectionVersions) : lecture de l'index (tenant_id, updated_at, version) seul
+    @Query("SELECT new ReactMadeleine.Garden.dto.CollectionStamp(COUNT(b), MAX(b.id), SUM(b.version), MAX(b.updatedAt)) " +
+            "FROM Booking b")
+    CollectionStamp findStamp();
+
     // Recherche avancée avec tous les critères
-    @Query("SELECT b FROM Booking b WHERE " +
-            "(LOWER(b.firstName) LIKE LOWER(CONCAT('%', :customerName, '%')) OR " +
+    String SEARCH_WHERE = "WHERE " +
+            "(:customerName IS NULL OR " +
+            "LOWER(b.firstName) LIKE LOWER(CONCAT('%', :customerName, '%')) OR " +
             "LOWER(b.lastName) LIKE LOWER(CONCAT('%', :customerName, '%'))) AND " +
             "(:status IS NULL OR b.status = :status) AND " +
             "(:startDate IS NULL OR b.checkInDate >= :startDate) AND " +
             "(:endDate IS NULL OR b.checkOutDate <= :endDate) AND " +
             "(:minPrice IS NULL OR b.totalPrice >= :minPrice) AND " +
-            "(:maxPrice IS NULL OR b.totalPrice <= :maxPrice)")
+            "(:maxPrice IS NULL OR b.totalPrice <= :maxPrice)";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY + SEARCH_WHERE + " ORDER BY b.id")
+    Stream<BookingSummary> streamBookingSummaries(
+            @Param("customerName") String customerName,
+            @Param("status") String status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
+    );
+
+    @Query("SELECT b FROM Booking b " + SEARCH_WHERE)
     List<Booking> searchBookings(
             @Param("customerName") String customerName,
             @Param("status") String status,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate,
-            @Param("minPrice") Double minPrice,
-            @Param("maxPrice") Double maxPrice
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
     );
 
     // Recherche des chevauchements
@@ -51,6 +106,96 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("checkOut") LocalDate checkOut
     );
 
+    // Réservations actives qui chevauchent un séjour (jours inclus), sur une unité ou sans unité.
+    // Vérification de capacité faisant foi, appelée sous le verrou de l'unité (InventoryService)
+    String ACTIVE_OVERLAPPING = "SELECT new ReactMadeleine.Garden.event.BookingSnapshot(" +
+            "b.id, b.checkInDate, b.checkOutDate, b.bookingType, b.country, b.status, b.totalPrice, b.unitId, " +
+            "b.version) " +
+            "FROM Booking b WHERE b.status <> 'Cancelled' AND " +
+            "b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn AND ";
+
+    @Query(ACTIVE_OVERLAPPING + "b.unitId = :unitId")
+    List<BookingSnapshot> findActiveOnUnit(
+            @Param("unitId") Long unitId,
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    @Query(ACTIVE_OVERLAPPING + "b.unitId IS NULL")
+    List<BookingSnapshot> findActiveUnassigned(
+            @Param("checkIn") LocalDate checkIn,
+            @Param("checkOut") LocalDate checkOut
+    );
+
+    // Chargement léger pour les agrégats en mémoire (analytics, inventaire)
+    @Query("SELECT new ReactMadeleine.Garden.event.BookingSnapshot(" +
+            "b.id, b.checkInDate, b.checkOutDate, b.bookingType, b.country, b.status, b.totalPrice, b.unitId, " +
+            "b.version) " +
+            "FROM Booking b")
+    List<BookingSnapshot> findAllSnapshots();
+
+    // Lignes écrites depuis un instant : resynchronisation incrémentale de l'inventaire (index tenant, updated_at)
+    @Query("SELECT new ReactMadeleine.Garden.event.BookingSnapshot(" +
+            "b.id, b.checkInDate, b.checkOutDate, b.bookingType, b.country, b.status, b.totalPrice, b.unitId, " +
+            "b.version) " +
+            "FROM Booking b WHERE b.updatedAt >= :since")
+    List<BookingSnapshot> findSnapshotsUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Mise à jour de statut par lot : lignes verrouillées dans l'ordre des id pour éviter les interblocages
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id IN :ids ORDER BY b.id")
+    List<Booking> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                     @Param("now") LocalDateTime now);
+
+    // Jobs de maintenance : parcours par clé (id > afterId) et verrouillage des seules lignes du lot.
+    // SKIP LOCKED (-2) laisse les lignes en cours de modification au lot suivant au lieu d'attendre.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.status = 'Pending' AND " +
+            "(b.createdAt < :createdBefore OR (b.createdAt IS NULL AND b.checkInDate < :today)) " +
+            "ORDER BY b.id")
+    List<Booking> lockExpiredPendingChunk(
+            @Param("afterId") Long afterId,
+            @Param("createdBefore") LocalDateTime createdBefore,
+            @Param("today") LocalDate today,
+            Pageable chunk
+    );
+
+    // Les mises à jour en masse incrémentent la version elles-mêmes (ETag, verrouillage optimiste)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = 'Cancelled', b.version = b.version + 1, b.updatedAt = :now " +
+            "WHERE b.id IN :ids AND b.status = 'Pending'")
+    int cancelPending(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.status = 'Cancelled' AND " +
+            "b.checkOutDate < :checkOutBefore ORDER BY b.id")
+    List<Booking> lockCancelledChunk(
+            @Param("afterId") Long afterId,
+            @Param("checkOutBefore") LocalDate checkOutBefore,
+            Pageable chunk
+    );
+
+    // Séjours terminés, tous statuts confondus (archivage froid)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Booking b WHERE b.id > :afterId AND b.checkOutDate < :checkOutBefore ORDER BY b.id")
+    List<Booking> lockCheckedOutChunk(
+            @Param("afterId") Long afterId,
+            @Param("checkOutBefore") LocalDate checkOutBefore,
+            Pageable chunk
+    );
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     // Recherche des réservations à venir
     @Query("SELECT b FROM Booking b WHERE b.checkInDate >= :date AND b.status = 'Confirmed'")
     List<Booking> findUpcomingBookings(@Param("date") LocalDate date);
@@ -0,0 +1,28 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.model.IdempotencyRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    // Résolu par la contrainte unique (principal, idempotency_key)
+    Optional<IdempotencyRecord> findByPrincipalAndIdempotencyKey(String principal, String idempotencyKey);
+
+    @Query("SELECT r.id FROM IdempotencyRecord r WHERE r.id > :afterId AND r.expiresAt < :now ORDER BY r.id")
+    List<Long> findExpiredIds(@Param("afterId") Long afterId, @Param("now") LocalDateTime now, Pageable chunk);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,20 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.model.InventoryLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventoryLockRepository extends JpaRepository<InventoryLock, String> {
+
+    // Verrou exclusif tenu jusqu'à la fin de la transaction de réservation
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM InventoryLock l WHERE l.name = :name")
+    Optional<InventoryLock> lockByName(@Param("name") String name);
+}
@@ -0,0 +1,46 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.model.PasswordResetToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
+
+    // Un seul code par utilisateur, donc par email normalisé
+    Optional<PasswordResetToken> findByEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Compte une tentative tant qu'il en reste : 1 si elle est accordée, 0 sinon (ou pas de code)
+    @Modifying
+    @Query("UPDATE PasswordResetToken t SET t.attempts = t.attempts + 1 WHERE t.email = :email AND t.attempts < :max")
+    int countAttempt(@Param("email") String email, @Param("max") int max);
+
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.email = :email AND t.attempts >= :max")
+    int deleteExhausted(@Param("email") String email, @Param("max") int max);
+
+    // Le code n'est utilisé qu'une fois : une seule requête supprime la ligne
+    @Modifying
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id = :id AND t.tokenHash = :tokenHash")
+    int consume(@Param("id") Long id, @Param("tokenHash") String tokenHash);
+
+    @Query("SELECT t.id FROM PasswordResetToken t WHERE t.id > :afterId AND t.expiresAt < :now ORDER BY t.id")
+    List<Long> findExpiredIds(@Param("afterId") Long afterId, @Param("now") LocalDateTime now, Pageable chunk);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM PasswordResetToken t WHERE t.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.model.RateTable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RateTableRepository extends JpaRepository<RateTable, Long> {
+}
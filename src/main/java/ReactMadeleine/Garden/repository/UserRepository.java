@@ -1,14 +1,51 @@
 package ReactMadeleine.Garden.repository;
 
 
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.dto.UserSummary;
 import ReactMadeleine.Garden.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    // Validateurs HTTP des listes (CollectionVersions) : lecture de l'index (tenant_id, updated_at, version) seul
+    @Query("SELECT new ReactMadeleine.Garden.dto.CollectionStamp(COUNT(u), MAX(u.id), SUM(u.version), MAX(u.updatedAt)) " +
+            "FROM User u")
+    CollectionStamp findStamp();
+
+    // Cache d'authentification : le compte en mémoire reste valable tant que la version n'a pas bougé
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // Projection pour les listes : jamais de mot de passe ni de jeton
+    String SUMMARY = "SELECT new ReactMadeleine.Garden.dto.UserSummary(u.id, u.username, u.email) FROM User u ";
+
+    @Query(SUMMARY + "ORDER BY u.id")
+    List<UserSummary> findAllSummaries();
+
+    // Page sans COUNT (PagingMode.NONE / APPROXIMATE)
+    @Query(SUMMARY)
+    Slice<UserSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY, countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummary> findSummariesWithTotal(Pageable pageable);
+
+    // Réinitialisation du mot de passe : une seule écriture sur la ligne users
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE User u SET u.password = :password, u.version = u.version + 1, u.updatedAt = :now WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
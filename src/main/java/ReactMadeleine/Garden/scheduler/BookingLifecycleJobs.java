@@ -0,0 +1,266 @@
+package ReactMadeleine.Garden.scheduler;
+
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.model.Booking;
+import ReactMadeleine.Garden.repository.ArchivedBookingRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.IdempotencyRecordRepository;
+import ReactMadeleine.Garden.repository.PasswordResetTokenRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Periodic maintenance of the bookings, password reset tokens and idempotency keys tables.
+ * <p>
+ * Every job walks its table by primary key ({@code id > lastId}) in chunks of {@code garden.jobs.chunk-size}
+ * rows, each chunk in its own short transaction, so no job holds locks on more than one chunk at a time
+ * and request traffic keeps flowing while a job runs. Rows locked by a concurrent request are skipped and
+ * picked up by the next run.
+ * <p>
+ * Queries are tenant-qualified, so each run walks the tenants one after the other, with the tenant current
+ * for its chunks: the events of a chunk reach that tenant's caches.
+ */
+@Component
+public class BookingLifecycleJobs {
+    private static final Logger logger = LoggerFactory.getLogger(BookingLifecycleJobs.class);
+
+    static final String EXPIRE_PENDING = "expire-pending-bookings";
+    static final String PURGE_RESET_TOKENS = "purge-reset-tokens";
+    static final String ARCHIVE_CANCELLED = "archive-cancelled-bookings";
+    static final String ARCHIVE_PAST = "archive-past-bookings";
+    static final String PURGE_IDEMPOTENCY_KEYS = "purge-idempotency-keys";
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Tenants tenants;
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private final int chunkSize;
+    private final Duration pendingHold;
+    private final Duration cancelledRetention;
+    private final Duration archiveRetention;
+
+    public BookingLifecycleJobs(BookingRepository bookingRepository,
+                                ArchivedBookingRepository archivedBookingRepository,
+                                PasswordResetTokenRepository passwordResetTokenRepository,
+                                IdempotencyRecordRepository idempotencyRecordRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                Tenants tenants,
+                                @Value("${garden.jobs.chunk-size:500}") int chunkSize,
+                                @Value("${garden.jobs.pending-hold:PT48H}") Duration pendingHold,
+                                @Value("${garden.jobs.cancelled-retention:P30D}") Duration cancelledRetention,
+                                @Value("${garden.archive.retention:P90D}") Duration archiveRetention) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("garden.jobs.chunk-size must be positive");
+        }
+        if (cancelledRetention.isNegative() || archiveRetention.isNegative()) {
+            throw new IllegalArgumentException("Retention periods cannot be negative");
+        }
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.tenants = tenants;
+        this.chunkSize = chunkSize;
+        this.pendingHold = pendingHold;
+        this.cancelledRetention = cancelledRetention;
+        this.archiveRetention = archiveRetention;
+    }
+
+    /**
+     * Cancels Pending bookings that were never confirmed within the hold period. Bookings created before
+     * {@code created_at} existed expire once their check-in date has passed.
+     */
+    @Scheduled(initialDelayString = "${garden.jobs.initial-delay:PT1M}",
+            fixedDelayString = "${garden.jobs.expire-pending.delay:PT5M}")
+    public JobRun expirePendingBookings() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime createdBefore = now.minus(pendingHold);
+        LocalDate today = now.toLocalDate();
+        return run(EXPIRE_PENDING, afterId -> {
+            List<Booking> chunk = bookingRepository.lockExpiredPendingChunk(afterId, createdBefore, today, firstChunk());
+            if (chunk.isEmpty()) {
+                return ChunkResult.EMPTY;
+            }
+            List<Long> ids = chunk.stream().map(Booking::getId).toList();
+            // Snapshots taken before the bulk update clears the persistence context
+            List<BookingSnapshot> before = chunk.stream().map(BookingSnapshot::of).toList();
+            int affected = bookingRepository.cancelPending(ids, now);
+            // Bulk updates bypass the service layer: publish the same events so inventory and analytics follow
+            before.forEach(snapshot -> eventPublisher.publishEvent(
+                    BookingChangedEvent.statusChanged(snapshot, snapshot.withStatus("Cancelled"))));
+            return new ChunkResult(chunk.size(), affected, ids.get(ids.size() - 1));
+        });
+    }
+
+    /**
+     * Deletes password reset codes whose expiration is in the past. The in-memory copies are dropped by
+     * {@code PasswordResetService} itself.
+     */
+    @Scheduled(initialDelayString = "${garden.jobs.initial-delay:PT1M}",
+            fixedDelayString = "${garden.jobs.purge-reset-tokens.delay:PT15M}")
+    public JobRun purgeExpiredResetTokens() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return run(PURGE_RESET_TOKENS, afterId -> {
+            List<Long> ids = passwordResetTokenRepository.findExpiredIds(afterId, now, firstChunk());
+            if (ids.isEmpty()) {
+                return ChunkResult.EMPTY;
+            }
+            int affected = passwordResetTokenRepository.deleteByIds(ids);
+            return new ChunkResult(ids.size(), affected, ids.get(ids.size() - 1));
+        });
+    }
+
+    /**
+     * Deletes idempotency keys older than {@code garden.idempotency.ttl}; retries after that run again.
+     */
+    @Scheduled(initialDelayString = "${garden.jobs.initial-delay:PT1M}",
+            fixedDelayString = "${garden.jobs.purge-idempotency-keys.delay:PT1H}")
+    public JobRun purgeExpiredIdempotencyKeys() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return run(PURGE_IDEMPOTENCY_KEYS, afterId -> {
+            List<Long> ids = idempotencyRecordRepository.findExpiredIds(afterId, now, firstChunk());
+            if (ids.isEmpty()) {
+                return ChunkResult.EMPTY;
+            }
+            int affected = idempotencyRecordRepository.deleteByIds(ids);
+            return new ChunkResult(ids.size(), affected, ids.get(ids.size() - 1));
+        });
+    }
+
+    /**
+     * Moves Cancelled bookings whose stay ended more than the retention period ago into
+     * {@code bookings_archive}. Cancelled bookings hold no inventory and archived rows still feed analytics,
+     * so no event is published.
+     */
+    @Scheduled(initialDelayString = "${garden.jobs.initial-delay:PT1M}",
+            fixedDelayString = "${garden.jobs.archive-cancelled.delay:PT1H}")
+    public JobRun archiveCancelledBookings() {
+        LocalDateTime archivedAt = LocalDateTime.now(clock);
+        LocalDate checkOutBefore = archivedAt.toLocalDate().minusDays(cancelledRetention.toDays());
+        return run(ARCHIVE_CANCELLED, afterId -> archive(
+                bookingRepository.lockCancelledChunk(afterId, checkOutBefore, firstChunk()), archivedAt));
+    }
+
+    /**
+     * Moves every booking whose check-out is older than {@code garden.archive.retention} into
+     * {@code bookings_archive}, whatever its status, so that search, overlap and date-range queries only
+     * scan stays that can still change. Archived stays are read back through {@code /api/bookings/history}.
+     * Their past nights stay counted in the in-memory inventory until the next restart, which only affects
+     * dates that can no longer be booked.
+     */
+    @Scheduled(initialDelayString = "${garden.jobs.initial-delay:PT1M}",
+            fixedDelayString = "${garden.archive.delay:PT6H}")
+    public JobRun archivePastBookings() {
+        LocalDateTime archivedAt = LocalDateTime.now(clock);
+        LocalDate checkOutBefore = archivedAt.toLocalDate().minusDays(archiveRetention.toDays());
+        return run(ARCHIVE_PAST, afterId -> archive(
+                bookingRepository.lockCheckedOutChunk(afterId, checkOutBefore, firstChunk()), archivedAt));
+    }
+
+    // Copies the locked chunk into the archive and deletes it from the live table, in the caller's transaction
+    private ChunkResult archive(List<Booking> chunk, LocalDateTime archivedAt) {
+        if (chunk.isEmpty()) {
+            return ChunkResult.EMPTY;
+        }
+        List<Long> ids = chunk.stream().map(Booking::getId).toList();
+        archivedBookingRepository.copyFromBookings(ids, archivedAt);
+        int affected = bookingRepository.deleteByIds(ids);
+        return new ChunkResult(ids.size(), affected, ids.get(ids.size() - 1));
+    }
+
+    private Pageable firstChunk() {
+        return PageRequest.of(0, chunkSize);
+    }
+
+    // For each tenant, runs one chunk per transaction until a chunk comes back short, then records the run
+    private JobRun run(String job, LongFunction<ChunkResult> chunkInTransaction) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long selected = 0;
+        long affected = 0;
+        int chunks = 0;
+        try {
+            for (String tenant : tenants.ids()) {
+                long lastId = 0;
+                try (TenantContext.Scope ignored = TenantContext.use(tenant)) {
+                    while (true) {
+                        long afterId = lastId;
+                        ChunkResult result = transactionTemplate.execute(status -> chunkInTransaction.apply(afterId));
+                        if (result == null || result.selected() == 0) {
+                            break;
+                        }
+                        chunks++;
+                        selected += result.selected();
+                        affected += result.affected();
+                        lastId = result.lastId();
+                        if (result.selected() < chunkSize) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed after {} chunks ({} rows updated)", job, chunks, affected, e);
+            sample.stop(timer(job, "failure"));
+            throw e;
+        }
+        long durationNanos = sample.stop(timer(job, "success"));
+        Counter.builder("garden.jobs.rows")
+                .description("Rows changed by maintenance jobs")
+                .tag("job", job)
+                .register(meterRegistry)
+                .increment(affected);
+        JobRun run = new JobRun(job, chunks, selected, affected, Duration.ofNanos(durationNanos));
+        logger.info("Job {} finished: {} rows in {} chunks ({} selected) in {} ms",
+                job, affected, chunks, selected, run.duration().toMillis());
+        return run;
+    }
+
+    private Timer timer(String job, String outcome) {
+        return Timer.builder("garden.jobs.duration")
+                .description("Duration of maintenance job runs")
+                .tag("job", job)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ChunkResult(int selected, int affected, long lastId) {
+        static final ChunkResult EMPTY = new ChunkResult(0, 0, 0);
+    }
+
+    /**
+     * Summary of one job run, also logged and exported as {@code garden.jobs.*} metrics.
+     */
+    public record JobRun(String job, int chunks, long selected, long affected, Duration duration) {
+    }
+}
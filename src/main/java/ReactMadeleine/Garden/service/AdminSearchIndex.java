@@ -0,0 +1,114 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.Admin;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-memory trigram index over admin emails and names, used by {@link AdminService} for
+ * substring ("contains") searches so they do not become leading-wildcard LIKE scans. Enabled with
+ * {@code garden.admin-search.trigram-index.enabled}; kept current by AdminService on every write, and
+ * rebuilt from the database every {@code garden.admin-search.trigram-index.reload-interval} to take in
+ * writes made through other instances. Each tenant has its own index.
+ */
+@Component
+public class AdminSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(AdminSearchIndex.class);
+
+    private final AdminRepository adminRepository;
+    private final Tenants tenants;
+    private final boolean enabled;
+
+    private final Map<String, Indexes> byTenant = new ConcurrentHashMap<>();
+
+    public AdminSearchIndex(AdminRepository adminRepository, Tenants tenants,
+                            @Value("${garden.admin-search.trigram-index.enabled:false}") boolean enabled) {
+        this.adminRepository = adminRepository;
+        this.tenants = tenants;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${garden.admin-search.trigram-index.reload-interval:PT1M}",
+            fixedDelayString = "${garden.admin-search.trigram-index.reload-interval:PT1M}")
+    public synchronized void reload() {
+        if (enabled) {
+            tenants.forEach(this::reload);
+        }
+    }
+
+    // Rebuilds the index of the current tenant, whose admins the repository returns, and swaps it in
+    private void reload(String tenant) {
+        List<Admin> admins = adminRepository.findAll();
+        Indexes indexes = new Indexes();
+        admins.forEach(indexes::put);
+        byTenant.put(tenant, indexes);
+        logger.debug("Admin search index of tenant {} rebuilt with {} admins", tenant, admins.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Writes wait for a running reload, so they land in the index it swaps in
+    public synchronized void put(Admin admin) {
+        if (enabled) {
+            indexes().put(admin);
+        }
+    }
+
+    public synchronized void remove(Long id) {
+        if (enabled && id != null) {
+            Indexes indexes = indexes();
+            indexes.emails.remove(id);
+            indexes.names.remove(id);
+        }
+    }
+
+    /**
+     * Ids, in ascending order, of the admins whose email contains {@code email} and whose first or last
+     * name contains {@code name}. A null term matches every admin.
+     */
+    public List<Long> findIds(String email, String name) {
+        Indexes indexes = indexes();
+        TreeSet<Long> ids = email != null ? indexes.emails.search(email) : null;
+        if (name != null) {
+            TreeSet<Long> byName = indexes.names.search(name);
+            if (ids == null) {
+                ids = byName;
+            } else {
+                ids.retainAll(byName);
+            }
+        }
+        // No term at all: every indexed admin
+        return List.copyOf(ids != null ? ids : indexes.emails.search(""));
+    }
+
+    private Indexes indexes() {
+        return byTenant.computeIfAbsent(TenantContext.current(), tenant -> new Indexes());
+    }
+
+    private static final class Indexes {
+        final TrigramIndex emails = new TrigramIndex();
+        final TrigramIndex names = new TrigramIndex();
+
+        void put(Admin admin) {
+            if (admin.getId() != null) {
+                emails.put(admin.getId(), admin.getEmail());
+                names.put(admin.getId(), admin.getFirstName(), admin.getLastName());
+            }
+        }
+    }
+}
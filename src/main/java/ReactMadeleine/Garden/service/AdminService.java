@@ -1,27 +1,50 @@
 package ReactMadeleine.Garden.service;
 
+import ReactMadeleine.Garden.dto.AdminSummary;
+import ReactMadeleine.Garden.dto.PageResponse;
+import ReactMadeleine.Garden.implementation.CustomUserDetails;
 import ReactMadeleine.Garden.model.Admin;
 import ReactMadeleine.Garden.repository.AdminRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class AdminService {
 
+    static final String ROLE_SUPER_ADMIN = "ROLE_SUPER_ADMIN";
+
     private final AdminRepository adminRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AdminSearchIndex searchIndex;
+    private final PagedQueries pagedQueries;
+    private final AuthenticationManager authenticationManager;
 
     @Autowired
-    public AdminService(AdminRepository adminRepository, PasswordEncoder passwordEncoder) {
+    public AdminService(AdminRepository adminRepository, PasswordEncoder passwordEncoder,
+                        AdminSearchIndex searchIndex, PagedQueries pagedQueries,
+                        AuthenticationManager authenticationManager) {
         this.adminRepository = adminRepository;
         this.passwordEncoder = passwordEncoder;
+        this.searchIndex = searchIndex;
+        this.pagedQueries = pagedQueries;
+        this.authenticationManager = authenticationManager;
     }
 
     // New method to find admin by email
@@ -41,25 +64,64 @@ public class AdminService {
         }
     }
 
-    public Page<Admin> getAllAdminsPaginated(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        return adminRepository.findAll(pageable);
+    public PageResponse<AdminSummary> getAllAdminsPaginated(PagingMode mode, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("id"));
+        return pagedQueries.fetch(mode, pageable, "admins",
+                adminRepository::findSummaries, adminRepository::findSummariesWithTotal, adminRepository::count);
     }
 
-    public Page<Admin> searchAdmins(String email, String name, int page, int size) {
+    /**
+     * Admins whose email matches {@code email} and whose first or last name matches {@code name}; blank
+     * terms are ignored. By default terms match from the start of the column, which the indexes serve;
+     * {@code contains} matches anywhere, through the trigram index when it is enabled.
+     */
+    public PageResponse<AdminSummary> searchAdmins(String email, String name, boolean contains, PagingMode mode,
+                                            int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
+        String emailTerm = blankToNull(email);
+        String nameTerm = blankToNull(name);
+
+        if (contains && searchIndex.isEnabled()) {
+            return searchIndexed(emailTerm, nameTerm, pageable, mode);
+        }
+
+        String emailPattern = likePattern(emailTerm, contains);
+        String namePattern = likePattern(nameTerm, contains);
+        return pagedQueries.fetch(mode, pageable, "admins:search:" + emailPattern + ":" + namePattern,
+                p -> adminRepository.search(emailPattern, namePattern, p),
+                p -> adminRepository.searchWithTotal(emailPattern, namePattern, p),
+                () -> adminRepository.countSearch(emailPattern, namePattern));
+    }
+
+    // Ids come from the index in id order, the same order as the database search; the total is free here,
+    // but it is only exact as far as this instance's index is current, so approximate is honoured too
+    private PageResponse<AdminSummary> searchIndexed(String email, String name, Pageable pageable, PagingMode mode) {
+        List<Long> ids = searchIndex.findIds(email, name);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<AdminSummary> content = adminRepository.findAllById(ids.subList(from, to)).stream()
+                .sorted(Comparator.comparing(Admin::getId))
+                .map(AdminSummary::of)
+                .toList();
+        return switch (mode) {
+            case EXACT -> PagedQueries.exact(new PageImpl<>(content, pageable, ids.size()));
+            case NONE -> PagedQueries.withoutTotal(new SliceImpl<>(content, pageable, to < ids.size()));
+            case APPROXIMATE -> PagedQueries.approximate(new SliceImpl<>(content, pageable, to < ids.size()),
+                    ids.size());
+        };
+    }
 
-        if (email != null && name != null) {
-            return adminRepository.findByEmailContainingAndFirstNameContainingOrLastNameContaining(
-                    email, name, name, pageable);
-        } else if (email != null) {
-            return adminRepository.findByEmailContaining(email, pageable);
-        } else if (name != null) {
-            return adminRepository.findByFirstNameContainingOrLastNameContaining(
-                    name, name, pageable);
+    // '!' is the LIKE escape character declared in AdminRepository.SEARCH
+    private static String likePattern(String term, boolean contains) {
+        if (term == null) {
+            return null;
         }
+        String escaped = term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return contains ? "%" + escaped + "%" : escaped + "%";
+    }
 
-        return adminRepository.findAll(pageable);
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
     public Optional<Admin> getAdminById(Long id) {
@@ -73,7 +135,9 @@ public class AdminService {
     public Admin createAdmin(Admin admin) {
         try {
             admin.setPassword(passwordEncoder.encode(admin.getPassword()));
-            return adminRepository.save(admin);
+            Admin saved = adminRepository.save(admin);
+            searchIndex.put(saved);
+            return saved;
         } catch (Exception e) {
             throw new RuntimeException("Error creating admin", e);
         }
@@ -83,6 +147,7 @@ public class AdminService {
         try {
             return adminRepository.findById(id)
                     .map(admin -> {
+                        checkCanUpdate(admin, adminDetails);
                         admin.setFirstName(adminDetails.getFirstName());
                         admin.setLastName(adminDetails.getLastName());
                         admin.setEmail(adminDetails.getEmail());
@@ -92,19 +157,44 @@ public class AdminService {
                             admin.setPassword(passwordEncoder.encode(adminDetails.getPassword()));
                         }
 
-                        return adminRepository.save(admin);
+                        Admin saved = adminRepository.save(admin);
+                        searchIndex.put(saved);
+                        return saved;
                     })
                     .orElseThrow(() -> new RuntimeException("Admin not found with id: " + id));
+        } catch (AccessDeniedException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error updating admin with id: " + id, e);
         }
     }
 
+    // PUT /api/admins/{id} is open to every admin: changing a role, or another admin's password, is
+    // reserved to SUPER_ADMIN so an admin can neither promote themself nor take over another account
+    private void checkCanUpdate(Admin admin, Admin adminDetails) {
+        Authentication caller = SecurityContextHolder.getContext().getAuthentication();
+        if (caller != null && caller.getAuthorities().stream()
+                .anyMatch(authority -> ROLE_SUPER_ADMIN.equals(authority.getAuthority()))) {
+            return;
+        }
+        if (!Objects.equals(admin.getRole(), adminDetails.getRole())) {
+            throw new AccessDeniedException("Only a super admin may change the role of an admin");
+        }
+        boolean self = caller != null && caller.getPrincipal() instanceof CustomUserDetails principal
+                && principal.getKind() == CustomUserDetails.Kind.ADMIN && admin.getId().equals(principal.getId());
+        if (adminDetails.getPassword() != null && !adminDetails.getPassword().isEmpty() && !self) {
+            throw new AccessDeniedException("Only a super admin may change the password of another admin");
+        }
+    }
+
     public void deleteAdmin(Long id) {
         try {
             adminRepository.findById(id)
                     .ifPresentOrElse(
-                            adminRepository::delete,
+                            admin -> {
+                                adminRepository.delete(admin);
+                                searchIndex.remove(admin.getId());
+                            },
                             () -> { throw new RuntimeException("Admin not found with id: " + id); }
                     );
         } catch (Exception e) {
@@ -112,13 +202,14 @@ public class AdminService {
         }
     }
 
-    public Admin login(String email, String password) {
-        try {
-            return adminRepository.findByEmail(email)
-                    .filter(admin -> passwordEncoder.matches(password, admin.getPassword()))
-                    .orElseThrow(() -> new RuntimeException("Invalid email or password"));
-        } catch (Exception e) {
-            throw new RuntimeException("Error during login", e);
+    // Same provider as HTTP Basic: cached account lookup, and BCrypt only for a password not seen yet
+    public AdminSummary login(String email, String password) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(email, password));
+        if (authentication.getPrincipal() instanceof CustomUserDetails details
+                && details.getKind() == CustomUserDetails.Kind.ADMIN) {
+            return details.getAdmin();
         }
+        throw new BadCredentialsException("Invalid email or password");
     }
 }
\ No newline at end of file
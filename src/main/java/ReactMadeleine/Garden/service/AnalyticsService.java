@@ -0,0 +1,283 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.OccupancyRow;
+import ReactMadeleine.Garden.dto.RevenueRow;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.repository.ArchivedBookingRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Occupancy and revenue rollups kept in memory. Each committed booking write adds or retracts the
+ * booking's contribution to its days (and months), so queries never scan the bookings table.
+ * <p>
+ * A booking occupies the nights from check-in (inclusive) to check-out (exclusive); a same-day booking
+ * occupies its check-in day. Revenue and check-ins are attributed to the check-in day. Nights are only
+ * counted up to {@code garden.bookings.horizon} ahead, so a stay ending in a distant year costs no more
+ * than one ending at the horizon.
+ * <p>
+ * Each tenant has its own rollups, filled from its own bookings. Events only come from this instance's
+ * writes, so the rollups are rebuilt from the database every {@code garden.analytics.rebuild-interval} to take
+ * in the bookings other instances wrote. Events that commit while the table is being read are replayed onto
+ * the rebuilt rollups when the read did not include them (see {@link BookingEventReplay}).
+ */
+@Service
+public class AnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    public enum Granularity { DAY, MONTH }
+
+    // Indexes of the counters kept per (day or month, rollup key)
+    private static final int OCCUPIED = 0;
+    private static final int CHECK_INS = 1;
+    private static final int REVENUE_CENTS = 2;
+    private static final int METRICS = 3;
+
+    public enum Dimension { NONE, BOOKING_TYPE, COUNTRY, STATUS }
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final Tenants tenants;
+    private final Period horizon;
+
+    private final Map<String, Rollups> byTenant = new ConcurrentHashMap<>();
+    // Tenants being rebuilt, with the events received meanwhile; guarded by this
+    private final Map<String, BookingEventReplay> rebuilding = new HashMap<>();
+
+    public AnalyticsService(BookingRepository bookingRepository,
+                            ArchivedBookingRepository archivedBookingRepository,
+                            Tenants tenants,
+                            @Value("${garden.bookings.horizon:P3Y}") Period horizon) {
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.tenants = tenants;
+        this.horizon = horizon;
+    }
+
+    // Archived bookings still count towards history; archiving itself publishes no event.
+    // The tables are read outside the lock, so booking writes are not held up by a large table.
+    @PostConstruct
+    @Scheduled(initialDelayString = "${garden.analytics.rebuild-interval:PT5M}",
+            fixedDelayString = "${garden.analytics.rebuild-interval:PT5M}")
+    public void rebuild() {
+        tenants.forEach(tenant -> {
+            synchronized (this) {
+                rebuilding.put(tenant, new BookingEventReplay());
+            }
+            Rollups rebuilt = new Rollups(LocalDate.now().plus(horizon));
+            List<BookingSnapshot> snapshots;
+            List<BookingSnapshot> archived;
+            try {
+                snapshots = bookingRepository.findAllSnapshots();
+                archived = archivedBookingRepository.findAllSnapshots();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    rebuilding.remove(tenant);
+                }
+                throw e;
+            }
+            snapshots.forEach(snapshot -> apply(rebuilt, snapshot, 1));
+            archived.forEach(snapshot -> apply(rebuilt, snapshot, 1));
+            synchronized (this) {
+                rebuilding.remove(tenant).replay(snapshots, event -> apply(rebuilt, event));
+                byTenant.put(tenant, rebuilt);
+            }
+            logger.debug("Analytics rollups of tenant {} rebuilt from {} bookings ({} archived)",
+                    tenant, snapshots.size() + archived.size(), archived.size());
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        apply(rollups(), event);
+        BookingEventReplay replay = rebuilding.get(TenantContext.current());
+        if (replay != null) {
+            replay.record(event);
+        }
+    }
+
+    public List<OccupancyRow> occupancy(LocalDate from, LocalDate to, Granularity granularity,
+                                        Dimension groupBy, String status) {
+        List<OccupancyRow> rows = new ArrayList<>();
+        aggregate(from, to, granularity, groupBy, status, (period, group, totals) ->
+                rows.add(new OccupancyRow(period, group, totals[OCCUPIED], totals[CHECK_INS])));
+        return rows;
+    }
+
+    public List<RevenueRow> revenue(LocalDate from, LocalDate to, Granularity granularity,
+                                    Dimension groupBy, String status) {
+        List<RevenueRow> rows = new ArrayList<>();
+        aggregate(from, to, granularity, groupBy, status, (period, group, totals) ->
+                rows.add(new RevenueRow(period, group, BigDecimal.valueOf(totals[REVENUE_CENTS], 2), totals[CHECK_INS])));
+        return rows;
+    }
+
+    private Rollups rollups() {
+        String tenant = TenantContext.current();
+        Rollups tenantRollups = byTenant.get(tenant);
+        if (tenantRollups == null) {
+            throw new IllegalStateException("No analytics loaded for tenant " + tenant);
+        }
+        return tenantRollups;
+    }
+
+    private void apply(Rollups rollups, BookingChangedEvent event) {
+        if (event.before() != null) {
+            apply(rollups, event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(rollups, event.after(), 1);
+        }
+    }
+
+    private void apply(Rollups rollups, BookingSnapshot booking, int sign) {
+        if (booking.checkInDate() == null || booking.checkOutDate() == null) {
+            return;
+        }
+        RollupKey key = new RollupKey(booking.bookingType(), booking.country(), booking.status());
+        long revenueCents = booking.totalPrice() == null ? 0 : booking.totalPrice().movePointRight(2).longValue();
+
+        LocalDate checkIn = booking.checkInDate();
+        rollups.add(checkIn, key, CHECK_INS, sign);
+        rollups.add(checkIn, key, REVENUE_CENTS, sign * revenueCents);
+
+        LocalDate lastNight = booking.checkOutDate().isAfter(checkIn) ? booking.checkOutDate().minusDays(1) : checkIn;
+        if (lastNight.isAfter(rollups.lastNight)) {
+            lastNight = rollups.lastNight;
+        }
+        for (LocalDate night = checkIn; !night.isAfter(lastNight); night = night.plusDays(1)) {
+            rollups.add(night, key, OCCUPIED, sign);
+        }
+    }
+
+    private void aggregate(LocalDate from, LocalDate to, Granularity granularity, Dimension groupBy,
+                           String status, RowSink sink) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must be on or after 'from'");
+        }
+        Rollups tenantRollups = rollups();
+        ConcurrentSkipListMap<LocalDate, Rollup> daily = tenantRollups.daily;
+        ConcurrentSkipListMap<YearMonth, Rollup> monthly = tenantRollups.monthly;
+
+        if (granularity == Granularity.DAY) {
+            for (Map.Entry<LocalDate, Rollup> day : daily.subMap(from, true, to, true).entrySet()) {
+                emit(day.getKey().toString(), List.of(day.getValue()), groupBy, status, sink);
+            }
+            return;
+        }
+
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            LocalDate monthStart = month.atDay(1);
+            LocalDate monthEnd = month.atEndOfMonth();
+            List<Rollup> parts;
+            if (!monthStart.isBefore(from) && !monthEnd.isAfter(to)) {
+                Rollup rollup = monthly.get(month);
+                parts = rollup == null ? List.of() : List.of(rollup);
+            } else {
+                // Partial month at either end of the range: fall back to its days
+                NavigableMap<LocalDate, Rollup> days = daily.subMap(
+                        monthStart.isBefore(from) ? from : monthStart, true,
+                        monthEnd.isAfter(to) ? to : monthEnd, true);
+                parts = new ArrayList<>(days.values());
+            }
+            if (!parts.isEmpty()) {
+                emit(month.toString(), parts, groupBy, status, sink);
+            }
+        }
+    }
+
+    private void emit(String period, List<Rollup> parts, Dimension groupBy, String status, RowSink sink) {
+        Map<String, long[]> groups = new TreeMap<>();
+        for (Rollup rollup : parts) {
+            for (Map.Entry<RollupKey, LongAdder[]> entry : rollup.counters.entrySet()) {
+                RollupKey key = entry.getKey();
+                // Cancelled bookings neither occupy nor earn unless explicitly asked for
+                if (status != null ? !status.equals(key.status()) : "Cancelled".equals(key.status())) {
+                    continue;
+                }
+                long[] totals = groups.computeIfAbsent(key.group(groupBy), g -> new long[METRICS]);
+                LongAdder[] counters = entry.getValue();
+                for (int metric = 0; metric < METRICS; metric++) {
+                    totals[metric] += counters[metric].sum();
+                }
+            }
+        }
+        groups.forEach((group, totals) -> {
+            if (totals[OCCUPIED] != 0 || totals[CHECK_INS] != 0 || totals[REVENUE_CENTS] != 0) {
+                sink.accept(period, group, totals);
+            }
+        });
+    }
+
+    private record RollupKey(String bookingType, String country, String status) {
+        String group(Dimension dimension) {
+            return switch (dimension) {
+                case NONE -> "all";
+                case BOOKING_TYPE -> bookingType;
+                case COUNTRY -> country;
+                case STATUS -> status;
+            };
+        }
+    }
+
+    // One tenant's counters, per day and per month. The horizon is fixed per instance, so that a booking
+    // retracted later removes exactly the nights it added.
+    private static final class Rollups {
+        final ConcurrentSkipListMap<LocalDate, Rollup> daily = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<YearMonth, Rollup> monthly = new ConcurrentSkipListMap<>();
+        final LocalDate lastNight;
+
+        Rollups(LocalDate lastNight) {
+            this.lastNight = lastNight;
+        }
+
+        // Updates the day counter and its month counter
+        void add(LocalDate day, RollupKey key, int metric, long delta) {
+            daily.computeIfAbsent(day, d -> new Rollup()).counter(key, metric).add(delta);
+            monthly.computeIfAbsent(YearMonth.from(day), m -> new Rollup()).counter(key, metric).add(delta);
+        }
+    }
+
+    private static final class Rollup {
+        private final ConcurrentHashMap<RollupKey, LongAdder[]> counters = new ConcurrentHashMap<>();
+
+        LongAdder counter(RollupKey key, int metric) {
+            return counters.computeIfAbsent(key, k -> {
+                LongAdder[] adders = new LongAdder[METRICS];
+                for (int i = 0; i < METRICS; i++) {
+                    adders[i] = new LongAdder();
+                }
+                return adders;
+            })[metric];
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowSink {
+        void accept(String period, String group, long[] totals);
+    }
+}
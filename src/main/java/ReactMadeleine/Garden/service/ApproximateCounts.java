@@ -0,0 +1,81 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Row counts cached per tenant and listing (and per filter), served stale while a background refresh runs.
+ * Only the first request for a key waits for its COUNT query; afterwards a count older than
+ * {@code garden.paging.approximate-count.ttl} is returned as is and recomputed on a virtual thread.
+ */
+@Component
+public class ApproximateCounts {
+    private static final Logger logger = LoggerFactory.getLogger(ApproximateCounts.class);
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("approximate-count-", 0).factory());
+    private final long ttlNanos;
+    private final int maxKeys;
+
+    public ApproximateCounts(@Value("${garden.paging.approximate-count.ttl:PT1M}") Duration ttl,
+                             @Value("${garden.paging.approximate-count.max-keys:1000}") int maxKeys) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxKeys = maxKeys;
+    }
+
+    public long get(String listing, LongSupplier count) {
+        String key = TenantContext.current() + "/" + listing;
+        CachedCount cached = counts.get(key);
+        if (cached == null) {
+            if (counts.size() >= maxKeys) {
+                // Filtered searches can produce many keys; start over rather than track recency
+                counts.clear();
+            }
+            cached = counts.computeIfAbsent(key, k -> new CachedCount(count.getAsLong(), System.nanoTime()));
+        } else if (System.nanoTime() - cached.countedAt > ttlNanos && cached.refreshing.compareAndSet(false, true)) {
+            refresher.execute(TenantContext.wrap(() -> refresh(key, count)));
+        }
+        return cached.value;
+    }
+
+    private void refresh(String key, LongSupplier count) {
+        try {
+            counts.put(key, new CachedCount(count.getAsLong(), System.nanoTime()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not refresh approximate count for {}", key, e);
+            CachedCount stale = counts.get(key);
+            if (stale != null) {
+                stale.refreshing.set(false);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static final class CachedCount {
+        final long value;
+        final long countedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedCount(long value, long countedAt) {
+            this.value = value;
+            this.countedAt = countedAt;
+        }
+    }
+}
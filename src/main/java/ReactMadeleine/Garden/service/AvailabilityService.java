@@ -0,0 +1,33 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Availability calendar queries, answered from the per-unit occupancy kept by InventoryService. A day is
+ * taken when the non-cancelled bookings covering it (check-in and check-out days included) fill the unit.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final int MAX_RANGE_DAYS = 3 * 366;
+
+    private final InventoryService inventoryService;
+
+    public AvailabilityService(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    public List<AvailabilityRange> getAvailability(LocalDate from, LocalDate to, String bookingType, Long unitId) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must be on or after 'from'");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Availability can be requested for at most " + MAX_RANGE_DAYS + " days");
+        }
+        return inventoryService.getAvailability(from, to, bookingType, unitId);
+    }
+}
@@ -0,0 +1,340 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.BookingStreamEvent;
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fan-out of committed booking changes to every open {@code /api/bookings/stream} connection.
+ * <p>
+ * Each change is serialized once and offered to every subscriber's bounded buffer; a virtual thread
+ * per subscriber drains its buffer into the connection, so a slow client only ever delays itself. When
+ * a buffer is full the oldest event is dropped and the subscriber receives a {@code resync} event before
+ * the next one, telling the dashboard to reload its list.
+ * <p>
+ * Event ids are {@code <epoch>-<sequence>}. The last {@code garden.sse.replay-size} events are kept so a
+ * client reconnecting with {@code Last-Event-ID} gets what it missed; an id that is too old or from a
+ * previous run gets a {@code resync} instead.
+ * <p>
+ * Each tenant has its own channel (subscribers, sequence and replay buffer): a dashboard only receives the
+ * changes of the property it is connected for.
+ * <p>
+ * Events only come from changes committed by this instance. Every {@code garden.sse.outside-change-check},
+ * each tenant's bookings stamp (row count and sum of versions, see {@link CollectionVersions}) is compared with
+ * what the events published since the previous check account for: a create adds a row, an update one version.
+ * A difference means another instance, or a job that publishes no events (archiving), changed bookings, and
+ * subscribers get a {@code resync}. So does a local deletion, whose effect on the sum is unknown. Behind a load
+ * balancer, a dashboard therefore sees other instances' changes as a reload within that interval.
+ */
+@Component
+public class BookingEventHub {
+    private static final Logger logger = LoggerFactory.getLogger(BookingEventHub.class);
+
+    public static final String RESYNC = "resync";
+
+    /**
+     * The connection a subscriber is attached to. Calls come from the subscriber's own thread.
+     */
+    public interface Sink {
+        void send(Event event) throws IOException;
+
+        // Keeps idle connections open through proxies and detects closed ones
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    public record Event(String id, String name, String data) {
+    }
+
+    // Marker queued to wake an idle sender for a heartbeat; never sent as an event
+    private static final Event HEARTBEAT = new Event(null, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final BookingRepository bookingRepository;
+    private final Tenants tenants;
+    private final int bufferSize;
+    private final int replaySize;
+    private final Counter dropped;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public BookingEventHub(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           BookingRepository bookingRepository, Tenants tenants,
+                           @Value("${garden.sse.buffer-size:256}") int bufferSize,
+                           @Value("${garden.sse.replay-size:1000}") int replaySize) {
+        if (bufferSize < 1 || replaySize < 0) {
+            throw new IllegalArgumentException("garden.sse.buffer-size must be positive and replay-size not negative");
+        }
+        this.objectMapper = objectMapper;
+        this.bookingRepository = bookingRepository;
+        this.tenants = tenants;
+        this.bufferSize = bufferSize;
+        this.replaySize = replaySize;
+        this.dropped = Counter.builder("garden.sse.dropped")
+                .description("Booking events dropped for slow /api/bookings/stream subscribers")
+                .register(meterRegistry);
+        meterRegistry.gauge("garden.sse.subscribers", this, BookingEventHub::subscriberCount);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent change) {
+        BookingStreamEvent payload = new BookingStreamEvent(change.type().name(), change.bookingId(), change.after());
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        String name = change.type().name().toLowerCase(Locale.ROOT);
+        Channel channel = channel();
+        synchronized (channel) {
+            switch (change.type()) {
+                case CREATED -> channel.publishedRows++;
+                case UPDATED, STATUS_CHANGED -> channel.publishedVersions++;
+                case DELETED -> channel.unaccounted = true;
+            }
+            publish(channel, name, data);
+        }
+    }
+
+    /**
+     * Sends a {@code resync} to the tenants whose bookings changed in ways this instance published no events
+     * for. The first run only records each tenant's stamp.
+     */
+    @Scheduled(initialDelayString = "${garden.sse.outside-change-check:PT5S}",
+            fixedDelayString = "${garden.sse.outside-change-check:PT5S}")
+    public void checkForOutsideChanges() {
+        tenants.forEach(tenant -> {
+            // Read outside the lock; a change committed just before but published just after the read
+            // costs a needless resync, never a missed one
+            CollectionStamp stamp = bookingRepository.findStamp();
+            long rows = stamp.getRows() == null ? 0 : stamp.getRows();
+            long versions = stamp.getVersions() == null ? 0 : stamp.getVersions();
+            Channel channel = channel();
+            synchronized (channel) {
+                boolean accounted = !channel.unaccounted
+                        && rows == channel.checkedRows + channel.publishedRows
+                        && versions == channel.checkedVersions + channel.publishedVersions;
+                if (channel.checked && !accounted) {
+                    logger.debug("Bookings of tenant {} changed outside this instance; resyncing {} subscribers",
+                            tenant, channel.subscribers.size());
+                    publish(channel, RESYNC, "{}");
+                }
+                channel.checked = true;
+                channel.checkedRows = rows;
+                channel.checkedVersions = versions;
+                channel.publishedRows = 0;
+                channel.publishedVersions = 0;
+                channel.unaccounted = false;
+            }
+        });
+    }
+
+    // Called under the channel's lock
+    private void publish(Channel channel, String name, String data) {
+        Event event = new Event(epoch + "-" + (++channel.sequence), name, data);
+        if (replaySize > 0) {
+            if (channel.replay.size() == replaySize) {
+                channel.replay.removeFirst();
+            }
+            channel.replay.addLast(event);
+        }
+        for (Subscriber subscriber : channel.subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Attaches {@code sink} to the current tenant's channel and starts its sender thread. Events after
+     * {@code lastEventId} still in the replay buffer are queued first.
+     */
+    public Subscription subscribe(Sink sink, String lastEventId) {
+        Channel channel = channel();
+        Subscriber subscriber = new Subscriber(channel, sink);
+        synchronized (channel) {
+            for (Event event : missedEvents(channel, lastEventId)) {
+                subscriber.offer(event);
+            }
+            channel.subscribers.add(subscriber);
+        }
+        subscriber.thread = Thread.ofVirtual().name("booking-stream-subscriber").unstarted(subscriber);
+        subscriber.thread.start();
+        return subscriber;
+    }
+
+    public int subscriberCount() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${garden.sse.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            channel.subscribers.forEach(Subscriber::heartbeat);
+        }
+    }
+
+    @PreDestroy
+    void closeAll() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::cancel));
+    }
+
+    private Channel channel() {
+        return channels.computeIfAbsent(TenantContext.current(), tenant -> new Channel());
+    }
+
+    // Called under the channel's lock
+    private List<Event> missedEvents(Channel channel, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return List.of();
+        }
+        long lastSequence = parseSequence(lastEventId.trim());
+        Event oldest = channel.replay.peekFirst();
+        long oldestSequence = oldest == null ? channel.sequence + 1 : parseSequence(oldest.id());
+        // Unknown run, a future id, or events already evicted: the client must reload
+        if (lastSequence < 0 || lastSequence > channel.sequence || lastSequence + 1 < oldestSequence) {
+            return List.of(resync());
+        }
+        List<Event> missed = new ArrayList<>();
+        for (Event event : channel.replay) {
+            if (parseSequence(event.id()) > lastSequence) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private Event resync() {
+        return new Event(null, RESYNC, "{}");
+    }
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    // One tenant's subscribers; the lock guards sequence, replay, the outside-change bookkeeping, and
+    // registration order relative to publication
+    private static final class Channel {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final ArrayDeque<Event> replay = new ArrayDeque<>();
+        long sequence;
+        // Stamp at the last check, and what this instance published since
+        boolean checked;
+        long checkedRows;
+        long checkedVersions;
+        long publishedRows;
+        long publishedVersions;
+        boolean unaccounted;
+    }
+
+    private final class Subscriber implements Runnable, Subscription {
+        private final Channel channel;
+        private final Sink sink;
+        private final BlockingQueue<Event> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private volatile Thread thread;
+
+        Subscriber(Channel channel, Sink sink) {
+            this.channel = channel;
+            this.sink = sink;
+        }
+
+        // Never blocks the publisher: drops the oldest buffered event instead
+        void offer(Event event) {
+            while (!buffer.offer(event)) {
+                if (buffer.poll() != null) {
+                    dropped.increment();
+                    overflowed.set(true);
+                }
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue.set(true);
+            if (buffer.isEmpty()) {
+                // Wakes the sender blocked on an empty buffer
+                buffer.offer(HEARTBEAT);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!cancelled.get()) {
+                    Event event = buffer.take();
+                    if (heartbeatDue.getAndSet(false)) {
+                        sink.heartbeat();
+                    }
+                    if (event == HEARTBEAT) {
+                        continue;
+                    }
+                    if (overflowed.getAndSet(false)) {
+                        sink.send(resync());
+                    }
+                    sink.send(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Booking stream subscriber disconnected: {}", e.toString());
+            } finally {
+                cancel();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                channel.subscribers.remove(this);
+                Thread current = thread;
+                if (current != null && current != Thread.currentThread()) {
+                    current.interrupt();
+                }
+                sink.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Booking events committed while an in-memory view was being rebuilt from a read of the bookings table.
+ * The read may or may not include each of them, so the row versions decide: an event is replayed onto the
+ * rebuilt view only when it is newer than what was read (the creation of a row the read did not see, a
+ * change to a row read at an older version, the deletion of a row the read still saw).
+ * <p>
+ * Not thread-safe: the owner records and replays under its own lock.
+ */
+final class BookingEventReplay {
+
+    private final List<BookingChangedEvent> events = new ArrayList<>();
+
+    void record(BookingChangedEvent event) {
+        events.add(event);
+    }
+
+    void replay(List<BookingSnapshot> read, Consumer<BookingChangedEvent> apply) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        events.forEach(event -> ids.add(event.bookingId()));
+        Map<Long, Long> readVersions = new HashMap<>();
+        for (BookingSnapshot booking : read) {
+            if (ids.contains(booking.id())) {
+                readVersions.put(booking.id(), version(booking));
+            }
+        }
+
+        for (BookingChangedEvent event : events) {
+            Long id = event.bookingId();
+            Long seen = readVersions.get(id);
+            boolean newer = event.before() == null ? seen == null
+                    : event.after() == null ? seen != null
+                    : seen != null && seen < version(event.after());
+            if (newer) {
+                apply.accept(event);
+                if (event.after() == null) {
+                    readVersions.remove(id);
+                } else {
+                    readVersions.put(id, version(event.after()));
+                }
+            }
+        }
+    }
+
+    // Rows from before the version column start at 0
+    private static long version(BookingSnapshot booking) {
+        return booking.version() == null ? 0 : booking.version();
+    }
+}
@@ -0,0 +1,45 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.ArchivedBooking;
+import ReactMadeleine.Garden.repository.ArchivedBookingRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read path over {@code bookings_archive}: stays moved out of the live table by the archival job.
+ */
+@Service
+public class BookingHistoryService {
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final ArchivedBookingRepository archivedBookingRepository;
+
+    public BookingHistoryService(ArchivedBookingRepository archivedBookingRepository) {
+        this.archivedBookingRepository = archivedBookingRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ArchivedBooking> findHistory(String customerName, String status, String bookingType,
+                                             LocalDate from, LocalDate to, int page, int size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Page index cannot be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return archivedBookingRepository.findHistory(
+                blankToNull(customerName), blankToNull(status), blankToNull(bookingType),
+                from, to, PageRequest.of(page, size));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,34 +1,67 @@
 package ReactMadeleine.Garden.service;
 
 
+import ReactMadeleine.Garden.dto.BookingStatusChange;
+import ReactMadeleine.Garden.dto.BookingStatusResult;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
 import ReactMadeleine.Garden.exception.BookingNotFoundException;
 import ReactMadeleine.Garden.exception.InvalidBookingStateException;
 import ReactMadeleine.Garden.model.Booking;
 import ReactMadeleine.Garden.repository.BookingRepository;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Validated
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingService {
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryService inventoryService;
+    private final PricingService pricingService;
+    // Longest stay, and how far ahead a stay may end: the in-memory calendars and rollups cover this horizon
+    private final int maxStayNights;
+    private final Period horizon;
 
     private static final String[] VALID_STATUSES = {"Pending", "Confirmed", "Cancelled"};
+    public static final int MAX_STATUS_BATCH = 1000;
+
+    public BookingService(BookingRepository bookingRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          InventoryService inventoryService,
+                          PricingService pricingService,
+                          @Value("${garden.bookings.max-stay-nights:365}") int maxStayNights,
+                          @Value("${garden.bookings.horizon:P3Y}") Period horizon) {
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.inventoryService = inventoryService;
+        this.pricingService = pricingService;
+        this.maxStayNights = maxStayNights;
+        this.horizon = horizon;
+    }
 
-    @Transactional
+    // READ COMMITTED: InventoryService counts the unit's bookings after locking it and must see the latest ones
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Booking createBooking(@Valid Booking booking) {
         logger.info("Creating new booking for {} {}", booking.getFirstName(), booking.getLastName());
         validateNewBooking(booking);
@@ -36,8 +69,18 @@ public class BookingService {
         booking.setDefaultValues();
         booking.setStatus("Pending");
 
+        // Prix calculé côté serveur quand le type de réservation a une grille tarifaire
+        pricingService.quote(booking.getBookingType(), booking.getCheckInDate(), booking.getCheckOutDate())
+                .ifPresent(booking::setTotalPrice);
+
+        // Réserve les dates sur une unité (ou sur le jardin entier si le type n'a pas d'unités)
+        booking.setUnitId(inventoryService.reserve(
+                booking.getBookingType(), booking.getUnitId(),
+                booking.getCheckInDate(), booking.getCheckOutDate()));
+
         Booking savedBooking = bookingRepository.save(booking);
         logger.info("Created booking with ID: {}", savedBooking.getId());
+        eventPublisher.publishEvent(BookingChangedEvent.created(BookingSnapshot.of(savedBooking)));
 
         return savedBooking;
     }
@@ -61,19 +104,94 @@ public class BookingService {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + id));
 
-        validateStatusTransition(booking.getStatus(), newStatus);
+        BookingStatusTransitions.check(booking.getStatus(), newStatus);
 
         String oldStatus = booking.getStatus();
+        BookingSnapshot before = BookingSnapshot.of(booking);
         booking.setStatus(newStatus);
 
-        Booking updatedBooking = bookingRepository.save(booking);
+        // Flushed so that the event carries the version the row was written with
+        Booking updatedBooking = bookingRepository.saveAndFlush(booking);
         logger.info("Successfully updated booking {} status from {} to {}",
                 id, oldStatus, newStatus);
+        eventPublisher.publishEvent(BookingChangedEvent.statusChanged(before, BookingSnapshot.of(updatedBooking)));
 
         return updatedBooking;
     }
 
+    /**
+     * Applies a list of status changes in one transaction: one query locks every booking, transitions are
+     * validated in memory, and each target status is written with a single UPDATE. Items are applied in
+     * request order, so an id listed twice sees its first change. A rejected item does not affect the others.
+     */
     @Transactional
+    public List<BookingStatusResult> updateBookingStatuses(List<BookingStatusChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new IllegalArgumentException("At least one status change is required");
+        }
+        if (changes.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " status changes per request");
+        }
+        logger.info("Updating status of {} bookings", changes.size());
+
+        Set<Long> ids = new HashSet<>();
+        for (BookingStatusChange change : changes) {
+            if (change == null || change.getId() == null) {
+                throw new IllegalArgumentException("Every status change needs a booking id");
+            }
+            ids.add(change.getId());
+        }
+        Map<Long, BookingSnapshot> before = new HashMap<>();
+        for (Booking booking : bookingRepository.lockAllById(ids)) {
+            before.put(booking.getId(), BookingSnapshot.of(booking));
+        }
+
+        // Statut courant de chaque réservation au fil du lot
+        Map<Long, String> statuses = new HashMap<>();
+        before.forEach((id, snapshot) -> statuses.put(id, snapshot.status()));
+        List<BookingStatusResult> results = new ArrayList<>(changes.size());
+        for (BookingStatusChange change : changes) {
+            Long id = change.getId();
+            String current = statuses.get(id);
+            if (current == null) {
+                results.add(new BookingStatusResult(id, BookingStatusResult.Outcome.NOT_FOUND, null,
+                        "Booking not found with id: " + id));
+                continue;
+            }
+            try {
+                validateStatus(change.getStatus());
+                BookingStatusTransitions.check(current, change.getStatus());
+            } catch (IllegalArgumentException | InvalidBookingStateException e) {
+                results.add(new BookingStatusResult(id, BookingStatusResult.Outcome.REJECTED, current, e.getMessage()));
+                continue;
+            }
+            boolean changed = !current.equals(change.getStatus());
+            statuses.put(id, change.getStatus());
+            results.add(new BookingStatusResult(id,
+                    changed ? BookingStatusResult.Outcome.UPDATED : BookingStatusResult.Outcome.UNCHANGED,
+                    change.getStatus(), null));
+        }
+
+        // Une requête UPDATE par statut cible ; les lignes inchangées ne sont pas réécrites
+        Map<String, List<Long>> idsByStatus = new HashMap<>();
+        statuses.forEach((id, status) -> {
+            if (!status.equals(before.get(id).status())) {
+                idsByStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(id);
+            }
+        });
+        if (idsByStatus.isEmpty()) {
+            return results;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        idsByStatus.forEach((status, statusIds) -> bookingRepository.updateStatus(statusIds, status, now));
+        // The bulk UPDATE bypasses entity listeners: publish the same events as the per-row path
+        idsByStatus.forEach((status, statusIds) -> statusIds.forEach(id -> eventPublisher.publishEvent(
+                BookingChangedEvent.statusChanged(before.get(id), before.get(id).withStatus(status)))));
+        logger.info("Updated status of {} bookings", idsByStatus.values().stream().mapToInt(List::size).sum());
+        return results;
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Booking updateBooking(Long id, @Valid Booking bookingDetails) {
         logger.info("Updating booking with ID: {}", id);
 
@@ -85,14 +203,25 @@ public class BookingService {
             throw new InvalidBookingStateException("Cannot update cancelled booking");
         }
 
+        BookingSnapshot before = BookingSnapshot.of(existingBooking);
+
         // Mise à jour des champs
         updateBookingFields(existingBooking, bookingDetails);
 
         // Validation de la mise à jour
         validateBookingUpdate(existingBooking);
 
-        Booking updatedBooking = bookingRepository.save(existingBooking);
+        pricingService.quote(existingBooking.getBookingType(),
+                        existingBooking.getCheckInDate(), existingBooking.getCheckOutDate())
+                .ifPresent(existingBooking::setTotalPrice);
+
+        existingBooking.setUnitId(inventoryService.move(
+                before, existingBooking.getBookingType(), bookingDetails.getUnitId(),
+                existingBooking.getCheckInDate(), existingBooking.getCheckOutDate()));
+
+        Booking updatedBooking = bookingRepository.saveAndFlush(existingBooking);
         logger.info("Successfully updated booking with ID: {}", id);
+        eventPublisher.publishEvent(BookingChangedEvent.updated(before, BookingSnapshot.of(updatedBooking)));
 
         return updatedBooking;
     }
@@ -111,6 +240,7 @@ public class BookingService {
 
         bookingRepository.deleteById(id);
         logger.info("Successfully deleted booking with ID: {}", id);
+        eventPublisher.publishEvent(BookingChangedEvent.deleted(BookingSnapshot.of(booking)));
     }
 
     public List<Booking> searchBookings(String customerName, String status,
@@ -131,16 +261,9 @@ public class BookingService {
         if (booking.getCheckInDate().isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Check-in date cannot be in the past");
         }
-
-        // Vérifier les chevauchements de dates
-        List<Booking> overlappingBookings = bookingRepository.findOverlappingBookings(
-                booking.getCheckInDate(),
-                booking.getCheckOutDate()
-        );
-
-        if (!overlappingBookings.isEmpty()) {
-            throw new IllegalArgumentException("Selected dates overlap with existing bookings");
-        }
+        validateStayBounds(booking);
+        // Les chevauchements sont vérifiés par InventoryService.reserve, par unité et selon sa capacité :
+        // calendrier en mémoire d'abord, puis en base sous verrou de l'unité
     }
 
     private void validateStatus(String status) {
@@ -151,16 +274,6 @@ public class BookingService {
         }
     }
 
-    private void validateStatusTransition(String currentStatus, String newStatus) {
-        if ("Cancelled".equals(currentStatus)) {
-            throw new InvalidBookingStateException("Cannot change status of cancelled booking");
-        }
-
-        if ("Confirmed".equals(currentStatus) && "Pending".equals(newStatus)) {
-            throw new InvalidBookingStateException("Cannot change confirmed booking back to pending");
-        }
-    }
-
     private void validateBookingUpdate(Booking booking) {
         if (booking.getCheckOutDate().isBefore(booking.getCheckInDate())) {
             throw new IllegalArgumentException("Check-out date must be after check-in date");
@@ -169,6 +282,17 @@ public class BookingService {
         if (booking.getCheckInDate().isBefore(LocalDate.now())) {
             throw new IllegalArgumentException("Check-in date cannot be in the past");
         }
+        validateStayBounds(booking);
+    }
+
+    private void validateStayBounds(Booking booking) {
+        if (booking.getCheckOutDate().toEpochDay() - booking.getCheckInDate().toEpochDay() > maxStayNights) {
+            throw new IllegalArgumentException("A stay cannot be longer than " + maxStayNights + " nights");
+        }
+        LocalDate lastBookableDay = LocalDate.now().plus(horizon);
+        if (booking.getCheckOutDate().isAfter(lastBookableDay)) {
+            throw new IllegalArgumentException("Check-out date cannot be after " + lastBookableDay);
+        }
     }
 
     private void updateBookingFields(Booking existing, Booking details) {
@@ -0,0 +1,23 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.exception.InvalidBookingStateException;
+
+/**
+ * Which status changes a booking allows: a cancelled booking is final, and a confirmed one cannot go back
+ * to pending. Kept apart from {@link BookingService} so the rule can be benchmarked without a service.
+ */
+final class BookingStatusTransitions {
+
+    private BookingStatusTransitions() {
+    }
+
+    static void check(String currentStatus, String newStatus) {
+        if ("Cancelled".equals(currentStatus)) {
+            throw new InvalidBookingStateException("Cannot change status of cancelled booking");
+        }
+
+        if ("Confirmed".equals(currentStatus) && "Pending".equals(newStatus)) {
+            throw new InvalidBookingStateException("Cannot change confirmed booking back to pending");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.util.HexFormat;
+
+/**
+ * Validators of the listings ({@link #BOOKINGS}, {@link #ADMINS}, {@link #USERS}), read from the database
+ * so that every instance hands out the same ETag for the same rows, whichever instance made the last write.
+ * A poll costs one index-only query (see {@link CollectionStamp}) instead of the listing itself.
+ * <p>
+ * Single-row endpoints use {@link #etag(String, Long, Long)} with the row's {@code @Version}.
+ * <p>
+ * Stamps only cover the request's tenant, so a write in one property leaves the other properties' tags valid.
+ */
+@Component
+public class CollectionVersions {
+    public static final String BOOKINGS = "bookings";
+    public static final String ADMINS = "admins";
+    public static final String USERS = "users";
+
+    private final BookingRepository bookingRepository;
+    private final AdminRepository adminRepository;
+    private final UserRepository userRepository;
+
+    public CollectionVersions(BookingRepository bookingRepository,
+                              AdminRepository adminRepository,
+                              UserRepository userRepository) {
+        this.bookingRepository = bookingRepository;
+        this.adminRepository = adminRepository;
+        this.userRepository = userRepository;
+    }
+
+    public CollectionStamp stamp(String collection) {
+        return switch (collection) {
+            case BOOKINGS -> bookingRepository.findStamp();
+            case ADMINS -> adminRepository.findStamp();
+            case USERS -> userRepository.findStamp();
+            default -> throw new IllegalArgumentException("Unknown collection: " + collection);
+        };
+    }
+
+    /**
+     * ETag of a listing: the collection stamp plus the request variant (query string), digested with SHA-256
+     * and truncated to 128 bits, so that two states of the collection can't realistically share a tag and
+     * answer a poll with a wrong 304. Weak, because Tomcat does not compress a response carrying a strong
+     * ETag, and the listings are the responses worth compressing; If-None-Match still matches it (GET uses
+     * the weak comparison).
+     */
+    public String etag(String collection, CollectionStamp stamp, String variant) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        // NUL-separated, so that no two field lists give the same input
+        String state = stamp.getRows() + "\0" + stamp.getLastId() + "\0" + stamp.getVersions() + "\0"
+                + stamp.getLastUpdate() + "\0" + (variant == null ? "" : variant);
+        byte[] hash = digest.digest(state.getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + collection + "-" + TenantContext.current() + "-" + stamp.getRows() + "-"
+                + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+
+    /**
+     * Strong ETag of one row, from its {@code @Version}.
+     */
+    public String etag(String collection, Long id, Long version) {
+        return "\"" + collection + "-" + id + "-v" + (version == null ? 0 : version) + "\"";
+    }
+
+    // Epoch millis of the latest update, -1 when unknown; second precision is all If-Modified-Since needs
+    public long lastModified(CollectionStamp stamp) {
+        return stamp.getLastUpdate() == null ? -1
+                : stamp.getLastUpdate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
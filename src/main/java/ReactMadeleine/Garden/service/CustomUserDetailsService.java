@@ -1,34 +1,87 @@
 package ReactMadeleine.Garden.service;
 
 
-import ReactMadeleine.Garden.model.User;
+import ReactMadeleine.Garden.implementation.CustomUserDetails;
+import ReactMadeleine.Garden.repository.AdminRepository;
 import ReactMadeleine.Garden.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
-
+/**
+ * Resolves the login of both account kinds: an email is looked up in {@code admins} (unique index on
+ * email), anything else, or an email no admin has, in {@code users} (unique index on username).
+ * <p>
+ * Resolved accounts are cached for {@code garden.auth.cache-ttl}, so HTTP Basic requests don't load the
+ * whole row, and {@code CachingAuthenticationProvider} skips BCrypt for a cached account. Before a cached
+ * account is used, its row's {@code @Version} is read by primary key: every write to a user or admin bumps
+ * it, on whichever instance made it, so a new password, role or deletion applies from the first request
+ * after its commit.
+ * <p>
+ * Both lookups only see the accounts of the request's tenant, and cache entries are kept per tenant.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final AdminRepository adminRepository;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<String, CachedDetails> cache = new ConcurrentHashMap<>();
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    AdminRepository adminRepository,
+                                    @Value("${garden.auth.cache-ttl:PT5M}") Duration ttl,
+                                    @Value("${garden.auth.cache-size:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.adminRepository = adminRepository;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> user = userRepository.findByUsername(username);
-        if (user.isEmpty()) {
-            throw new UsernameNotFoundException("User not found");
+        String key = TenantContext.current() + "/" + username;
+        CachedDetails cached = cache.get(key);
+        if (cached != null && System.nanoTime() - cached.loadedAt < ttlNanos && isCurrent(cached.details)) {
+            return cached.details;
+        }
+        CustomUserDetails details = lookup(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (cache.size() >= maxEntries) {
+            // Start over rather than track recency
+            cache.clear();
+        }
+        cache.put(key, new CachedDetails(details, System.nanoTime()));
+        return details;
+    }
+
+    private Optional<CustomUserDetails> lookup(String login) {
+        if (login.indexOf('@') >= 0) {
+            Optional<CustomUserDetails> admin = adminRepository.findByEmail(login).map(CustomUserDetails::new);
+            if (admin.isPresent()) {
+                return admin;
+            }
         }
-        return new org.springframework.security.core.userdetails.User(
-                user.get().getUsername(),
-                user.get().getPassword(),
-                new ArrayList<>()
-        );
+        return userRepository.findByUsername(login).map(CustomUserDetails::new);
+    }
+
+    private boolean isCurrent(CustomUserDetails details) {
+        Optional<Long> version = details.getKind() == CustomUserDetails.Kind.ADMIN
+                ? adminRepository.findVersionById(details.getId())
+                : userRepository.findVersionById(details.getId());
+        return version.isPresent() && version.get().equals(details.getVersion());
+    }
+
+    private record CachedDetails(CustomUserDetails details, long loadedAt) {
     }
 }
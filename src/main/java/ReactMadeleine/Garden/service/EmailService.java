@@ -3,11 +3,14 @@ package ReactMadeleine.Garden.service;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+// Only registration and password resets send mail: created, with its mail sender, on first use
 @Service
+@Lazy
 public class EmailService {
 
     @Autowired
@@ -0,0 +1,292 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.exception.IdempotencyKeyConflictException;
+import ReactMadeleine.Garden.exception.IdempotencyKeyMismatchException;
+import ReactMadeleine.Garden.model.IdempotencyRecord;
+import ReactMadeleine.Garden.repository.IdempotencyRecordRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}, tenant and caller, and replays the recorded
+ * response to retries with the same key.
+ * <p>
+ * The {@code idempotency_keys} table is the source of truth: a row is inserted before the request runs,
+ * so a duplicate on another node sees the key as taken, and completed with the response afterwards.
+ * Completed responses are also kept in memory for {@code garden.idempotency.ttl}, so most retries never
+ * reach the database. Duplicates arriving on the same node while the first request is still running wait
+ * for its response instead of failing. Responses with a 5xx status or an exception are not recorded, and
+ * the key is released so the client can retry.
+ * <p>
+ * If the process dies between running the request and recording its response, the claim is taken over
+ * once it is older than {@code garden.idempotency.in-flight-timeout}.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Clock clock = Clock.systemDefaultZone();
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final int cacheSize;
+
+    private final Map<Scope, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Scope, StoredResponse> completed = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${garden.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${garden.idempotency.in-flight-timeout:PT30S}") Duration inFlightTimeout,
+                              @Value("${garden.idempotency.cache-size:10000}") int cacheSize) {
+        if (ttl.isNegative() || ttl.isZero() || inFlightTimeout.isNegative() || inFlightTimeout.isZero()) {
+            throw new IllegalArgumentException("garden.idempotency.ttl and in-flight-timeout must be positive");
+        }
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key already ran for the current caller, in which
+     * case its response is replayed. Without a key the action simply runs.
+     *
+     * @param operation identifies the endpoint, so a key cannot be replayed against another one
+     * @param request   the request body, fingerprinted before {@code action} runs
+     */
+    public ResponseEntity<?> execute(String key, String operation, Object request, Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Scope scope = new Scope(TenantContext.current(), currentPrincipal(), key);
+        String requestHash = fingerprint(operation, request);
+        while (true) {
+            StoredResponse cached = cachedResponse(scope);
+            if (cached != null) {
+                return replay(cached, requestHash);
+            }
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scope, mine);
+            if (running == null) {
+                try {
+                    return runOnce(scope, requestHash, action, mine);
+                } finally {
+                    inFlight.remove(scope, mine);
+                    // No-op when a response was recorded; otherwise waiters retry on their own
+                    mine.complete(null);
+                }
+            }
+            StoredResponse first = await(running);
+            if (first != null) {
+                return replay(first, requestHash);
+            }
+            // The first request failed and released the key: try again, possibly as the new owner
+        }
+    }
+
+    private ResponseEntity<?> runOnce(Scope scope, String requestHash, Supplier<ResponseEntity<?>> action,
+                                      CompletableFuture<StoredResponse> mine) {
+        IdempotencyRecord record = claim(scope, requestHash);
+        if (record.isCompleted()) {
+            StoredResponse earlier = StoredResponse.of(record);
+            remember(scope, earlier);
+            mine.complete(earlier);
+            return replay(earlier, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(record.getId());
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            release(record.getId());
+            return response;
+        }
+        try {
+            StoredResponse stored = store(record.getId(), requestHash, response);
+            remember(scope, stored);
+            mine.complete(stored);
+        } catch (RuntimeException e) {
+            // The request did run: answer it, and leave the claim to expire rather than let a retry repeat it
+            logger.warn("Could not record response for {} {}", HEADER, scope.key(), e);
+        }
+        return response;
+    }
+
+    // Inserts the claim row, or returns the completed row already recorded for the key
+    private IdempotencyRecord claim(Scope scope, String requestHash) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        IdempotencyRecord claim = new IdempotencyRecord(null, scope.principal(), scope.key(), requestHash,
+                false, null, null, null, now, now.plus(ttl), null);
+        try {
+            return transactionTemplate.execute(status -> repository.saveAndFlush(claim));
+        } catch (DataIntegrityViolationException e) {
+            // Taken by an earlier request, possibly on another node
+        }
+        IdempotencyRecord existing = repository.findByPrincipalAndIdempotencyKey(scope.principal(), scope.key())
+                .orElse(null);
+        if (existing == null) {
+            // Released in the meantime
+            return claim(scope, requestHash);
+        }
+        boolean expired = existing.getExpiresAt().isBefore(now);
+        boolean abandoned = !existing.isCompleted() && existing.getCreatedAt().plus(inFlightTimeout).isBefore(now);
+        if (expired || abandoned) {
+            logger.info("Taking over {} idempotency key for {}", expired ? "expired" : "abandoned", scope.principal());
+            release(existing.getId());
+            return claim(scope, requestHash);
+        }
+        if (!existing.isCompleted()) {
+            throw new IdempotencyKeyConflictException("A request with this " + HEADER + " is still in progress");
+        }
+        return existing;
+    }
+
+    private StoredResponse store(Long recordId, String requestHash, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        MediaType contentType = response.getHeaders().getContentType();
+        String serialized;
+        if (body == null) {
+            serialized = null;
+        } else if (body instanceof String text) {
+            serialized = text;
+            contentType = contentType != null ? contentType : MediaType.TEXT_PLAIN;
+        } else {
+            try {
+                serialized = objectMapper.writeValueAsString(body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not record response for " + HEADER, e);
+            }
+            contentType = contentType != null ? contentType : MediaType.APPLICATION_JSON;
+        }
+        String contentTypeValue = contentType == null ? null : contentType.toString();
+        int status = response.getStatusCode().value();
+        LocalDateTime expiresAt = transactionTemplate.execute(tx -> {
+            IdempotencyRecord record = repository.findById(recordId)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency claim disappeared"));
+            record.setCompleted(true);
+            record.setResponseStatus(status);
+            record.setContentType(contentTypeValue);
+            record.setResponseBody(serialized);
+            return record.getExpiresAt();
+        });
+        return new StoredResponse(requestHash, status, contentTypeValue, serialized, expiresAt);
+    }
+
+    private void release(Long recordId) {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteByIds(List.of(recordId)));
+    }
+
+    private StoredResponse cachedResponse(Scope scope) {
+        StoredResponse cached = completed.get(scope);
+        if (cached != null && cached.expiresAt().isBefore(LocalDateTime.now(clock))) {
+            completed.remove(scope, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    private void remember(Scope scope, StoredResponse response) {
+        if (completed.size() >= cacheSize) {
+            // Retries come within seconds of the original; start over rather than track recency
+            completed.clear();
+        }
+        completed.put(scope, response);
+    }
+
+    // The first request's response, or null when it did not record one
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException("A request with this " + HEADER + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("Interrupted while waiting for a request with this " + HEADER);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(HEADER + " was already used for a different request");
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            builder.contentType(MediaType.parseMediaType(stored.contentType()));
+        }
+        return builder.body(stored.body());
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request for " + HEADER, e);
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication.getName() == null ? "anonymous" : authentication.getName();
+    }
+
+    private record Scope(String tenant, String principal, String key) {
+    }
+
+    private record StoredResponse(String requestHash, int status, String contentType, String body,
+                                  LocalDateTime expiresAt) {
+        static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getContentType(),
+                    record.getResponseBody(), record.getExpiresAt());
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.model.BookableUnit;
+import ReactMadeleine.Garden.model.InventoryLock;
+import ReactMadeleine.Garden.repository.BookableUnitRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.InventoryLockRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bookable units and their per-day occupancy. Each unit has its own OccupancyCalendar, which acts as
+ * the interval index for availability and as a fast pre-check: a booking fits a unit when no day of its
+ * stay (check-in and check-out included) is already at the unit's capacity.
+ * <p>
+ * Booking types without any unit keep the original behaviour: the whole garden is one unit of
+ * capacity 1, tracked in the "unassigned" calendar.
+ * <p>
+ * The calendars may be behind what other instances wrote, so the database has the last word: once the
+ * pre-check has picked a unit, the booking transaction locks that unit's row (or the tenant's "unassigned"
+ * row in {@code inventory_locks}) and counts the unit's overlapping bookings. The lock is held until commit,
+ * so two requests can't both take the last place, on one instance or several. Booking transactions run at
+ * READ COMMITTED, so the count made after the lock sees every booking committed before. A stay the calendars
+ * find full is counted in the database too before it is refused: the calendar may still hold a booking
+ * another instance cancelled.
+ * <p>
+ * Every tenant has its own units, calendars and monitor. The calendars count the committed bookings, each at
+ * the version last seen, plus the reservations of transactions still in flight here. A reservation holds its
+ * days until its transaction ends; the booking event published on commit then brings the calendars to the
+ * booking's new state. Every {@code garden.inventory.resync-interval} the rows written since the last read are
+ * merged in, which brings in what other instances booked or changed; every
+ * {@code garden.inventory.rebuild-interval} the calendars are rebuilt from every booking, which drops the
+ * bookings deleted elsewhere and moves their first day to today. Events that commit while the table is being
+ * read are replayed when the read did not include them (see {@link BookingEventReplay}). The calendars cover
+ * {@code garden.bookings.horizon} from the last rebuild; later days read as free and are left to the database
+ * check.
+ */
+@Service
+public class InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final int UNASSIGNED_CAPACITY = 1;
+
+    private final BookableUnitRepository unitRepository;
+    private final BookingRepository bookingRepository;
+    private final InventoryLockRepository lockRepository;
+    private final Tenants tenants;
+    private final Period horizon;
+    private final Duration resyncOverlap;
+
+    private final Map<String, TenantInventory> inventories = new ConcurrentHashMap<>();
+
+    public InventoryService(BookableUnitRepository unitRepository, BookingRepository bookingRepository,
+                            InventoryLockRepository lockRepository, Tenants tenants,
+                            @Value("${garden.bookings.horizon:P3Y}") Period horizon,
+                            @Value("${garden.inventory.resync-overlap:PT2M}") Duration resyncOverlap) {
+        this.unitRepository = unitRepository;
+        this.bookingRepository = bookingRepository;
+        this.lockRepository = lockRepository;
+        this.tenants = tenants;
+        this.horizon = horizon;
+        this.resyncOverlap = resyncOverlap;
+    }
+
+    @PostConstruct
+    void loadInventory() {
+        tenants.forEach(tenant -> {
+            createUnassignedLock(tenant);
+            TenantInventory inventory = new TenantInventory();
+            inventories.put(tenant, inventory);
+            int bookings = rebuild(inventory);
+            logger.info("Inventory of tenant {} initialised with {} units and {} bookings",
+                    tenant, inventory.units.size(), bookings);
+        });
+    }
+
+    // Brings in what other instances booked, cancelled or changed since the last read
+    @Scheduled(initialDelayString = "${garden.inventory.resync-interval:PT1M}",
+            fixedDelayString = "${garden.inventory.resync-interval:PT1M}")
+    public synchronized void resync() {
+        tenants.forEach(tenant -> {
+            TenantInventory inventory = inventories.get(tenant);
+            if (inventory != null) {
+                resync(inventory);
+            }
+        });
+    }
+
+    // Drops the bookings other instances deleted, which resync cannot see, and moves the calendars to today
+    @Scheduled(initialDelayString = "${garden.inventory.rebuild-interval:PT1H}",
+            fixedDelayString = "${garden.inventory.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        tenants.forEach(tenant -> {
+            TenantInventory inventory = inventories.get(tenant);
+            if (inventory != null) {
+                int bookings = rebuild(inventory);
+                logger.debug("Inventory of tenant {} rebuilt from {} bookings", tenant, bookings);
+            }
+        });
+    }
+
+    // Reads outside the monitor, so reservations are not held up by a large table
+    private int rebuild(TenantInventory inventory) {
+        LocalDateTime readAt = LocalDateTime.now();
+        inventory.startRead();
+        List<BookableUnit> units;
+        List<BookingSnapshot> snapshots;
+        try {
+            units = unitRepository.findAll();
+            snapshots = bookingRepository.findAllSnapshots();
+        } catch (RuntimeException e) {
+            inventory.abortRead();
+            throw e;
+        }
+        inventory.rebuild(units, snapshots, readAt);
+        return snapshots.size();
+    }
+
+    // Re-reads the last garden.inventory.resync-overlap as well: a row is stamped before its transaction
+    // commits, and instances' clocks differ. Rows already seen at the same version are skipped
+    private void resync(TenantInventory inventory) {
+        LocalDateTime readAt = LocalDateTime.now();
+        inventory.startRead();
+        List<BookableUnit> units;
+        List<BookingSnapshot> snapshots;
+        try {
+            units = unitRepository.findAll();
+            snapshots = bookingRepository.findSnapshotsUpdatedSince(inventory.readAt.minus(resyncOverlap));
+        } catch (RuntimeException e) {
+            inventory.abortRead();
+            throw e;
+        }
+        inventory.merge(units, snapshots, readAt);
+    }
+
+    private void createUnassignedLock(String tenant) {
+        String name = unassignedLock(tenant);
+        if (lockRepository.existsById(name)) {
+            return;
+        }
+        try {
+            lockRepository.save(new InventoryLock(name));
+        } catch (DataIntegrityViolationException e) {
+            // Created by another instance starting at the same time
+        }
+    }
+
+    private static String unassignedLock(String tenant) {
+        return tenant + "/unassigned";
+    }
+
+    // ---- Units
+
+    public List<BookableUnit> getAllUnits() {
+        return unitRepository.findAll();
+    }
+
+    public Optional<BookableUnit> getUnitById(Long id) {
+        return unitRepository.findById(id);
+    }
+
+    public BookableUnit createUnit(BookableUnit unit) {
+        BookableUnit saved = unitRepository.save(unit);
+        inventory().putUnit(saved);
+        return saved;
+    }
+
+    public Optional<BookableUnit> updateUnit(Long id, BookableUnit details) {
+        return unitRepository.findById(id).map(unit -> {
+            unit.setName(details.getName());
+            unit.setBookingType(details.getBookingType());
+            unit.setCapacity(details.getCapacity());
+            unit.setActive(details.getActive());
+            BookableUnit saved = unitRepository.save(unit);
+            inventory().putUnit(saved);
+            return saved;
+        });
+    }
+
+    // Units are only deactivated, never deleted, because bookings keep referencing them
+    public Optional<BookableUnit> deactivateUnit(Long id) {
+        return getUnitById(id).map(unit -> {
+            unit.setActive(false);
+            return updateUnit(id, unit).orElseThrow();
+        });
+    }
+
+    // ---- Reservations
+
+    /**
+     * Reserves the stay on {@code requiredUnitId}, or on the first unit of the booking type with room
+     * when no unit is requested. Returns the unit id, or null for booking types without units.
+     * Must run in the booking transaction, which holds the unit's lock until it ends.
+     *
+     * @throws IllegalArgumentException when the dates are not available
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Long reserve(String bookingType, Long requiredUnitId, LocalDate checkIn, LocalDate checkOut) {
+        TenantInventory inventory = inventory();
+        Reservation reservation = place(inventory, null, bookingType, requiredUnitId, null, checkIn, checkOut);
+        afterCompletion(() -> inventory.complete(reservation));
+        return reservation.unitId;
+    }
+
+    /**
+     * Moves an existing active booking to new dates/type, preferring its current unit. The booking's
+     * own days are not counted against it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Long move(BookingSnapshot before, String bookingType, Long requiredUnitId,
+                     LocalDate checkIn, LocalDate checkOut) {
+        TenantInventory inventory = inventory();
+        Reservation vacated = inventory.vacate(before);
+        Reservation reservation;
+        try {
+            reservation = place(inventory, before.id(), bookingType, requiredUnitId, before.unitId(), checkIn, checkOut);
+        } catch (RuntimeException e) {
+            inventory.complete(vacated);
+            throw e;
+        }
+        afterCompletion(() -> {
+            inventory.complete(reservation);
+            inventory.complete(vacated);
+        });
+        return reservation.unitId;
+    }
+
+    /**
+     * Picks a unit with the calendars, then has the database confirm it under the unit's lock. A unit the
+     * database finds full (another instance took it) is left out and the next candidate is tried. When no
+     * calendar has room, the first candidate is counted in the database without the lock before it is refused.
+     * The reservation's days are added as soon as a unit is picked, and removed again if it is refused.
+     */
+    private Reservation place(TenantInventory inventory, Long bookingId, String bookingType, Long requiredUnitId,
+                              Long preferredUnitId, LocalDate checkIn, LocalDate checkOut) {
+        Set<Long> refused = new HashSet<>();
+        while (true) {
+            Reservation reservation = inventory.place(bookingType, requiredUnitId, preferredUnitId, refused,
+                    checkIn, checkOut);
+            Long unitId = reservation.unitId;
+            // Outside the monitor: the lock may wait for another instance's transaction
+            boolean room = reservation.fits || hasRoomInDatabase(unitId, bookingId, checkIn, checkOut, false);
+            if (room && hasRoomInDatabase(unitId, bookingId, checkIn, checkOut, true)) {
+                if (!reservation.fits) {
+                    logger.info("Unit {} has room in the database for {} to {}, this instance's calendar was behind",
+                            unitId, checkIn, checkOut);
+                }
+                return reservation;
+            }
+            inventory.complete(reservation);
+            if (reservation.fits) {
+                logger.info("Unit {} is full in the database for {} to {}, this instance's calendar was behind",
+                        unitId, checkIn, checkOut);
+            }
+            if (unitId == null) {
+                throw new IllegalArgumentException("Selected dates overlap with existing bookings");
+            }
+            if (requiredUnitId != null) {
+                throw new IllegalArgumentException("Selected dates are not available for the selected unit");
+            }
+            refused.add(unitId);
+        }
+    }
+
+    // Counts the unit's (or the unassigned) bookings in the database. With lock, the unit's row (or the tenant's
+    // unassigned row) is locked first and stays locked until commit, which makes the answer final
+    private boolean hasRoomInDatabase(Long unitId, Long bookingId, LocalDate checkIn, LocalDate checkOut,
+                                      boolean lock) {
+        int capacity;
+        List<BookingSnapshot> overlapping;
+        if (unitId == null) {
+            if (lock) {
+                lockRepository.lockByName(unassignedLock(TenantContext.current()))
+                        .orElseThrow(() -> new IllegalStateException("Missing inventory lock for unassigned bookings"));
+            }
+            capacity = UNASSIGNED_CAPACITY;
+            overlapping = bookingRepository.findActiveUnassigned(checkIn, checkOut);
+        } else {
+            BookableUnit unit = (lock ? unitRepository.lockById(unitId) : unitRepository.findById(unitId)).orElse(null);
+            if (unit == null || !Boolean.TRUE.equals(unit.getActive())) {
+                return false;
+            }
+            capacity = unit.getCapacity();
+            overlapping = bookingRepository.findActiveOnUnit(unitId, checkIn, checkOut);
+        }
+        OccupancyCalendar occupancy = new OccupancyCalendar(checkIn, checkOut);
+        for (BookingSnapshot booking : overlapping) {
+            if (!booking.id().equals(bookingId)) {
+                occupancy.add(booking.checkInDate(), booking.checkOutDate(), 1);
+            }
+        }
+        return occupancy.maxOccupancy(checkIn, checkOut) < capacity;
+    }
+
+    // Every committed change, this instance's own reservations included (they gave their days back at commit)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBookingChanged(BookingChangedEvent event) {
+        inventory().apply(event);
+    }
+
+    // ---- Availability
+
+    /**
+     * Availability for one unit, for the units of a booking type (a day is available if any of them has
+     * room) or, without filters, for the whole property.
+     */
+    public List<AvailabilityRange> getAvailability(LocalDate from, LocalDate to, String bookingType, Long unitId) {
+        TenantInventory inventory = inventory();
+        if (unitId != null) {
+            UnitState unit = inventory.units.get(unitId);
+            if (unit == null) {
+                throw new IllegalArgumentException("Unknown unit: " + unitId);
+            }
+            return unit.calendar().ranges(from, to, unit.capacity());
+        }
+
+        BitSet available = new BitSet();
+        boolean typeHasUnits = false;
+        for (UnitState unit : inventory.units.values()) {
+            boolean matches = bookingType == null || unit.bookingType().equalsIgnoreCase(bookingType);
+            typeHasUnits |= matches;
+            if (matches && unit.active()) {
+                unit.calendar().markAvailable(from, to, unit.capacity(), available);
+            }
+        }
+        if (bookingType == null || !typeHasUnits) {
+            inventory.unassigned.markAvailable(from, to, UNASSIGNED_CAPACITY, available);
+        }
+        return OccupancyCalendar.toRanges(from, to, available);
+    }
+
+    private TenantInventory inventory() {
+        String tenant = TenantContext.current();
+        TenantInventory inventory = inventories.get(tenant);
+        if (inventory == null) {
+            throw new IllegalStateException("No inventory loaded for tenant " + tenant);
+        }
+        return inventory;
+    }
+
+    // Runs once the transaction has ended, committed or rolled back; at once without one
+    private void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * One tenant's units and calendars; everything that changes them synchronizes on the instance. The
+     * calendars count every booking of {@code bookings} that is not cancelled, plus the days of the pending
+     * reservations.
+     */
+    private final class TenantInventory {
+        volatile Map<Long, UnitState> units = new ConcurrentHashMap<>();
+        volatile OccupancyCalendar unassigned;
+        LocalDate origin;
+        // Committed bookings as last seen, by id. Those that ended before origin no longer count and are dropped
+        final Map<Long, BookingSnapshot> bookings = new HashMap<>();
+        // Days held by transactions of this instance that have not completed yet
+        final Set<Reservation> pending = new HashSet<>();
+        // When the last read of the bookings started, and the events committed during the current one
+        volatile LocalDateTime readAt;
+        BookingEventReplay replay;
+
+        TenantInventory() {
+            origin = LocalDate.now().minusDays(1);
+            unassigned = newCalendar();
+        }
+
+        synchronized void startRead() {
+            replay = new BookingEventReplay();
+        }
+
+        synchronized void abortRead() {
+            replay = null;
+        }
+
+        // Starts over from every unit and booking read, then adds the pending reservations back
+        synchronized void rebuild(List<BookableUnit> loadedUnits, List<BookingSnapshot> read, LocalDateTime readStart) {
+            origin = LocalDate.now().minusDays(1);
+            Map<Long, UnitState> rebuilt = new ConcurrentHashMap<>();
+            loadedUnits.forEach(unit -> rebuilt.put(unit.getId(), UnitState.of(unit, newCalendar())));
+            units = rebuilt;
+            unassigned = newCalendar();
+            bookings.clear();
+            read.forEach(this::put);
+            pending.forEach(reservation -> count(reservation, reservation.delta));
+            endRead(read, readStart);
+        }
+
+        // Adds the units and the rows written since the last read to the current calendars
+        synchronized void merge(List<BookableUnit> loadedUnits, List<BookingSnapshot> read, LocalDateTime readStart) {
+            loadedUnits.forEach(this::putUnit);
+            read.forEach(this::put);
+            endRead(read, readStart);
+        }
+
+        private void endRead(List<BookingSnapshot> read, LocalDateTime readStart) {
+            replay.replay(read, this::applyEvent);
+            replay = null;
+            readAt = readStart;
+        }
+
+        // A committed change: recorded for the read in progress, which may or may not include it
+        synchronized void apply(BookingChangedEvent event) {
+            if (replay != null) {
+                replay.record(event);
+            }
+            applyEvent(event);
+        }
+
+        private void applyEvent(BookingChangedEvent event) {
+            if (event.after() != null) {
+                put(event.after());
+            } else {
+                count(bookings.remove(event.bookingId()), -1);
+            }
+        }
+
+        // Moves the booking's days to its new state, unless the calendars already count that version or a later one
+        private void put(BookingSnapshot booking) {
+            BookingSnapshot known = bookings.get(booking.id());
+            if (known != null && version(known) >= version(booking)) {
+                return;
+            }
+            count(known, -1);
+            count(booking, 1);
+            if (booking.checkOutDate().isBefore(origin)) {
+                bookings.remove(booking.id());
+            } else {
+                bookings.put(booking.id(), booking);
+            }
+        }
+
+        private void count(BookingSnapshot booking, int delta) {
+            if (booking == null || booking.isCancelled()) {
+                return;
+            }
+            OccupancyCalendar calendar = calendarFor(booking.unitId());
+            if (calendar == null) {
+                logger.warn("Booking {} references unknown unit {}", booking.id(), booking.unitId());
+                return;
+            }
+            calendar.add(booking.checkInDate(), booking.checkOutDate(), delta);
+        }
+
+        private void count(Reservation reservation, int delta) {
+            OccupancyCalendar calendar = calendarFor(reservation.unitId);
+            if (calendar != null) {
+                calendar.add(reservation.checkIn, reservation.checkOut, delta);
+            }
+        }
+
+        // Keeps the unit's calendar: its existing bookings still occupy it
+        synchronized void putUnit(BookableUnit unit) {
+            units.compute(unit.getId(), (id, state) -> UnitState.of(unit,
+                    state != null ? state.calendar() : newCalendar()));
+        }
+
+        // Adds the days to the chosen calendar and holds them until complete() is called
+        synchronized Reservation place(String bookingType, Long requiredUnitId, Long preferredUnitId,
+                                       Set<Long> refused, LocalDate checkIn, LocalDate checkOut) {
+            return hold(pick(bookingType, requiredUnitId, preferredUnitId, refused, checkIn, checkOut));
+        }
+
+        // Frees a booking's days until complete() is called
+        synchronized Reservation vacate(BookingSnapshot booking) {
+            return hold(new Reservation(booking.unitId(), booking.checkInDate(), booking.checkOutDate(), -1, true));
+        }
+
+        private Reservation hold(Reservation reservation) {
+            pending.add(reservation);
+            count(reservation, reservation.delta);
+            return reservation;
+        }
+
+        // The reservation's transaction ended. Its days are given back either way: after a commit the booking's
+        // event counts them again
+        synchronized void complete(Reservation reservation) {
+            if (pending.remove(reservation)) {
+                count(reservation, -reservation.delta);
+            }
+        }
+
+        // The unit to reserve, with whether its calendar has room. When no calendar has room, the first candidate
+        // is returned anyway for the database to check
+        private Reservation pick(String bookingType, Long requiredUnitId, Long preferredUnitId, Set<Long> refused,
+                                 LocalDate checkIn, LocalDate checkOut) {
+            if (requiredUnitId != null) {
+                UnitState unit = units.get(requiredUnitId);
+                if (unit == null || !unit.active()) {
+                    throw new IllegalArgumentException("Unknown or inactive unit: " + requiredUnitId);
+                }
+                if (!unit.bookingType().equalsIgnoreCase(bookingType)) {
+                    throw new IllegalArgumentException("Unit " + unit.name() + " cannot be booked as " + bookingType);
+                }
+                return new Reservation(unit.id(), checkIn, checkOut, 1, unit.hasRoom(checkIn, checkOut));
+            }
+
+            List<UnitState> ofType = units.values().stream()
+                    .filter(unit -> unit.bookingType().equalsIgnoreCase(bookingType))
+                    .toList();
+            if (ofType.isEmpty()) {
+                return new Reservation(null, checkIn, checkOut, 1,
+                        unassigned.maxOccupancy(checkIn, checkOut) < UNASSIGNED_CAPACITY);
+            }
+
+            List<UnitState> candidates = ofType.stream()
+                    .filter(unit -> unit.active() && !refused.contains(unit.id()))
+                    .sorted(Comparator.comparing((UnitState unit) -> !unit.id().equals(preferredUnitId))
+                            .thenComparing(UnitState::id))
+                    .toList();
+            if (candidates.isEmpty()) {
+                throw new IllegalArgumentException("No " + bookingType + " available for the selected dates");
+            }
+            for (UnitState unit : candidates) {
+                if (unit.hasRoom(checkIn, checkOut)) {
+                    return new Reservation(unit.id(), checkIn, checkOut, 1, true);
+                }
+            }
+            return new Reservation(candidates.get(0).id(), checkIn, checkOut, 1, false);
+        }
+
+        OccupancyCalendar calendarFor(Long unitId) {
+            if (unitId == null) {
+                return unassigned;
+            }
+            UnitState unit = units.get(unitId);
+            return unit != null ? unit.calendar() : null;
+        }
+
+        private OccupancyCalendar newCalendar() {
+            return new OccupancyCalendar(origin, origin.plus(horizon));
+        }
+    }
+
+    // Rows from before the version column start at 0
+    private static long version(BookingSnapshot booking) {
+        return booking.version() == null ? 0 : booking.version();
+    }
+
+    // Days held (delta 1) or freed (delta -1) by a transaction in flight. Identity, not value: two requests can
+    // reserve the same days on the same unit. fits tells whether the calendar had room when the unit was picked
+    private static final class Reservation {
+        final Long unitId;
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+        final int delta;
+        final boolean fits;
+
+        Reservation(Long unitId, LocalDate checkIn, LocalDate checkOut, int delta, boolean fits) {
+            this.unitId = unitId;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.delta = delta;
+            this.fits = fits;
+        }
+    }
+
+    private record UnitState(Long id, String name, String bookingType, int capacity, boolean active,
+                             OccupancyCalendar calendar) {
+
+        static UnitState of(BookableUnit unit, OccupancyCalendar calendar) {
+            return new UnitState(unit.getId(), unit.getName(), unit.getBookingType(), unit.getCapacity(),
+                    Boolean.TRUE.equals(unit.getActive()), calendar);
+        }
+
+        boolean hasRoom(LocalDate checkIn, LocalDate checkOut) {
+            return calendar.maxOccupancy(checkIn, checkOut) < capacity;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Number of active bookings per day, stored as a flat int array indexed by days since {@code origin}.
+ * Only the days from {@code origin} to {@code lastDay} are tracked: earlier days are in the past, later
+ * ones are past the horizon and read as free (4 bytes per day, about 1.5 KB per year). The array grows
+ * on demand up to {@code lastDay}, so a booking ending in a distant year costs no more than one ending
+ * at the horizon.
+ */
+public class OccupancyCalendar {
+
+    private static final int INITIAL_DAYS = 512;
+
+    private final long originEpochDay;
+    private final int lastIndex;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] counts;
+
+    public OccupancyCalendar(LocalDate origin, LocalDate lastDay) {
+        if (lastDay.isBefore(origin)) {
+            throw new IllegalArgumentException("The last day of a calendar cannot be before its origin");
+        }
+        this.originEpochDay = origin.toEpochDay();
+        this.lastIndex = index(lastDay);
+        this.counts = new int[Math.min(INITIAL_DAYS, lastIndex + 1)];
+    }
+
+    // firstDay and lastDay are both inclusive
+    public void add(LocalDate firstDay, LocalDate lastDay, int delta) {
+        // Clamped as longs: a date in a distant year only lands past the horizon
+        long first = firstDay.toEpochDay() - originEpochDay;
+        long last = Math.min(lastDay.toEpochDay() - originEpochDay, lastIndex);
+        if (last < 0 || last < first) {
+            return;
+        }
+        int start = (int) Math.max(first, 0);
+        int end = (int) last;
+
+        lock.writeLock().lock();
+        try {
+            if (end >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.min(Math.max(end + 1, counts.length * 2), lastIndex + 1));
+            }
+            for (int day = start; day <= end; day++) {
+                counts[day] += delta;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int occupancy(LocalDate day) {
+        int index = index(day);
+        lock.readLock().lock();
+        try {
+            return index >= 0 && index < counts.length ? counts[index] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int maxOccupancy(LocalDate firstDay, LocalDate lastDay) {
+        int start = Math.max(index(firstDay), 0);
+        int end = index(lastDay);
+        int max = 0;
+        lock.readLock().lock();
+        try {
+            for (int day = start; day <= end && day < counts.length; day++) {
+                max = Math.max(max, counts[day]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return max;
+    }
+
+    /**
+     * Run-length encodes [from, to] into ranges of days that are available (occupancy below capacity)
+     * or not, in a single pass over the array.
+     */
+    public List<AvailabilityRange> ranges(LocalDate from, LocalDate to, int capacity) {
+        List<AvailabilityRange> ranges = new ArrayList<>();
+        int start = index(from);
+        int end = index(to);
+
+        lock.readLock().lock();
+        try {
+            int runStart = start;
+            boolean runAvailable = countAt(start) < capacity;
+            for (int day = start + 1; day <= end; day++) {
+                boolean available = countAt(day) < capacity;
+                if (available != runAvailable) {
+                    ranges.add(new AvailabilityRange(date(runStart), date(day - 1), runAvailable));
+                    runStart = day;
+                    runAvailable = available;
+                }
+            }
+            ranges.add(new AvailabilityRange(date(runStart), date(end), runAvailable));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ranges;
+    }
+
+    /**
+     * Sets bit {@code i} of {@code available} when day {@code from + i} still has room for a booking.
+     * Used to combine several units: a day is available if any of them has room.
+     */
+    public void markAvailable(LocalDate from, LocalDate to, int capacity, BitSet available) {
+        int start = index(from);
+        int end = index(to);
+        lock.readLock().lock();
+        try {
+            for (int day = start; day <= end; day++) {
+                if (countAt(day) < capacity) {
+                    available.set(day - start);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Run-length encodes a bitset produced by markAvailable
+    public static List<AvailabilityRange> toRanges(LocalDate from, LocalDate to, BitSet available) {
+        List<AvailabilityRange> ranges = new ArrayList<>();
+        int days = Math.toIntExact(to.toEpochDay() - from.toEpochDay()) + 1;
+        int runStart = 0;
+        while (runStart < days) {
+            boolean runAvailable = available.get(runStart);
+            int next = runAvailable ? available.nextClearBit(runStart) : available.nextSetBit(runStart);
+            int runEnd = (next < 0 || next > days ? days : next) - 1;
+            ranges.add(new AvailabilityRange(from.plusDays(runStart), from.plusDays(runEnd), runAvailable));
+            runStart = runEnd + 1;
+        }
+        return ranges;
+    }
+
+    private int countAt(int index) {
+        return index >= 0 && index < counts.length ? counts[index] : 0;
+    }
+
+    private int index(LocalDate day) {
+        return Math.toIntExact(day.toEpochDay() - originEpochDay);
+    }
+
+    private LocalDate date(int index) {
+        return LocalDate.ofEpochDay(originEpochDay + index);
+    }
+}
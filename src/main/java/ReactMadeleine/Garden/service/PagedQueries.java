@@ -0,0 +1,54 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.PageResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a listing query in the {@link PagingMode} the client asked for. Callers pass the same query
+ * in its {@link Slice} form (no COUNT) and {@link Page} form, plus a COUNT for approximate totals.
+ */
+@Service
+public class PagedQueries {
+
+    private final ApproximateCounts approximateCounts;
+
+    public PagedQueries(ApproximateCounts approximateCounts) {
+        this.approximateCounts = approximateCounts;
+    }
+
+    public <T> PageResponse<T> fetch(PagingMode mode, Pageable pageable, String countKey,
+                                     Function<Pageable, ? extends Slice<T>> sliceQuery,
+                                     Function<Pageable, ? extends Page<T>> pageQuery,
+                                     LongSupplier count) {
+        return switch (mode) {
+            case EXACT -> exact(pageQuery.apply(pageable));
+            case NONE -> withoutTotal(sliceQuery.apply(pageable));
+            case APPROXIMATE -> approximate(sliceQuery.apply(pageable), approximateCounts.get(countKey, count));
+        };
+    }
+
+    public static <T> PageResponse<T> exact(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.hasNext(),
+                page.getTotalElements(), page.getTotalPages(), null);
+    }
+
+    public static <T> PageResponse<T> withoutTotal(Slice<T> slice) {
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(),
+                null, null, null);
+    }
+
+    public static <T> PageResponse<T> approximate(Slice<T> slice, long total) {
+        // Never report fewer rows than this page proves exist
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        long estimate = Math.max(total, seen);
+        int totalPages = slice.getSize() == 0 ? 1 : (int) ((estimate + slice.getSize() - 1) / slice.getSize());
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(),
+                estimate, totalPages, true);
+    }
+}
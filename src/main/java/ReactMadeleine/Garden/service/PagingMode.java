@@ -0,0 +1,26 @@
+package ReactMadeleine.Garden.service;
+
+import java.util.Locale;
+
+/**
+ * How a paginated listing reports its total, chosen per request with the {@code total} parameter.
+ */
+public enum PagingMode {
+    /** Runs a COUNT query next to the page query. */
+    EXACT,
+    /** Reads one row past the page to set {@code hasNext}; no COUNT query. */
+    NONE,
+    /** Like {@link #NONE}, plus a cached count refreshed in the background. */
+    APPROXIMATE;
+
+    public static PagingMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid total mode: " + value + " (expected exact, none or approximate)");
+        }
+    }
+}
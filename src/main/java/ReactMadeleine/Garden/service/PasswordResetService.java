@@ -0,0 +1,247 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.PasswordResetToken;
+import ReactMadeleine.Garden.model.User;
+import ReactMadeleine.Garden.repository.PasswordResetTokenRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Password reset codes, stored in {@code password_reset_tokens}, which every instance reads: a code issued
+ * by one instance is checked by whichever instance gets the reset request.
+ * <p>
+ * Codes come from {@link SecureRandom} and only their HMAC is stored. A code is compared in constant time
+ * and invalidated after {@code garden.reset-tokens.max-attempts} wrong guesses. Attempts are counted by the
+ * database with one conditional UPDATE, so the budget is the same however many instances take guesses.
+ * A guess for an address without a live code runs the same lookup, HMAC, UPDATE and DELETE as a wrong guess
+ * for a real one, so the response time does not tell them apart.
+ * <p>
+ * Requesting a code answers the same way whether or not the address has an account: the lookup, the write
+ * and the email happen on a virtual thread after the response. Repeated requests for one address within
+ * {@code garden.reset-tokens.resend-interval} are ignored, by this instance without touching the database,
+ * and by the others because the live code is that recent.
+ * <p>
+ * Codes are kept per tenant: the same address can have an account, and a live code, in several of them.
+ */
+@Service
+public class PasswordResetService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordResetService.class);
+
+    private static final int CODE_DIGITS = 6;
+    private static final int CODE_BOUND = 1_000_000;
+    // Stands in for the user of an address without a live code
+    private static final long NO_USER = -1;
+
+    private final UserRepository userRepository;
+    private final PasswordResetTokenRepository tokenRepository;
+    private final EmailService emailService;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+    private final ExecutorService requests = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("password-reset-", 0).factory());
+
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final Duration resendInterval;
+    private final int maxEntries;
+    private final SecretKeySpec hmacKey;
+    // Compared against when there is no live code, so that path does the same work
+    private final byte[] decoyHash = new byte[32];
+
+    // Keyed by tenant and normalized email
+    private final Map<String, Long> recentRequests = new ConcurrentHashMap<>();
+
+    public PasswordResetService(UserRepository userRepository,
+                                PasswordResetTokenRepository tokenRepository,
+                                @Lazy EmailService emailService,
+                                PasswordEncoder passwordEncoder,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${garden.reset-tokens.ttl:PT1H}") Duration ttl,
+                                @Value("${garden.reset-tokens.max-attempts:5}") int maxAttempts,
+                                @Value("${garden.reset-tokens.resend-interval:PT1M}") Duration resendInterval,
+                                @Value("${garden.reset-tokens.max-entries:10000}") int maxEntries,
+                                @Value("${garden.reset-tokens.secret:}") String secret) {
+        this(userRepository, tokenRepository, emailService, passwordEncoder, transactionTemplate,
+                Clock.systemDefaultZone(), ttl, maxAttempts, resendInterval, maxEntries, secret);
+    }
+
+    PasswordResetService(UserRepository userRepository,
+                         PasswordResetTokenRepository tokenRepository,
+                         EmailService emailService,
+                         PasswordEncoder passwordEncoder,
+                         TransactionTemplate transactionTemplate,
+                         Clock clock,
+                         Duration ttl,
+                         int maxAttempts,
+                         Duration resendInterval,
+                         int maxEntries,
+                         String secret) {
+        if (maxAttempts < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("garden.reset-tokens.max-attempts and max-entries must be positive");
+        }
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.emailService = emailService;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+        this.resendInterval = resendInterval;
+        this.maxEntries = maxEntries;
+        // Without a configured secret, codes only verify on the instance that issued them, until it restarts
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (secret.isBlank()) {
+            logger.warn("garden.reset-tokens.secret is not set: reset codes only verify on the instance that sent them");
+            key = new byte[32];
+            random.nextBytes(key);
+        }
+        this.hmacKey = new SecretKeySpec(key, "HmacSHA256");
+        random.nextBytes(decoyHash);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        requests.shutdown();
+    }
+
+    /**
+     * Emails a new code to {@code email} if it belongs to an account. Returns before anything is looked up.
+     */
+    public void requestReset(String email) {
+        String normalized = normalize(email);
+        String key = TenantContext.current() + "/" + normalized;
+        long now = System.nanoTime();
+        Long last = recentRequests.get(key);
+        if (last != null && now - last < resendInterval.toNanos()) {
+            return;
+        }
+        if (recentRequests.size() >= maxEntries) {
+            // Only throttles resends; start over rather than track recency
+            recentRequests.clear();
+        }
+        recentRequests.put(key, now);
+        requests.execute(TenantContext.wrap(() -> {
+            try {
+                userRepository.findByEmail(email.trim()).ifPresent(user -> issue(normalized, user));
+            } catch (RuntimeException e) {
+                logger.error("Could not send password reset code", e);
+            }
+        }));
+    }
+
+    /**
+     * Sets a new password if {@code code} is the live code for {@code email}. Unknown addresses, wrong,
+     * expired and exhausted codes all return false.
+     */
+    public boolean resetPassword(String email, String code, String newPassword) {
+        if (email == null || code == null) {
+            return false;
+        }
+        String normalized = normalize(email);
+        Optional<PasswordResetToken> token = tokenRepository.findByEmail(normalized);
+        boolean live = token.isPresent() && token.get().getExpiresAt().isAfter(LocalDateTime.now(clock));
+        byte[] expected = token.map(t -> HexFormat.of().parseHex(t.getTokenHash())).orElse(decoyHash);
+        byte[] candidate = hmac(token.map(PasswordResetToken::getUserId).orElse(NO_USER), code.trim());
+        boolean matches = MessageDigest.isEqual(expected, candidate) & live;
+
+        // Every guess takes one of the code's attempts, or fails when none is left (or there is no code)
+        boolean counted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean attempt = tokenRepository.countAttempt(normalized, maxAttempts) == 1;
+            if (!matches && tokenRepository.deleteExhausted(normalized, maxAttempts) == 1) {
+                logger.warn("Password reset code for user {} invalidated after {} wrong attempts",
+                        token.map(PasswordResetToken::getUserId).orElse(null), maxAttempts);
+            }
+            return attempt;
+        }));
+        if (!matches || !counted) {
+            return false;
+        }
+
+        PasswordResetToken used = token.get();
+        String encoded = passwordEncoder.encode(newPassword);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // Only one instance can delete the row, so a code resets the password once
+            if (tokenRepository.consume(used.getId(), used.getTokenHash()) == 0) {
+                return false;
+            }
+            userRepository.updatePassword(used.getUserId(), encoded, LocalDateTime.now(clock));
+            return true;
+        }));
+    }
+
+    private void issue(String email, User user) {
+        String code = String.format("%0" + CODE_DIGITS + "d", random.nextInt(CODE_BOUND));
+        byte[] hash = hmac(user.getId(), code);
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expiresAt = now.plus(ttl);
+        boolean issued = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            // A code this recent was sent by another instance: same throttle as requestReset
+            Optional<PasswordResetToken> previous = tokenRepository.findByEmail(email);
+            if (previous.isPresent() && previous.get().getExpiresAt().minus(ttl).plus(resendInterval).isAfter(now)) {
+                return false;
+            }
+            tokenRepository.deleteByUserId(user.getId());
+            tokenRepository.flush();
+            tokenRepository.save(new PasswordResetToken(null, user.getId(), email,
+                    HexFormat.of().formatHex(hash), 0, expiresAt, null));
+            return true;
+        }));
+        if (!issued) {
+            return;
+        }
+
+        String subject = "Password Reset Request";
+        String body = "Dear " + user.getUsername() + ",\n\n"
+                + "You have requested to reset your password. Please use the following code to reset your password:\n\n"
+                + code + "\n\n"
+                + "This code will expire in " + ttl.toMinutes() + " minutes.\n\n"
+                + "If you did not request a password reset, please ignore this email.\n\n"
+                + "Best regards,\nThe MadeleineGarden Team";
+        emailService.sendEmail(user.getEmail(), subject, body);
+    }
+
+    // Bound to the user, so a code cannot be replayed against another account
+    private byte[] hmac(Long userId, String code) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(hmacKey);
+            mac.update(Long.toString(userId).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(code.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
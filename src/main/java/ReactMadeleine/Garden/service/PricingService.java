@@ -0,0 +1,151 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.RateTable;
+import ReactMadeleine.Garden.model.StayDiscount;
+import ReactMadeleine.Garden.repository.RateTableRepository;
+import ReactMadeleine.Garden.repository.StayDiscountRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side pricing. Quotes are computed from an immutable PricingSnapshot; admin edits write to the
+ * database and then atomically swap in a freshly built snapshot, so quoting never waits on a lock or
+ * the database. Every instance also rebuilds its snapshots every {@code garden.pricing.reload-interval},
+ * so edits made through another instance apply here within that interval.
+ * <p>
+ * Rates and discounts belong to a tenant: each tenant has its own snapshot, and an admin only reads and
+ * edits the rows of the tenant the request is for.
+ */
+@Service
+public class PricingService {
+
+    private final RateTableRepository rateTableRepository;
+    private final StayDiscountRepository stayDiscountRepository;
+    private final Tenants tenants;
+    private final int maxStayNights;
+    private final Map<String, PricingSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public PricingService(RateTableRepository rateTableRepository, StayDiscountRepository stayDiscountRepository,
+                          Tenants tenants, @Value("${garden.bookings.max-stay-nights:365}") int maxStayNights) {
+        this.rateTableRepository = rateTableRepository;
+        this.stayDiscountRepository = stayDiscountRepository;
+        this.tenants = tenants;
+        this.maxStayNights = maxStayNights;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${garden.pricing.reload-interval:PT30S}",
+            fixedDelayString = "${garden.pricing.reload-interval:PT30S}")
+    public synchronized void reload() {
+        tenants.forEach(this::reload);
+    }
+
+    // Rebuilds the snapshot of the current tenant, whose rows the repositories return
+    private void reload(String tenant) {
+        snapshots.put(tenant, PricingSnapshot.build(rateTableRepository.findAll(), stayDiscountRepository.findAll()));
+    }
+
+    /**
+     * Price of the stay, or empty when the booking type has no rate table (the client-supplied price is kept).
+     * Quoting walks every night, so stays longer than a booking may be are refused.
+     */
+    public Optional<BigDecimal> quote(String bookingType, LocalDate checkIn, LocalDate checkOut) {
+        if (checkOut.toEpochDay() - checkIn.toEpochDay() > maxStayNights) {
+            throw new IllegalArgumentException("A stay cannot be longer than " + maxStayNights + " nights");
+        }
+        return snapshots.getOrDefault(TenantContext.current(), PricingSnapshot.empty())
+                .quote(bookingType, checkIn, checkOut);
+    }
+
+    // ---- Rate tables
+
+    public List<RateTable> getAllRates() {
+        return rateTableRepository.findAll();
+    }
+
+    public RateTable createRate(RateTable rate) {
+        rate.setId(null);
+        return saveRate(rate);
+    }
+
+    public Optional<RateTable> updateRate(Long id, RateTable rate) {
+        if (!rateTableRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        rate.setId(id);
+        return Optional.of(saveRate(rate));
+    }
+
+    private synchronized RateTable saveRate(RateTable rate) {
+        // Build first so an invalid season (e.g. 30 February) is rejected before it is stored
+        List<RateTable> rates = new ArrayList<>(rateTableRepository.findAll());
+        rates.removeIf(existing -> existing.getId().equals(rate.getId()));
+        rates.add(rate);
+        PricingSnapshot.build(rates, stayDiscountRepository.findAll());
+
+        RateTable saved = rateTableRepository.save(rate);
+        reload(TenantContext.current());
+        return saved;
+    }
+
+    public synchronized boolean deleteRate(Long id) {
+        if (!rateTableRepository.existsById(id)) {
+            return false;
+        }
+        rateTableRepository.deleteById(id);
+        reload(TenantContext.current());
+        return true;
+    }
+
+    // ---- Length-of-stay discounts
+
+    public List<StayDiscount> getAllDiscounts() {
+        return stayDiscountRepository.findAll();
+    }
+
+    public StayDiscount createDiscount(StayDiscount discount) {
+        discount.setId(null);
+        return saveDiscount(discount);
+    }
+
+    public Optional<StayDiscount> updateDiscount(Long id, StayDiscount discount) {
+        if (!stayDiscountRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        discount.setId(id);
+        return Optional.of(saveDiscount(discount));
+    }
+
+    private synchronized StayDiscount saveDiscount(StayDiscount discount) {
+        // Same check as saveRate: the snapshot it would produce must build
+        List<StayDiscount> discounts = new ArrayList<>(stayDiscountRepository.findAll());
+        discounts.removeIf(existing -> existing.getId().equals(discount.getId()));
+        discounts.add(discount);
+        PricingSnapshot.build(rateTableRepository.findAll(), discounts);
+
+        StayDiscount saved = stayDiscountRepository.save(discount);
+        reload(TenantContext.current());
+        return saved;
+    }
+
+    public synchronized boolean deleteDiscount(Long id) {
+        if (!stayDiscountRepository.existsById(id)) {
+            return false;
+        }
+        stayDiscountRepository.deleteById(id);
+        reload(TenantContext.current());
+        return true;
+    }
+}
@@ -0,0 +1,170 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.RateTable;
+import ReactMadeleine.Garden.model.StayDiscount;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.Year;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable, pre-expanded view of the rate tables: for every booking type, the weekday and weekend
+ * rate of each day of the year (in cents) plus its length-of-stay discounts. Quoting a stay walks the
+ * nights with plain index arithmetic, without allocating or touching the database.
+ */
+public final class PricingSnapshot {
+
+    private static final int DAYS_IN_LEAP_YEAR = 366;
+    private static final int[] MONTH_OFFSETS = {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335};
+    private static final int FEBRUARY_28 = 58;
+    private static final int FEBRUARY_29 = 59;
+    private static final long NO_RATE = -1;
+
+    private static final PricingSnapshot EMPTY = new PricingSnapshot(Map.of());
+
+    private final Map<String, TypeRates> ratesByType;
+
+    private PricingSnapshot(Map<String, TypeRates> ratesByType) {
+        this.ratesByType = ratesByType;
+    }
+
+    public static PricingSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static PricingSnapshot build(List<RateTable> rateTables, List<StayDiscount> discounts) {
+        Map<String, TypeRates> ratesByType = new HashMap<>();
+        rateTables.stream()
+                .sorted(Comparator.comparing(RateTable::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(rate -> ratesByType
+                        .computeIfAbsent(key(rate.getBookingType()), type -> new TypeRates())
+                        .apply(rate));
+
+        ratesByType.forEach((type, rates) -> {
+            rates.fillLeapDay();
+            List<StayDiscount> applicable = discounts.stream()
+                    .filter(discount -> discount.getBookingType() == null || key(discount.getBookingType()).equals(type))
+                    .sorted(Comparator.comparing(StayDiscount::getMinNights).reversed()
+                            .thenComparing(StayDiscount::getDiscountPercent, Comparator.reverseOrder()))
+                    .toList();
+            rates.discountMinNights = applicable.stream().mapToInt(StayDiscount::getMinNights).toArray();
+            rates.discountBasisPoints = applicable.stream()
+                    .mapToInt(discount -> discount.getDiscountPercent().movePointRight(2).intValue())
+                    .toArray();
+        });
+        return new PricingSnapshot(Map.copyOf(ratesByType));
+    }
+
+    public boolean hasRates(String bookingType) {
+        return bookingType != null && ratesByType.containsKey(key(bookingType));
+    }
+
+    /**
+     * Price of the stay, or empty when the booking type has no rate table. A same-day booking is charged
+     * as one night.
+     *
+     * @throws IllegalArgumentException when a night of the stay is not covered by any season
+     */
+    public Optional<BigDecimal> quote(String bookingType, LocalDate checkIn, LocalDate checkOut) {
+        TypeRates rates = bookingType == null ? null : ratesByType.get(key(bookingType));
+        if (rates == null) {
+            return Optional.empty();
+        }
+        return Optional.of(BigDecimal.valueOf(rates.quoteCents(bookingType, checkIn, checkOut), 2));
+    }
+
+    private static String key(String bookingType) {
+        return bookingType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int dayIndex(int month, int dayOfMonth) {
+        return MONTH_OFFSETS[month - 1] + dayOfMonth - 1;
+    }
+
+    private static final class TypeRates {
+        private final long[] weekdayCents = new long[DAYS_IN_LEAP_YEAR];
+        private final long[] weekendCents = new long[DAYS_IN_LEAP_YEAR];
+        private int[] discountMinNights = new int[0];
+        private int[] discountBasisPoints = new int[0];
+
+        private TypeRates() {
+            Arrays.fill(weekdayCents, NO_RATE);
+            Arrays.fill(weekendCents, NO_RATE);
+        }
+
+        private void apply(RateTable rate) {
+            // MonthDay.of rejects impossible dates such as 30 February
+            MonthDay start = MonthDay.of(rate.getStartMonth(), rate.getStartDay());
+            MonthDay end = MonthDay.of(rate.getEndMonth(), rate.getEndDay());
+            long weekday = rate.getWeekdayRate().movePointRight(2).longValue();
+            long weekend = rate.getWeekendRate().movePointRight(2).longValue();
+
+            int index = dayIndex(start.getMonthValue(), start.getDayOfMonth());
+            int last = dayIndex(end.getMonthValue(), end.getDayOfMonth());
+            while (true) {
+                weekdayCents[index] = weekday;
+                weekendCents[index] = weekend;
+                if (index == last) {
+                    break;
+                }
+                index = (index + 1) % DAYS_IN_LEAP_YEAR;
+            }
+        }
+
+        // A season ending on 28 February should also cover the 29th in leap years
+        private void fillLeapDay() {
+            if (weekdayCents[FEBRUARY_29] == NO_RATE) {
+                weekdayCents[FEBRUARY_29] = weekdayCents[FEBRUARY_28];
+                weekendCents[FEBRUARY_29] = weekendCents[FEBRUARY_28];
+            }
+        }
+
+        private long quoteCents(String bookingType, LocalDate checkIn, LocalDate checkOut) {
+            long nights = Math.max(1, checkOut.toEpochDay() - checkIn.toEpochDay());
+
+            int year = checkIn.getYear();
+            boolean leapYear = Year.isLeap(year);
+            int index = dayIndex(checkIn.getMonthValue(), checkIn.getDayOfMonth());
+            int dayOfWeek = checkIn.getDayOfWeek().getValue();
+
+            long totalCents = 0;
+            for (long night = 0; night < nights; night++) {
+                boolean weekendNight = dayOfWeek == DayOfWeek.FRIDAY.getValue() || dayOfWeek == DayOfWeek.SATURDAY.getValue();
+                long rate = weekendNight ? weekendCents[index] : weekdayCents[index];
+                if (rate == NO_RATE) {
+                    throw new IllegalArgumentException("No " + bookingType + " rate configured for "
+                            + checkIn.plusDays(night));
+                }
+                totalCents += rate;
+
+                dayOfWeek = dayOfWeek == 7 ? 1 : dayOfWeek + 1;
+                index++;
+                if (index == FEBRUARY_29 && !leapYear) {
+                    index++;
+                }
+                if (index == DAYS_IN_LEAP_YEAR) {
+                    index = 0;
+                    year++;
+                    leapYear = Year.isLeap(year);
+                }
+            }
+
+            for (int i = 0; i < discountMinNights.length; i++) {
+                if (nights >= discountMinNights[i]) {
+                    long remainingBasisPoints = 10_000L - discountBasisPoints[i];
+                    return (totalCents * remainingBasisPoints + 5_000) / 10_000;
+                }
+            }
+            return totalCents;
+        }
+    }
+}
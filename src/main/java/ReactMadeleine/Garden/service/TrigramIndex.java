@@ -0,0 +1,138 @@
+package ReactMadeleine.Garden.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive substring index: each document (an id and a few text values) is posted under every
+ * three-character sequence of its values. A search intersects the posting sets of the term's trigrams,
+ * smallest first, then checks the few remaining candidates with {@code contains}. Terms shorter than three
+ * characters have no trigram and fall back to checking every document.
+ */
+final class TrigramIndex {
+
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(long id, String... values) {
+        String[] normalized = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            normalized[i] = values[i] == null ? "" : values[i].toLowerCase(Locale.ROOT);
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, normalized);
+            for (String value : normalized) {
+                for (String trigram : trigrams(value)) {
+                    postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids, in ascending order, of the documents with a value containing {@code term}.
+     */
+    TreeSet<Long> search(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> matches = new TreeSet<>();
+            for (Long id : candidates(needle)) {
+                if (containsIn(documents.get(id), needle)) {
+                    matches.add(id);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Iterable<Long> candidates(String needle) {
+        Set<String> trigrams = trigrams(needle);
+        if (trigrams.isEmpty()) {
+            return documents.keySet();
+        }
+        List<Set<Long>> sets = new ArrayList<>(trigrams.size());
+        for (String trigram : trigrams) {
+            Set<Long> posting = postings.get(trigram);
+            if (posting == null) {
+                return Set.of();
+            }
+            sets.add(posting);
+        }
+        sets.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        Set<Long> result = new HashSet<>(sets.get(0));
+        for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+            result.retainAll(sets.get(i));
+        }
+        return result;
+    }
+
+    private void removeLocked(long id) {
+        String[] previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String value : previous) {
+            for (String trigram : trigrams(value)) {
+                Set<Long> posting = postings.get(trigram);
+                if (posting != null && posting.remove(id) && posting.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static boolean containsIn(String[] values, String needle) {
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (value.contains(needle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,56 @@
+package ReactMadeleine.Garden.tenancy;
+
+/**
+ * Tenant (property) the current thread works for. Set by {@link TenantFilter} for requests and by
+ * {@link Tenants#forEach} and the maintenance jobs outside requests; Hibernate reads it through
+ * {@link TenantIdentifierResolver} when a session opens.
+ * <p>
+ * Work handed to another thread must capture the tenant with {@link #wrap(Runnable)}.
+ */
+public final class TenantContext {
+
+    // Rows written before tenancy existed belong to this tenant
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    /**
+     * Makes {@code tenant} current until the returned scope is closed, then restores the previous one.
+     */
+    public static Scope use(String tenant) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public static void runAs(String tenant, Runnable action) {
+        try (Scope ignored = use(tenant)) {
+            action.run();
+        }
+    }
+
+    // Runs action for the tenant current at the time of the call, whatever thread executes it
+    public static Runnable wrap(Runnable action) {
+        String tenant = current();
+        return () -> runAs(tenant, action);
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
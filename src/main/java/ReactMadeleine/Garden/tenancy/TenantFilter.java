@@ -0,0 +1,84 @@
+package ReactMadeleine.Garden.tenancy;
+
+import ReactMadeleine.Garden.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the tenant of each request from the {@code garden.tenancy.header} header (the default tenant
+ * when absent) before Spring Security runs, so authentication itself is tenant-qualified. Unknown tenants
+ * get a 400 (with the CORS headers, for the browser to read it). The tenant is also put in the MDC and,
+ * since the same URL answers differently per tenant, the header is added to {@code Vary}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String MDC_KEY = "tenant";
+
+    private final Tenants tenants;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final ObjectMapper objectMapper;
+    private final String header;
+    private final DefaultCorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    public TenantFilter(Tenants tenants,
+                        // By name: MVC's HandlerMappingIntrospector is a CorsConfigurationSource too
+                        @Qualifier("corsConfigurationSource") CorsConfigurationSource corsConfigurationSource,
+                        ObjectMapper objectMapper,
+                        @Value("${garden.tenancy.header:X-Tenant-Id}") String header) {
+        this.tenants = tenants;
+        this.corsConfigurationSource = corsConfigurationSource;
+        this.objectMapper = objectMapper;
+        this.header = header;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String value = request.getHeader(header);
+        String tenant = value == null || value.isBlank() ? TenantContext.DEFAULT_TENANT : value.trim();
+        if (!tenants.isKnown(tenant)) {
+            reject(request, response);
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, header);
+        MDC.put(MDC_KEY, tenant);
+        try (TenantContext.Scope ignored = TenantContext.use(tenant)) {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    // Written before CorsFilter runs: the CORS headers are added here, for the browser to read the error
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CorsConfiguration cors = corsConfigurationSource.getCorsConfiguration(request);
+        if (cors != null) {
+            corsProcessor.processRequest(cors, request, response);
+        }
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(status.getReasonPhrase(), "Unknown tenant", status.value()));
+    }
+}
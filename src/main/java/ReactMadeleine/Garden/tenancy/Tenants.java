@@ -0,0 +1,51 @@
+package ReactMadeleine.Garden.tenancy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * The properties hosted by this deployment ({@code garden.tenancy.tenants}). Requests for any other
+ * tenant are rejected by {@link TenantFilter}, so per-tenant state can be built eagerly at startup
+ * instead of on a first request that could race with writes.
+ */
+@Component
+public class Tenants {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,31}");
+
+    private final Set<String> ids;
+
+    public Tenants(@Value("${garden.tenancy.tenants:" + TenantContext.DEFAULT_TENANT + "}") List<String> ids) {
+        for (String id : ids) {
+            if (!TENANT_ID.matcher(id).matches()) {
+                throw new IllegalArgumentException("Invalid tenant id in garden.tenancy.tenants: '" + id + "'");
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("garden.tenancy.tenants must list at least one tenant");
+        }
+        this.ids = Collections.unmodifiableSet(new LinkedHashSet<>(ids));
+    }
+
+    public Set<String> ids() {
+        return ids;
+    }
+
+    public boolean isKnown(String tenant) {
+        return tenant != null && ids.contains(tenant);
+    }
+
+    // Runs action once per tenant, with that tenant current
+    public void forEach(Consumer<String> action) {
+        for (String tenant : ids) {
+            TenantContext.runAs(tenant, () -> action.accept(tenant));
+        }
+    }
+}
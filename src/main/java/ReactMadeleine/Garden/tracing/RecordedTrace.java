@@ -0,0 +1,27 @@
+package ReactMadeleine.Garden.tracing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a finished trace, kept in the slow-trace buffer and returned by the admin endpoint.
+ */
+public record RecordedTrace(
+        String requestId,
+        Instant startedAt,
+        double durationMs,
+        Span root
+) {
+
+    public record Span(
+            String name,
+            double offsetMs,
+            double durationMs,
+            Map<String, String> tags,
+            String error,
+            int droppedChildren,
+            List<Span> children
+    ) {
+    }
+}
@@ -0,0 +1,165 @@
+package ReactMadeleine.Garden.tracing;
+
+import ReactMadeleine.Garden.config.RequestIdFilter;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local "exporter" for Micrometer observations. Every observation becomes a span linked to its
+ * parent observation; when a root observation (normally http.server.requests) finishes slower
+ * than the configured threshold, the whole span tree is kept in a bounded buffer of recent slow
+ * traces. Fast traces are dropped as soon as they finish, so the steady-state cost is one small
+ * object per observation.
+ */
+@Component
+public class SlowTraceRecorder implements ObservationHandler<Observation.Context> {
+
+    private static final int MAX_CHILDREN_PER_SPAN = 200;
+
+    private final long slowThresholdNanos;
+    private final int bufferSize;
+    private final Deque<RecordedTrace> recentSlowTraces = new ArrayDeque<>();
+
+    public SlowTraceRecorder(@Value("${garden.tracing.slow-threshold-ms:500}") long slowThresholdMs,
+                             @Value("${garden.tracing.buffer-size:100}") int bufferSize) {
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        ObservationView parentView = context.getParentObservation();
+        SpanNode parent = parentView != null ? parentView.getContextView().get(SpanNode.class) : null;
+        SpanNode node = new SpanNode(parent, System.nanoTime());
+        if (parent == null) {
+            node.requestId = MDC.get(RequestIdFilter.MDC_KEY);
+        } else {
+            parent.addChild(node);
+        }
+        context.put(SpanNode.class, node);
+    }
+
+    @Override
+    public void onError(Observation.Context context) {
+        SpanNode node = context.get(SpanNode.class);
+        if (node != null && context.getError() != null) {
+            node.error = context.getError().getClass().getSimpleName();
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        SpanNode node = context.get(SpanNode.class);
+        if (node == null) {
+            return;
+        }
+        node.finish(context);
+
+        if (node.parent == null && node.durationNanos() >= slowThresholdNanos) {
+            record(node.toTrace());
+        }
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    public List<RecordedTrace> getRecentSlowTraces() {
+        synchronized (recentSlowTraces) {
+            return new ArrayList<>(recentSlowTraces);
+        }
+    }
+
+    public void clear() {
+        synchronized (recentSlowTraces) {
+            recentSlowTraces.clear();
+        }
+    }
+
+    private void record(RecordedTrace trace) {
+        synchronized (recentSlowTraces) {
+            if (recentSlowTraces.size() >= bufferSize) {
+                recentSlowTraces.removeLast();
+            }
+            recentSlowTraces.addFirst(trace);
+        }
+    }
+
+    /**
+     * Mutable span while the observation is running. Children may be added from the request thread
+     * only, but the list is still guarded because async observations can attach late.
+     */
+    private static final class SpanNode {
+        private final SpanNode parent;
+        private final long startNanos;
+        private final Instant startedAt = Instant.now();
+        private final List<SpanNode> children = new ArrayList<>();
+        private int droppedChildren;
+        private long endNanos;
+        private String name;
+        private Map<String, String> tags = Map.of();
+        private String error;
+        private String requestId;
+
+        private SpanNode(SpanNode parent, long startNanos) {
+            this.parent = parent;
+            this.startNanos = startNanos;
+        }
+
+        private synchronized void addChild(SpanNode child) {
+            if (children.size() < MAX_CHILDREN_PER_SPAN) {
+                children.add(child);
+            } else {
+                droppedChildren++;
+            }
+        }
+
+        private void finish(Observation.Context context) {
+            endNanos = System.nanoTime();
+            name = context.getContextualName() != null ? context.getContextualName() : context.getName();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+                values.put(keyValue.getKey(), keyValue.getValue());
+            }
+            tags = values;
+        }
+
+        private long durationNanos() {
+            return endNanos - startNanos;
+        }
+
+        private RecordedTrace toTrace() {
+            return new RecordedTrace(requestId, startedAt, toMillis(durationNanos()), toSpan(startNanos));
+        }
+
+        private synchronized RecordedTrace.Span toSpan(long traceStartNanos) {
+            List<RecordedTrace.Span> childSpans = new ArrayList<>(children.size());
+            for (SpanNode child : children) {
+                // Children still running when the root stopped (e.g. async work) are not reported
+                if (child.endNanos != 0) {
+                    childSpans.add(child.toSpan(traceStartNanos));
+                }
+            }
+            return new RecordedTrace.Span(name, toMillis(startNanos - traceStartNanos), toMillis(durationNanos()),
+                    tags, error, droppedChildren, childSpans);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
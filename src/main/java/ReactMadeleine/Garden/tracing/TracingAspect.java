@@ -0,0 +1,73 @@
+package ReactMadeleine.Garden.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens an observation (span) around the booking service, every Spring Data repository call and
+ * outgoing emails, so a slow request can be broken down into validation, queries, insert and SMTP.
+ * HTTP requests and the security filter chain are already observed by Spring MVC / Spring Security
+ * once an ObservationRegistry is present.
+ * <p>
+ * Runs outside the transaction advice so that commit time is attributed to the service span.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TracingAspect {
+
+    private final ObservationRegistry observationRegistry;
+
+    public TracingAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("execution(public * ReactMadeleine.Garden.service.BookingService.*(..))")
+    public Object traceBookingService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("garden.booking.service", "BookingService", joinPoint);
+    }
+
+    @Around("execution(public * ReactMadeleine.Garden.service.EmailService.send*(..))")
+    public Object traceEmail(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("garden.email", "EmailService", joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("garden.repository", repositoryName(joinPoint.getTarget()), joinPoint);
+    }
+
+    private Object observe(String name, String component, ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(component + "." + method)
+                .lowCardinalityKeyValue("component", component)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            observation.error(ex);
+            throw ex;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private String repositoryName(Object target) {
+        // Repository beans are JDK proxies; report the application interface, not CrudRepository
+        for (Class<?> candidate : target.getClass().getInterfaces()) {
+            if (Repository.class.isAssignableFrom(candidate) && !candidate.getName().startsWith("org.springframework")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return "Repository";
+    }
+}
@@ -0,0 +1,44 @@
+-- Schema of the last release before migrations (3890d7e), as its ddl-auto=update created it.
+-- Databases from that release are baselined at this version instead (spring.flyway.baseline-on-migrate);
+-- V2 and V3 then bring both kinds of database to the current mapping.
+
+create table bookings (
+    id bigint not null auto_increment,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    phone varchar(255) not null,
+    email varchar(255) not null,
+    booking_type varchar(255) not null,
+    country varchar(255) not null,
+    city varchar(255) not null,
+    check_in_date date not null,
+    check_out_date date not null,
+    arrival time not null,
+    status varchar(255) not null,
+    total_price float(53) not null,
+    address varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    email varchar(255) not null,
+    reset_token varchar(255),
+    reset_token_expiration datetime(6),
+    primary key (id),
+    unique (username),
+    unique (email)
+) engine=InnoDB;
+
+create table admins (
+    id bigint not null auto_increment,
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255) not null,
+    role varchar(255) not null,
+    email varchar(255) not null,
+    primary key (id),
+    unique (email)
+) engine=InnoDB;
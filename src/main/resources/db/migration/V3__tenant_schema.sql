@@ -0,0 +1,118 @@
+-- From the V1 schema to the one the entities map: prices become exact, reset codes leave users,
+-- every row gets a tenant (existing rows go to 'default') and the tables added since are created.
+-- Uniqueness is now per tenant; V2 dropped the single-column unique keys.
+
+alter table bookings
+    modify total_price decimal(12,2) not null,
+    add column unit_id bigint,
+    add column created_at datetime(6),
+    add column version bigint default 0 not null,
+    add column updated_at datetime(6),
+    add column tenant_id varchar(32) default 'default' not null,
+    add index idx_bookings_tenant_dates (tenant_id, check_in_date, check_out_date),
+    add index idx_bookings_tenant_check_out (tenant_id, check_out_date),
+    add index idx_bookings_tenant_status (tenant_id, status, id);
+
+alter table users
+    drop column reset_token,
+    drop column reset_token_expiration,
+    add column version bigint default 0 not null,
+    add column updated_at datetime(6),
+    add column tenant_id varchar(32) default 'default' not null,
+    add constraint uk_users_tenant_username unique (tenant_id, username),
+    add constraint uk_users_tenant_email unique (tenant_id, email);
+
+alter table admins
+    add column version bigint default 0 not null,
+    add column updated_at datetime(6),
+    add column tenant_id varchar(32) default 'default' not null,
+    add constraint uk_admins_tenant_email unique (tenant_id, email),
+    add index idx_admins_tenant_first_name (tenant_id, first_name),
+    add index idx_admins_tenant_last_name (tenant_id, last_name);
+
+-- id is copied from bookings, hence no auto_increment
+create table bookings_archive (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    phone varchar(255) not null,
+    email varchar(255) not null,
+    booking_type varchar(255) not null,
+    country varchar(255) not null,
+    city varchar(255) not null,
+    check_in_date date not null,
+    check_out_date date not null,
+    arrival time not null,
+    status varchar(255) not null,
+    total_price decimal(12,2) not null,
+    address varchar(255) not null,
+    unit_id bigint,
+    created_at datetime(6),
+    archived_at datetime(6) not null,
+    tenant_id varchar(32) default 'default' not null,
+    primary key (id),
+    index idx_bookings_archive_tenant_check_out (tenant_id, check_out_date),
+    index idx_bookings_archive_tenant_status_check_out (tenant_id, status, check_out_date)
+) engine=InnoDB;
+
+create table bookable_units (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    booking_type varchar(255) not null,
+    capacity integer not null,
+    active bit not null,
+    tenant_id varchar(32) default 'default' not null,
+    primary key (id),
+    constraint uk_bookable_units_tenant_name unique (tenant_id, name)
+) engine=InnoDB;
+
+create table rate_tables (
+    id bigint not null auto_increment,
+    booking_type varchar(255) not null,
+    season_name varchar(255) not null,
+    start_month integer not null,
+    start_day integer not null,
+    end_month integer not null,
+    end_day integer not null,
+    weekday_rate decimal(10,2) not null,
+    weekend_rate decimal(10,2) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stay_discounts (
+    id bigint not null auto_increment,
+    booking_type varchar(255),
+    min_nights integer not null,
+    discount_percent decimal(5,2) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table idempotency_keys (
+    id bigint not null auto_increment,
+    principal varchar(100) not null,
+    idempotency_key varchar(255) not null,
+    request_hash varchar(64) not null,
+    completed bit not null,
+    response_status integer,
+    content_type varchar(255),
+    response_body mediumtext,
+    created_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    tenant_id varchar(32) default 'default' not null,
+    primary key (id),
+    constraint uk_idempotency_keys_tenant_principal_key unique (tenant_id, principal, idempotency_key),
+    index idx_idempotency_keys_tenant_expires_at (tenant_id, expires_at)
+) engine=InnoDB;
+
+create table password_reset_tokens (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    email varchar(255) not null,
+    token_hash varchar(64) not null,
+    attempts integer not null,
+    expires_at datetime(6) not null,
+    tenant_id varchar(32) default 'default' not null,
+    primary key (id),
+    constraint uk_password_reset_tokens_user_id unique (user_id),
+    index idx_password_reset_tokens_tenant_expires_at (tenant_id, expires_at)
+) engine=InnoDB;
@@ -0,0 +1,16 @@
+-- Secondary indexes for the BookingRepository finders (checked by BookingRepositoryQueryPlanTest).
+-- Hibernate adds tenant_id = ? to every query on bookings, so tenant_id leads each index.
+
+-- findByBookingType
+create index idx_bookings_tenant_booking_type on bookings (tenant_id, booking_type);
+
+-- findByTotalPriceBetween
+create index idx_bookings_tenant_total_price on bookings (tenant_id, total_price);
+
+-- findUpcomingBookings, findByDateRangeAndStatus: equality on status, range on check-in.
+-- idx_bookings_tenant_status stays for the keyset scans of the maintenance jobs (status, id > ?).
+create index idx_bookings_tenant_status_check_in on bookings (tenant_id, status, check_in_date);
+
+-- findByEmailIgnoreCase is rendered as upper(email) = upper(?): only a functional key part
+-- on the same expression can serve it (MySQL 8.0.13+)
+create index idx_bookings_tenant_email_upper on bookings (tenant_id, (upper(email)));
@@ -0,0 +1,10 @@
+-- Capacity checks made by the database (InventoryService): a booking transaction locks the unit's row,
+-- or for bookings without a unit the tenant's row below, then counts the unit's overlapping bookings.
+
+create table inventory_locks (
+    name varchar(64) not null,
+    primary key (name)
+) engine=InnoDB;
+
+-- findActiveOnUnit, findActiveUnassigned: equality on unit_id (or IS NULL), range on check-in
+create index idx_bookings_tenant_unit_check_in on bookings (tenant_id, unit_id, check_in_date);
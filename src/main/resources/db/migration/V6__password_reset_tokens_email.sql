@@ -0,0 +1,2 @@
+-- PasswordResetTokenRepository.findByEmail, countAttempt, deleteExhausted: reset codes are checked by address
+create index idx_password_reset_tokens_tenant_email on password_reset_tokens (tenant_id, email);
@@ -0,0 +1,5 @@
+-- findStamp (CollectionVersions): count, max(id), sum(version) and max(updated_at) of a tenant, read from
+-- the index alone (InnoDB secondary indexes carry the primary key)
+create index idx_bookings_tenant_updated_at on bookings (tenant_id, updated_at, version);
+create index idx_users_tenant_updated_at on users (tenant_id, updated_at, version);
+create index idx_admins_tenant_updated_at on admins (tenant_id, updated_at, version);
@@ -0,0 +1,9 @@
+-- Rate tables and stay discounts belong to a tenant like every other table; the rows written so far
+-- go to 'default'. PricingService reads them per tenant.
+alter table rate_tables
+    add column tenant_id varchar(32) default 'default' not null,
+    add index idx_rate_tables_tenant_booking_type (tenant_id, booking_type);
+
+alter table stay_discounts
+    add column tenant_id varchar(32) default 'default' not null,
+    add index idx_stay_discounts_tenant_booking_type (tenant_id, booking_type);
@@ -0,0 +1,173 @@
+package ReactMadeleine.Garden.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of the fast-startup profile's benchmark: starts the packaged application several times per
+ * launch mode (plain jar, extracted jar, with AOT initialization, with the CDS archive of the training run)
+ * and measures the wall-clock time from process start to the first answer of the liveness probe, which is
+ * when a new instance can take traffic. Modes whose files were not built are skipped.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(System.getProperty("startup.jar"));
+        Path extractedJar = Path.of(System.getProperty("startup.extractedJar"));
+        Path archive = Path.of(System.getProperty("startup.archive"));
+        int runs = Integer.getInteger("startup.runs", 5);
+        Duration timeout = Duration.parse(System.getProperty("startup.timeout", "PT2M"));
+        Path report = Path.of(System.getProperty("startup.report", "target/startup-report.json"));
+        List<String> appArgs = Arrays.stream(System.getProperty("startup.appArgs", "").split("\\s+"))
+                .filter(arg -> !arg.isBlank())
+                .toList();
+
+        List<Mode> modes = List.of(
+                new Mode("jar", jar, List.of()),
+                new Mode("extracted", extractedJar, List.of()),
+                new Mode("extracted+aot", extractedJar, List.of("-Dspring.aot.enabled=true")),
+                new Mode("extracted+cds", extractedJar, List.of("-XX:SharedArchiveFile=" + archive)),
+                new Mode("extracted+aot+cds", extractedJar,
+                        List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true")));
+
+        Path logs = report.toAbsolutePath().getParent().resolve("startup-logs");
+        Files.createDirectories(logs);
+        List<Result> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            if (!mode.runnable()) {
+                System.out.printf("Skipping %s: %s not built%n", mode.name(), mode.missingFile());
+                continue;
+            }
+            List<Long> millis = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                millis.add(timeToReady(mode, appArgs, timeout, logs.resolve(mode.name() + "-" + run + ".log")));
+            }
+            results.add(Result.of(mode.name(), millis));
+        }
+
+        print(runs, results);
+        write(report, runs, appArgs, results);
+    }
+
+    private static long timeToReady(Mode mode, List<String> appArgs, Duration timeout, Path log) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArgs());
+        command.add("-jar");
+        command.add(mode.jar().toString());
+        command.add("--server.port=" + port);
+        command.add("--management.endpoint.health.probes.enabled=true");
+        command.addAll(appArgs);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/liveness"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    client.send(probe, HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (IOException e) {
+                    // Not listening (or not answering) yet
+                    Thread.sleep(POLL_INTERVAL);
+                }
+            }
+            throw new IllegalStateException(mode.name() + " not ready within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(int runs, List<Result> results) {
+        System.out.printf("%nStartup: time to first liveness answer, %d runs per mode%n", runs);
+        System.out.printf("%-20s %9s %9s %9s%n", "mode", "min ms", "p50 ms", "max ms");
+        for (Result result : results) {
+            System.out.printf("%-20s %9d %9d %9d%n", result.mode(), result.minMs(), result.p50Ms(), result.maxMs());
+        }
+    }
+
+    private static void write(Path report, int runs, List<String> appArgs, List<Result> results) throws IOException {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("runs", runs);
+        content.put("java", Runtime.version().toString());
+        content.put("appArgs", appArgs);
+        content.put("results", results);
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), content);
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private record Mode(String name, Path jar, List<String> jvmArgs) {
+
+        boolean runnable() {
+            return missingFile() == null;
+        }
+
+        Path missingFile() {
+            if (!Files.exists(jar)) {
+                return jar;
+            }
+            for (String arg : jvmArgs) {
+                if (arg.startsWith("-XX:SharedArchiveFile=")) {
+                    Path archive = Path.of(arg.substring("-XX:SharedArchiveFile=".length()));
+                    if (!Files.exists(archive)) {
+                        return archive;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Result(String mode, List<Long> runsMs, long minMs, long p50Ms, long maxMs) {
+
+        static Result of(String mode, List<Long> runsMs) {
+            List<Long> sorted = runsMs.stream().sorted().toList();
+            return new Result(mode, runsMs, sorted.getFirst(), sorted.get(sorted.size() / 2), sorted.getLast());
+        }
+    }
+}
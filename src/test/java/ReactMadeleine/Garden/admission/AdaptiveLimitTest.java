@@ -0,0 +1,69 @@
+package ReactMadeleine.Garden.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimitTest {
+
+	private static final long NO_LOAD = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	void growsWhileServiceTimesStayAtNoLoadUpToTheMaximum() {
+		AdaptiveLimit limit = new AdaptiveLimit(10, 2, 50);
+
+		limit.onSample(NO_LOAD, 10, false);
+		assertThat(limit.limit()).isEqualTo(11);
+
+		for (int i = 0; i < 200; i++) {
+			limit.onSample(NO_LOAD, limit.limit(), false);
+		}
+		assertThat(limit.limit()).isEqualTo(50);
+	}
+
+	@Test
+	void shrinksWhenRequestsQueueInsideTheServer() {
+		AdaptiveLimit limit = new AdaptiveLimit(20, 2, 50);
+		limit.onSample(NO_LOAD, 20, false);
+		int before = limit.limit();
+
+		// Ten times the no-load time at full concurrency: most of the limit is waiting, not working
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(10 * NO_LOAD, limit.limit(), false);
+		}
+
+		assertThat(limit.limit()).isLessThan(before).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	void failuresBackOffByTenPercentDownToTheMinimum() {
+		AdaptiveLimit limit = new AdaptiveLimit(20, 5, 50);
+
+		limit.onSample(NO_LOAD, 20, true);
+		assertThat(limit.limit()).isEqualTo(18);
+
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(NO_LOAD, 1, true);
+		}
+		assertThat(limit.limit()).isEqualTo(5);
+	}
+
+	@Test
+	void samplesFarBelowTheLimitLeaveItAlone() {
+		AdaptiveLimit limit = new AdaptiveLimit(20, 2, 50);
+
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(i % 2 == 0 ? NO_LOAD : 10 * NO_LOAD, 3, false);
+		}
+
+		assertThat(limit.limit()).isEqualTo(20);
+	}
+
+	@Test
+	void initialLimitIsClampedToTheBounds() {
+		assertThat(new AdaptiveLimit(500, 2, 50).limit()).isEqualTo(50);
+		assertThat(new AdaptiveLimit(0, 2, 50).limit()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,108 @@
+package ReactMadeleine.Garden.admission;
+
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControllerTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void writesAreShedWhileReadsWait() throws Exception {
+		AdmissionController admission = admission(1, Duration.ofSeconds(10));
+		AdmissionController.Permit read = admission.admit(request("GET", "/api/bookings/1"));
+		assertThat(read).isNotNull();
+
+		AtomicReference<AdmissionController.Permit> waitingRead = new AtomicReference<>();
+		Thread reader = Thread.ofPlatform().start(() -> waitingRead.set(admission.admit(request("GET", "/api/bookings/2"))));
+		EndpointLimiterTest.waitUntilWaiting(reader);
+
+		// The write's own endpoint is idle, yet it gives way to the waiting read
+		assertThat(admission.admit(request("POST", "/api/bookings"))).isNull();
+		assertThat(rejected("POST /api/bookings", "shed-for-reads")).isEqualTo(1);
+
+		read.release(200);
+		reader.join(TimeUnit.SECONDS.toMillis(10));
+		assertThat(waitingRead.get()).isNotNull();
+		assertThat(admission.admit(request("POST", "/api/bookings"))).isNotNull();
+	}
+
+	@Test
+	void queueFullAndTimeoutAreTurnedAway() {
+		AdmissionController full = admission(0, Duration.ofSeconds(10));
+		assertThat(full.admit(request("GET", "/api/bookings/1"))).isNotNull();
+		assertThat(full.admit(request("GET", "/api/bookings/1"))).isNull();
+		assertThat(rejected("GET /api/bookings/{id}", "queue-full")).isEqualTo(1);
+
+		AdmissionController slow = admission(1, Duration.ofMillis(20));
+		assertThat(slow.admit(request("GET", "/api/bookings/1"))).isNotNull();
+		assertThat(slow.admit(request("GET", "/api/bookings/2"))).isNull();
+		assertThat(rejected("GET /api/bookings/{id}", "queue-timeout")).isEqualTo(1);
+	}
+
+	@Test
+	void unmappedPathsShareOneLimiter() {
+		AdmissionController admission = admission(0, Duration.ofSeconds(10));
+
+		assertThat(admission.admit(request("GET", "/api/nothing/1"))).isNotNull();
+		assertThat(admission.admit(request("GET", "/api/nothing-else/2"))).isNull();
+		assertThat(admission.admit(request("GET", "/api/bookings/1"))).isNotNull();
+
+		assertThat(meterRegistry.find("garden.admission.limit").gauges())
+				.extracting(gauge -> gauge.getId().getTag("endpoint"))
+				.containsExactlyInAnyOrder("READ /api/**", "GET /api/bookings/{id}");
+	}
+
+	@Test
+	void tenantsDoNotShareSlots() {
+		AdmissionController admission = admission(0, Duration.ofSeconds(10));
+		assertThat(admission.admit(request("GET", "/api/bookings/1"))).isNotNull();
+
+		try (TenantContext.Scope ignored = TenantContext.use("lodge")) {
+			assertThat(admission.admit(request("GET", "/api/bookings/1"))).isNotNull();
+		}
+		assertThat(admission.admit(request("GET", "/api/bookings/1"))).isNull();
+	}
+
+	@Test
+	void streamAndPreflightAreNotControlled() {
+		AdmissionController admission = admission(0, Duration.ofSeconds(10));
+		MockHttpServletRequest preflight = request("OPTIONS", "/api/bookings");
+		preflight.addHeader("Origin", "http://localhost:3000");
+		preflight.addHeader("Access-Control-Request-Method", "POST");
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(admission.admit(request("GET", "/api/bookings/stream"))).isSameAs(AdmissionController.Permit.UNCONTROLLED);
+			assertThat(admission.admit(preflight)).isSameAs(AdmissionController.Permit.UNCONTROLLED);
+		}
+	}
+
+	// One slot per endpoint, so a second request always has to queue
+	private AdmissionController admission(int queueSize, Duration queueTimeout) {
+		EndpointTemplates templates = new EndpointTemplates(List.of(
+				"GET /api/bookings/{id}", "GET /api/bookings/stream", "POST /api/bookings"));
+		return new AdmissionController(meterRegistry, () -> templates, true, 1, 1, 1, queueSize, queueTimeout,
+				Duration.ofSeconds(1));
+	}
+
+	private double rejected(String endpoint, String reason) {
+		return meterRegistry.get("garden.admission.rejected")
+				.tag("endpoint", endpoint)
+				.tag("reason", reason)
+				.counter()
+				.count();
+	}
+
+	private static MockHttpServletRequest request(String method, String path) {
+		return new MockHttpServletRequest(method, path);
+	}
+}
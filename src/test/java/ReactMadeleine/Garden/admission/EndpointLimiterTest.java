@@ -0,0 +1,86 @@
+package ReactMadeleine.Garden.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointLimiterTest {
+
+	private final AtomicInteger waitingReads = new AtomicInteger();
+
+	@Test
+	void turnsNewcomersAwayOnceTheQueueIsFull() throws Exception {
+		EndpointLimiter limiter = limiter(2, 0);
+
+		assertThat(limiter.acquire(0)).isEqualTo(EndpointLimiter.Outcome.ADMITTED);
+		assertThat(limiter.acquire(0)).isEqualTo(EndpointLimiter.Outcome.ADMITTED);
+		assertThat(limiter.acquire(TimeUnit.SECONDS.toNanos(10))).isEqualTo(EndpointLimiter.Outcome.QUEUE_FULL);
+		assertThat(limiter.inFlight()).isEqualTo(2);
+	}
+
+	@Test
+	void waiterTimesOutWhenNoSlotFrees() throws Exception {
+		EndpointLimiter limiter = limiter(1, 4);
+		limiter.acquire(0);
+
+		long started = System.nanoTime();
+		assertThat(limiter.acquire(TimeUnit.MILLISECONDS.toNanos(50))).isEqualTo(EndpointLimiter.Outcome.TIMED_OUT);
+
+		assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(waitingReads).hasValue(0);
+		assertThat(limiter.inFlight()).isEqualTo(1);
+	}
+
+	@Test
+	void waiterIsAdmittedWhenASlotIsReleased() throws Exception {
+		EndpointLimiter limiter = limiter(1, 4);
+		limiter.acquire(0);
+		long started = System.nanoTime();
+
+		AtomicReference<EndpointLimiter.Outcome> outcome = new AtomicReference<>();
+		Thread waiter = Thread.ofPlatform().start(() -> {
+			try {
+				outcome.set(limiter.acquire(TimeUnit.SECONDS.toNanos(10)));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		waitUntilWaiting(waiter);
+		assertThat(waitingReads).hasValue(1);
+
+		limiter.release(started, false);
+		waiter.join(TimeUnit.SECONDS.toMillis(10));
+
+		assertThat(outcome).hasValue(EndpointLimiter.Outcome.ADMITTED);
+		assertThat(waitingReads).hasValue(0);
+		assertThat(limiter.inFlight()).isEqualTo(1);
+	}
+
+	@Test
+	void failedReleaseCutsTheLimit() throws Exception {
+		EndpointLimiter limiter = limiter(10, 4);
+		limiter.acquire(0);
+
+		limiter.release(System.nanoTime(), true);
+
+		assertThat(limiter.limit()).isEqualTo(9);
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	private EndpointLimiter limiter(int limit, int queueSize) {
+		return new EndpointLimiter("GET /api/bookings/{id}", AdmissionController.Priority.READ,
+				new AdaptiveLimit(limit, 1, 100), queueSize, waitingReads, waitingReads);
+	}
+
+	static void waitUntilWaiting(Thread thread) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (thread.getState() != Thread.State.TIMED_WAITING) {
+			assertThat(System.nanoTime()).as("thread never waited").isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package ReactMadeleine.Garden.controller;
+
+import ReactMadeleine.Garden.dto.BookingSummary;
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import ReactMadeleine.Garden.service.BookingHistoryService;
+import ReactMadeleine.Garden.service.BookingService;
+import ReactMadeleine.Garden.service.CollectionVersions;
+import ReactMadeleine.Garden.service.IdempotencyService;
+import ReactMadeleine.Garden.service.PagedQueries;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compression is applied by Tomcat, so the listing is fetched from a running server (with the application's
+ * server.compression settings) rather than through MockMvc. Only the web layer and the booking controller are
+ * started; the rows come from a mocked repository.
+ */
+@SpringBootTest(classes = BookingListCompressionTest.WebLayer.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BookingListCompressionTest {
+
+	private static final int ROWS = 500;
+
+	@Configuration
+	@ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+			EmbeddedWebServerFactoryCustomizerAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+			WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+	@Import({BookingController.class, ConditionalRequests.class, CollectionVersions.class, JsonArrayStreams.class})
+	static class WebLayer {
+	}
+
+	@MockitoBean
+	private BookingRepository bookingRepository;
+	@MockitoBean
+	private AdminRepository adminRepository;
+	@MockitoBean
+	private UserRepository userRepository;
+	@MockitoBean
+	private BookingService bookingService;
+	@MockitoBean
+	private BookingHistoryService bookingHistoryService;
+	@MockitoBean
+	private PagedQueries pagedQueries;
+	@MockitoBean
+	private IdempotencyService idempotencyService;
+	@MockitoBean
+	private PlatformTransactionManager transactionManager;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private CollectionVersions collectionVersions;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeEach
+	void seedRows() {
+		when(bookingRepository.findStamp())
+				.thenReturn(new CollectionStamp((long) ROWS, (long) ROWS, 0L, LocalDateTime.now().withNano(0)));
+		when(bookingRepository.streamAllSummaries()).thenAnswer(invocation -> LongStream.rangeClosed(1, ROWS)
+				.mapToObj(id -> new BookingSummary(id, "Jeanne", "Martin", "jeanne" + id + "@example.com",
+						"0601020304", "Chambre", "France", "Lyon", LocalDate.of(2025, 6, 1),
+						LocalDate.of(2025, 6, 4), LocalTime.of(15, 0), "Confirmed", new BigDecimal("240.00"), 1L)));
+	}
+
+	@Test
+	void fullListingIsGzippedWithAWeakETag() throws Exception {
+		HttpResponse<byte[]> response = get(null);
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(response.headers().firstValue("ETag")).hasValueSatisfying(etag -> assertThat(etag).startsWith("W/\""));
+		assertThat(gunzip(response.body())).startsWith("[{").contains("jeanne" + ROWS + "@example.com");
+	}
+
+	@Test
+	void weakETagStillAnswersAPollWith304() throws Exception {
+		String etag = get(null).headers().firstValue("ETag").orElseThrow();
+
+		HttpResponse<byte[]> poll = get(etag);
+
+		assertThat(poll.statusCode()).isEqualTo(304);
+		assertThat(poll.body()).isEmpty();
+		assertThat(etag).isEqualTo(collectionVersions.etag(CollectionVersions.BOOKINGS,
+				bookingRepository.findStamp(), null));
+	}
+
+	private HttpResponse<byte[]> get(String ifNoneMatch) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/bookings"))
+				.header("Accept-Encoding", "gzip");
+		if (ifNoneMatch != null) {
+			request.header("If-None-Match", ifNoneMatch);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private static String gunzip(byte[] body) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
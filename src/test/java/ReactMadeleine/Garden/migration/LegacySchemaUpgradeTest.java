@@ -0,0 +1,125 @@
+package ReactMadeleine.Garden.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Migrates two databases side by side: an empty one, and one holding the schema and rows left by the last
+ * release before migrations (3890d7e, ddl-auto=update). Both must end with the same tables, columns and
+ * indexes, and the legacy rows must survive in the default tenant.
+ * <p>
+ * Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LegacySchemaUpgradeTest {
+
+	@Container
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.4").withUsername("root");
+
+	// What Hibernate's ddl-auto=update issued for the 3890d7e entities, hashed constraint names included
+	private static final List<String> LEGACY_DDL = List.of(
+			"create table admins (id bigint not null auto_increment, email varchar(255) not null, " +
+					"first_name varchar(255), last_name varchar(255), password varchar(255) not null, " +
+					"role varchar(255) not null, primary key (id)) engine=InnoDB",
+			"create table bookings (id bigint not null auto_increment, address varchar(255) not null, " +
+					"arrival time not null, booking_type varchar(255) not null, check_in_date date not null, " +
+					"check_out_date date not null, city varchar(255) not null, country varchar(255) not null, " +
+					"email varchar(255) not null, first_name varchar(255) not null, last_name varchar(255) not null, " +
+					"phone varchar(255) not null, status varchar(255) not null, total_price float(53) not null, " +
+					"primary key (id)) engine=InnoDB",
+			"create table users (id bigint not null auto_increment, email varchar(255) not null, " +
+					"password varchar(255) not null, reset_token varchar(255), reset_token_expiration datetime(6), " +
+					"username varchar(255) not null, primary key (id)) engine=InnoDB",
+			"alter table admins add constraint UK47bvqemyk6vlm0w7crc3opdd4 unique (email)",
+			"alter table users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email)",
+			"alter table users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username)"
+	);
+
+	private JdbcTemplate fresh;
+	private JdbcTemplate legacy;
+
+	@BeforeAll
+	void migrate() {
+		JdbcTemplate root = new JdbcTemplate(dataSource(MYSQL.getDatabaseName()));
+		root.execute("create database fresh");
+		root.execute("create database legacy");
+
+		legacy = new JdbcTemplate(dataSource("legacy"));
+		LEGACY_DDL.forEach(legacy::execute);
+		legacy.update("insert into users (username, password, email, reset_token) values ('ann', 'x', 'ann@example.com', 't')");
+		legacy.update("insert into admins (email, password, role) values ('boss@example.com', 'x', 'SUPER_ADMIN')");
+		legacy.update("insert into bookings (first_name, last_name, phone, email, booking_type, country, city, " +
+				"check_in_date, check_out_date, arrival, status, total_price, address) values ('Ann', 'Lee', " +
+				"'+250780000000', 'ann@example.com', 'Room', 'Rwanda', 'Kigali', '2024-05-01', '2024-05-03', " +
+				"'14:00', 'Confirmed', 120.5, 'KG 1 Ave')");
+
+		flyway("fresh").migrate();
+		flyway("legacy").migrate();
+		fresh = new JdbcTemplate(dataSource("fresh"));
+	}
+
+	@Test
+	void legacyDatabaseEndsWithTheFreshSchema() {
+		assertThat(columns(legacy, "legacy")).containsExactlyElementsOf(columns(fresh, "fresh"));
+		assertThat(indexes(legacy, "legacy")).containsExactlyElementsOf(indexes(fresh, "fresh"));
+	}
+
+	@Test
+	void legacyRowsMoveToTheDefaultTenant() {
+		assertThat(legacy.queryForObject("select tenant_id from users where id = 1", String.class))
+				.isEqualTo("default");
+		assertThat(legacy.queryForObject("select tenant_id from admins", String.class)).isEqualTo("default");
+		assertThat(legacy.queryForObject("select concat(tenant_id, ' ', total_price) from bookings", String.class))
+				.isEqualTo("default 120.50");
+	}
+
+	@Test
+	void usernamesAreUniquePerTenant() {
+		legacy.update("insert into users (username, password, email, tenant_id) values ('ann', 'x', 'ann@example.com', 'lodge')");
+		assertThatThrownBy(() -> legacy.update(
+				"insert into users (username, password, email) values ('ann', 'x', 'other@example.com')"))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	private static Flyway flyway(String database) {
+		return Flyway.configure()
+				.dataSource(dataSource(database))
+				.baselineOnMigrate(true)
+				.baselineVersion("1")
+				.javaMigrations(new V2__Drop_legacy_unique_keys())
+				.load();
+	}
+
+	private static List<String> columns(JdbcTemplate jdbc, String database) {
+		return jdbc.queryForList("select concat_ws(' ', table_name, column_name, column_type, is_nullable, " +
+				"coalesce(column_default, '-')) from information_schema.columns where table_schema = ? " +
+				"and table_name <> 'flyway_schema_history' order by table_name, column_name", String.class, database);
+	}
+
+	private static List<String> indexes(JdbcTemplate jdbc, String database) {
+		return jdbc.queryForList("select concat_ws(' ', table_name, index_name, non_unique, " +
+				"group_concat(coalesce(column_name, expression) order by seq_in_index)) " +
+				"from information_schema.statistics where table_schema = ? and table_name <> 'flyway_schema_history' " +
+				"group by table_name, index_name, non_unique order by table_name, index_name", String.class, database);
+	}
+
+	private static DataSource dataSource(String database) {
+		String url = MYSQL.getJdbcUrl().replace("/" + MYSQL.getDatabaseName(), "/" + database);
+		return new DriverManagerDataSource(url, MYSQL.getUsername(), MYSQL.getPassword());
+	}
+}
@@ -0,0 +1,74 @@
+package ReactMadeleine.Garden.repository;
+
+import ReactMadeleine.Garden.dto.AdminSummary;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link AdminRepository#SEARCH} must read as email AND (first name OR last name): a name matching only the
+ * last name still needs the email to match.
+ * <p>
+ * Needs Docker; skipped without it.
+ */
+@SpringBootTest(properties = "garden.jobs.initial-delay=PT24H")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AdminRepositorySearchTest {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.4");
+
+	@Autowired
+	private AdminRepository adminRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void seedAdmins() {
+		insert(1, "rose@lyon.test", "Rose", "Martin");
+		insert(2, "marc@lyon.test", "Marc", "Rosier");
+		insert(3, "rose@kigali.test", "Alice", "Uwase");
+		insert(4, "paul@lyon.test", "Paul", "Durand");
+	}
+
+	@Test
+	void emailAndEitherNameMustMatch() {
+		assertThat(search("%lyon%", "%ros%")).containsExactly(1L, 2L);
+		assertThat(search("rose%", "ros%")).containsExactly(1L);
+		assertThat(search("paul%", "ros%")).isEmpty();
+		assertThat(search(null, "uwase%")).containsExactly(3L);
+		assertThat(search(null, null)).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(adminRepository.countSearch("%lyon%", "%ros%")).isEqualTo(2);
+	}
+
+	@Test
+	void escapedWildcardsMatchLiterally() {
+		assertThat(search("%!_%", null)).isEmpty();
+	}
+
+	private List<Long> search(String emailPattern, String namePattern) {
+		return adminRepository.search(emailPattern, namePattern, PageRequest.of(0, 10)).stream()
+				.map(AdminSummary::getId)
+				.toList();
+	}
+
+	private void insert(long id, String email, String firstName, String lastName) {
+		jdbcTemplate.update("insert into admins (id, email, first_name, last_name, password, role, tenant_id) " +
+				"values (?, ?, ?, ?, 'x', 'ADMIN', 'default')", id, email, firstName, lastName);
+	}
+}
@@ -0,0 +1,319 @@
+package ReactMadeleine.Garden.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every {@link BookingRepository} query against a MySQL schema built by the Flyway migrations and
+ * checks its plan with EXPLAIN: the SQL Hibernate generates is captured together with its bound values,
+ * so the plan is the one the application gets. The seeded data is selective enough (many booking types,
+ * 2% Pending, spread prices, dates and units) for the optimizer to prefer an index wherever one fits.
+ * <p>
+ * Needs Docker; skipped without it.
+ */
+@SpringBootTest(properties = "garden.jobs.initial-delay=PT24H")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingRepositoryQueryPlanTest {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.4");
+
+	private static final int BOOKINGS = 20_000;
+	private static final LocalDate FIRST_CHECK_IN = LocalDate.of(2024, 1, 1);
+	private static final List<Long> IDS = List.of(10L, 20L, 30L);
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private StatementRecorder recorder;
+
+	@BeforeAll
+	void seedBookings() {
+		List<Object[]> rows = new ArrayList<>(BOOKINGS);
+		for (int i = 0; i < BOOKINGS; i++) {
+			LocalDate checkIn = FIRST_CHECK_IN.plusDays(i * 37L % 1095);
+			String status = i % 50 == 0 ? "Pending" : i % 50 <= 5 ? "Cancelled" : "Confirmed";
+			BigDecimal price = BigDecimal.valueOf(5_000 + i * 7919L % 500_000, 2);
+			rows.add(new Object[]{(long) i + 1, "Guest", "Number" + i, "+250780000000", "guest" + i + "@example.com",
+					"type-" + i % 200, "Rwanda", "Kigali", checkIn, checkIn.plusDays(1 + i % 7), LocalTime.NOON,
+					status, price, "KG 1 Ave", checkIn.atStartOfDay().minusDays(30), i % 10 == 0 ? null : (long) i % 100 + 1});
+		}
+		jdbcTemplate.batchUpdate("insert into bookings (id, first_name, last_name, phone, email, booking_type, " +
+				"country, city, check_in_date, check_out_date, arrival, status, total_price, address, created_at, " +
+				"unit_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+		jdbcTemplate.execute("analyze table bookings");
+	}
+
+	@TestFactory
+	Stream<DynamicTest> everyQueryHasTheExpectedPlan() {
+		return queries().stream().map(query -> DynamicTest.dynamicTest(query.method(), () -> check(query)));
+	}
+
+	@Test
+	void everyDeclaredQueryIsChecked() {
+		Set<String> declared = Arrays.stream(BookingRepository.class.getDeclaredMethods())
+				.map(Method::getName)
+				.collect(Collectors.toSet());
+		Set<String> checked = queries().stream().map(QueryCase::method).collect(Collectors.toSet());
+		assertThat(checked).containsExactlyInAnyOrderElementsOf(declared);
+	}
+
+	private List<QueryCase> queries() {
+		LocalDateTime now = LocalDateTime.of(2027, 1, 1, 0, 0);
+		PageRequest chunk = PageRequest.of(0, 500);
+		return List.of(
+				new QueryCase("findByCheckInDateBetween",
+						r -> r.findByCheckInDateBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 3)),
+						Expected.index("idx_bookings_tenant_dates")),
+				new QueryCase("findByStatus", r -> r.findByStatus("Pending"),
+						Expected.index("idx_bookings_tenant_status", "idx_bookings_tenant_status_check_in")),
+				new QueryCase("findByBookingType", r -> r.findByBookingType("type-7"),
+						Expected.index("idx_bookings_tenant_booking_type")),
+				new QueryCase("findByTotalPriceBetween",
+						r -> r.findByTotalPriceBetween(new BigDecimal("100.00"), new BigDecimal("105.00")),
+						Expected.index("idx_bookings_tenant_total_price")),
+				new QueryCase("findByEmailIgnoreCase", r -> r.findByEmailIgnoreCase("Guest42@Example.com"),
+						Expected.index("idx_bookings_tenant_email_upper")),
+				new QueryCase("streamAllSummaries", r -> {
+					try (Stream<?> summaries = r.streamAllSummaries()) {
+						summaries.limit(10).forEach(summary -> { });
+					}
+				}, Expected.fullScan("streams the whole tenant")),
+				new QueryCase("findSummaries", r -> r.findSummaries(PageRequest.of(0, 20)),
+						Expected.fullScan("unfiltered page, bounded by LIMIT")),
+				new QueryCase("findSummariesWithTotal", r -> r.findSummariesWithTotal(PageRequest.of(0, 20)),
+						Expected.fullScan("unfiltered page plus a count of the whole tenant")),
+				new QueryCase("findStamp", BookingRepository::findStamp,
+						Expected.index("idx_bookings_tenant_updated_at")),
+				new QueryCase("streamBookingSummaries", r -> {
+					try (Stream<?> summaries = r.streamBookingSummaries(null, "Pending", null, null, null, null)) {
+						summaries.limit(10).forEach(summary -> { });
+					}
+				}, Expected.anyIndex()),
+				new QueryCase("searchBookings", r -> r.searchBookings(null, "Pending", null, null, null, null),
+						Expected.anyIndex()),
+				new QueryCase("findOverlappingBookings",
+						r -> r.findOverlappingBookings(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4)),
+						Expected.fullScan("':date BETWEEN check_in_date AND check_out_date' cannot use an index")),
+				new QueryCase("findActiveOnUnit",
+						r -> r.findActiveOnUnit(7L, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5)),
+						Expected.index("idx_bookings_tenant_unit_check_in", "idx_bookings_tenant_dates")),
+				new QueryCase("findActiveUnassigned",
+						r -> r.findActiveUnassigned(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 5)),
+						Expected.anyIndex()),
+				new QueryCase("findAllSnapshots", BookingRepository::findAllSnapshots,
+						Expected.fullScan("loads the whole tenant at startup")),
+				new QueryCase("findSnapshotsUpdatedSince", r -> r.findSnapshotsUpdatedSince(now.minusMinutes(3)),
+						Expected.index("idx_bookings_tenant_updated_at")),
+				new QueryCase("lockAllById", r -> r.lockAllById(IDS), Expected.index("PRIMARY")),
+				new QueryCase("updateStatus", r -> r.updateStatus(IDS, "Confirmed", now), Expected.index("PRIMARY")),
+				new QueryCase("lockExpiredPendingChunk",
+						r -> r.lockExpiredPendingChunk(0L, now.minusHours(48), now.toLocalDate(), chunk),
+						Expected.index("idx_bookings_tenant_status", "idx_bookings_tenant_status_check_in")),
+				new QueryCase("cancelPending", r -> r.cancelPending(IDS, now), Expected.index("PRIMARY")),
+				new QueryCase("lockCancelledChunk", r -> r.lockCancelledChunk(0L, LocalDate.of(2024, 6, 1), chunk),
+						Expected.anyIndex()),
+				new QueryCase("lockCheckedOutChunk", r -> r.lockCheckedOutChunk(0L, LocalDate.of(2024, 2, 1), chunk),
+						Expected.anyIndex()),
+				new QueryCase("deleteByIds", r -> r.deleteByIds(IDS), Expected.index("PRIMARY")),
+				new QueryCase("findUpcomingBookings", r -> r.findUpcomingBookings(LocalDate.of(2026, 12, 15)),
+						Expected.index("idx_bookings_tenant_status_check_in", "idx_bookings_tenant_dates")),
+				new QueryCase("findByDateRangeAndStatus",
+						r -> r.findByDateRangeAndStatus(LocalDate.of(2026, 12, 15), LocalDate.of(2026, 12, 31), "Confirmed"),
+						Expected.index("idx_bookings_tenant_status_check_in", "idx_bookings_tenant_dates"))
+		);
+	}
+
+	private void check(QueryCase query) {
+		List<RecordedStatement> statements = run(query);
+		assertThat(statements).as("statements run by %s", query.method()).isNotEmpty();
+		for (RecordedStatement statement : statements) {
+			List<Map<String, Object>> plan = jdbcTemplate.queryForList("explain " + statement.sql(), statement.parameters());
+			for (Map<String, Object> row : plan) {
+				Object table = row.get("table");
+				if (table == null || table.toString().startsWith("<")) {
+					continue;
+				}
+				query.expected().verify(query.method(), statement.sql(), row);
+			}
+		}
+	}
+
+	// Runs the query in a transaction that is rolled back, so the bulk updates and deletes leave the data alone
+	private List<RecordedStatement> run(QueryCase query) {
+		recorder.start();
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+				query.call().accept(bookingRepository);
+				status.setRollbackOnly();
+			});
+		} finally {
+			recorder.stop();
+		}
+		return recorder.statements().stream().filter(statement -> statement.sql().contains("bookings")).toList();
+	}
+
+	private record QueryCase(String method, Consumer<BookingRepository> call, Expected expected) {
+	}
+
+	// Index the plan must use (one of), any index at all, or a full scan accepted for the given reason
+	private record Expected(Set<String> indexes, String fullScanReason) {
+
+		static Expected index(String... indexes) {
+			return new Expected(Set.of(indexes), null);
+		}
+
+		static Expected anyIndex() {
+			return new Expected(Set.of(), null);
+		}
+
+		static Expected fullScan(String reason) {
+			return new Expected(Set.of(), reason);
+		}
+
+		void verify(String method, String sql, Map<String, Object> row) {
+			if (fullScanReason != null) {
+				return;
+			}
+			assertThat(String.valueOf(row.get("type"))).as("access type of %s: %s", method, sql)
+					.isNotIn("ALL", "index");
+			if (!indexes.isEmpty()) {
+				assertThat((String) row.get("key")).as("index used by %s: %s", method, sql).isIn(indexes);
+			}
+		}
+	}
+
+	private record RecordedStatement(String sql, Object[] parameters) {
+	}
+
+	@TestConfiguration
+	static class RecordingConfig {
+
+		@Bean
+		static StatementRecorder statementRecorder() {
+			return new StatementRecorder();
+		}
+	}
+
+	/**
+	 * Wraps the DataSource so that, while recording, every prepared statement is kept with the values bound to
+	 * it at execution time.
+	 */
+	static class StatementRecorder implements BeanPostProcessor {
+
+		private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+		private volatile boolean recording;
+
+		void start() {
+			statements.clear();
+			recording = true;
+		}
+
+		void stop() {
+			recording = false;
+		}
+
+		List<RecordedStatement> statements() {
+			return List.copyOf(statements);
+		}
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+				return new DelegatingDataSource(dataSource) {
+					@Override
+					public Connection getConnection() throws SQLException {
+						return recording(super.getConnection());
+					}
+				};
+			}
+			return bean;
+		}
+
+		private Connection recording(Connection connection) {
+			return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+					(proxy, method, args) -> {
+						Object result = invoke(connection, method, args);
+						if (recording && result instanceof PreparedStatement statement
+								&& method.getName().equals("prepareStatement")) {
+							return recording(statement, (String) args[0]);
+						}
+						return result;
+					});
+		}
+
+		private PreparedStatement recording(PreparedStatement statement, String sql) {
+			Map<Integer, Object> parameters = new TreeMap<>();
+			return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+						String name = method.getName();
+						if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+							parameters.put(index, name.equals("setNull") ? null : args[1]);
+						} else if (name.equals("clearParameters")) {
+							parameters.clear();
+						} else if (name.startsWith("execute")) {
+							statements.add(new RecordedStatement(sql, parameters.values().toArray()));
+						}
+						return invoke(statement, method, args);
+					});
+		}
+
+		private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
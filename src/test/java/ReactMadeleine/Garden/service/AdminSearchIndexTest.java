@@ -0,0 +1,69 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.Admin;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdminSearchIndexTest {
+
+	private final AdminRepository adminRepository = mock(AdminRepository.class);
+	private final AdminSearchIndex index = new AdminSearchIndex(adminRepository,
+			new Tenants(List.of("lyon", "kigali")), true);
+
+	@Test
+	void emailAndEitherNameMustMatch() {
+		when(adminRepository.findAll()).thenReturn(List.of(
+				admin(1L, "rose@lyon.test", "Rose", "Martin"),
+				admin(2L, "marc@lyon.test", "Marc", "Rosier"),
+				admin(3L, "rose@kigali.test", "Alice", "Uwase"),
+				admin(4L, "paul@lyon.test", "Paul", "Durand")));
+		index.reload();
+
+		try (TenantContext.Scope ignored = TenantContext.use("lyon")) {
+			// email AND (firstName OR lastName), not (email AND firstName) OR lastName
+			assertThat(index.findIds("lyon", "ros")).containsExactly(1L, 2L);
+			assertThat(index.findIds("rose", "ros")).containsExactly(1L);
+			assertThat(index.findIds("paul", "ros")).isEmpty();
+			assertThat(index.findIds(null, "uwase")).containsExactly(3L);
+			assertThat(index.findIds(null, null)).containsExactly(1L, 2L, 3L, 4L);
+		}
+	}
+
+	@Test
+	void reloadTakesInAdminsWrittenElsewhere() {
+		// Hibernate filters the rows by the current tenant; the mock does the same
+		when(adminRepository.findAll()).thenAnswer(invocation -> "lyon".equals(TenantContext.current())
+				? List.of(admin(1L, "rose@lyon.test", "Rose", "Martin"))
+				: List.of());
+		index.reload();
+
+		when(adminRepository.findAll()).thenAnswer(invocation -> "lyon".equals(TenantContext.current())
+				? List.of(admin(2L, "marc@lyon.test", "Marc", "Rosier"))
+				: List.of());
+		index.reload();
+
+		try (TenantContext.Scope ignored = TenantContext.use("lyon")) {
+			assertThat(index.findIds(null, "ros")).containsExactly(2L);
+		}
+		try (TenantContext.Scope ignored = TenantContext.use("kigali")) {
+			assertThat(index.findIds(null, null)).isEmpty();
+		}
+	}
+
+	private static Admin admin(Long id, String email, String firstName, String lastName) {
+		Admin admin = new Admin();
+		admin.setId(id);
+		admin.setEmail(email);
+		admin.setFirstName(firstName);
+		admin.setLastName(lastName);
+		return admin;
+	}
+}
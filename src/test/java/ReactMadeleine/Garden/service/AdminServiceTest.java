@@ -0,0 +1,133 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.controller.AdminController;
+import ReactMadeleine.Garden.dto.AdminSummary;
+import ReactMadeleine.Garden.dto.PageResponse;
+import ReactMadeleine.Garden.implementation.CustomUserDetails;
+import ReactMadeleine.Garden.model.Admin;
+import ReactMadeleine.Garden.repository.AdminRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdminServiceTest {
+
+	private final AdminRepository adminRepository = mock(AdminRepository.class);
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+	private final AdminSearchIndex searchIndex = mock(AdminSearchIndex.class);
+	private final AdminService adminService = new AdminService(adminRepository, passwordEncoder, searchIndex,
+			mock(PagedQueries.class), mock(AuthenticationManager.class));
+	private final AdminController controller = new AdminController(adminService, null);
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void anAdminCannotPromoteThemself() {
+		Admin self = admin(1L, "ADMIN");
+		when(adminRepository.findById(1L)).thenReturn(Optional.of(self));
+		authenticateAs(admin(1L, "ADMIN"));
+
+		ResponseEntity<Admin> response = controller.updateAdmin(1L, admin(1L, "SUPER_ADMIN"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(self.getRole()).isEqualTo("ADMIN");
+		verify(adminRepository, never()).save(any());
+	}
+
+	@Test
+	void anAdminCannotResetAnotherAdminsPassword() {
+		Admin owner = admin(2L, "SUPER_ADMIN");
+		when(adminRepository.findById(2L)).thenReturn(Optional.of(owner));
+		authenticateAs(admin(1L, "ADMIN"));
+
+		Admin details = admin(2L, "SUPER_ADMIN");
+		details.setPassword("taken-over");
+		ResponseEntity<Admin> response = controller.updateAdmin(2L, details);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(owner.getPassword()).isEqualTo("hash");
+		verify(adminRepository, never()).save(any());
+	}
+
+	@Test
+	void anAdminMayChangeTheirOwnPassword() {
+		when(adminRepository.findById(1L)).thenReturn(Optional.of(admin(1L, "ADMIN")));
+		when(adminRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(passwordEncoder.encode("new-secret")).thenReturn("new-hash");
+		authenticateAs(admin(1L, "ADMIN"));
+
+		Admin details = admin(1L, "ADMIN");
+		details.setPassword("new-secret");
+		ResponseEntity<Admin> response = controller.updateAdmin(1L, details);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().getPassword()).isEqualTo("new-hash");
+	}
+
+	@Test
+	void aSuperAdminMayChangeRoles() {
+		when(adminRepository.findById(1L)).thenReturn(Optional.of(admin(1L, "ADMIN")));
+		when(adminRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		authenticateAs(admin(2L, "SUPER_ADMIN"));
+
+		ResponseEntity<Admin> response = controller.updateAdmin(1L, admin(1L, "SUPER_ADMIN"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().getRole()).isEqualTo("SUPER_ADMIN");
+	}
+
+	@Test
+	void indexedSearchHonoursTheRequestedTotal() {
+		when(searchIndex.isEnabled()).thenReturn(true);
+		when(searchIndex.findIds("garden", null)).thenReturn(List.of(1L, 2L, 3L));
+		when(adminRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(admin(2L, "ADMIN"), admin(1L, "ADMIN")));
+
+		PageResponse<AdminSummary> exact = adminService.searchAdmins("garden", null, true, PagingMode.EXACT, 0, 2);
+		PageResponse<AdminSummary> approximate = adminService.searchAdmins("garden", null, true,
+				PagingMode.APPROXIMATE, 0, 2);
+		PageResponse<AdminSummary> none = adminService.searchAdmins("garden", null, true, PagingMode.NONE, 0, 2);
+
+		assertThat(exact.getContent()).extracting(AdminSummary::getId).containsExactly(1L, 2L);
+		assertThat(exact.getTotalElements()).isEqualTo(3);
+		assertThat(exact.getTotalApproximate()).isNull();
+		assertThat(approximate.getTotalElements()).isEqualTo(3);
+		assertThat(approximate.getTotalApproximate()).isTrue();
+		assertThat(none.getTotalElements()).isNull();
+		assertThat(none.getHasNext()).isTrue();
+	}
+
+	private static void authenticateAs(Admin admin) {
+		CustomUserDetails principal = new CustomUserDetails(admin);
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+	}
+
+	private static Admin admin(Long id, String role) {
+		Admin admin = new Admin();
+		admin.setId(id);
+		admin.setFirstName("Ada");
+		admin.setLastName("Admin" + id);
+		admin.setEmail("admin" + id + "@garden.test");
+		admin.setPassword("hash");
+		admin.setRole(role);
+		return admin;
+	}
+}
@@ -0,0 +1,98 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.OccupancyRow;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.repository.ArchivedBookingRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+
+	private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+	private final AnalyticsService analytics = new AnalyticsService(bookingRepository, archivedBookingRepository,
+			new Tenants(List.of(TenantContext.DEFAULT_TENANT)), Period.ofYears(3));
+
+	@Test
+	void rebuildTakesInBookingsWrittenByOtherInstances() {
+		when(bookingRepository.findAllSnapshots()).thenReturn(List.of(booking(1L, "Confirmed", 0L)));
+		analytics.rebuild();
+		assertThat(occupiedNights("Confirmed")).isEqualTo(2);
+
+		when(bookingRepository.findAllSnapshots())
+				.thenReturn(List.of(booking(1L, "Confirmed", 0L), booking(2L, "Confirmed", 0L)));
+		analytics.rebuild();
+		assertThat(occupiedNights("Confirmed")).isEqualTo(4);
+	}
+
+	@Test
+	void creationCommittedDuringTheReadIsReplayed() {
+		when(bookingRepository.findAllSnapshots()).thenReturn(List.of());
+		analytics.rebuild();
+
+		// Committed after the read: the rows returned do not have it
+		when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> {
+			analytics.onBookingChanged(BookingChangedEvent.created(booking(1L, "Pending", 0L)));
+			return List.of();
+		});
+		analytics.rebuild();
+
+		assertThat(occupiedNights("Pending")).isEqualTo(2);
+	}
+
+	@Test
+	void changeAlreadyInTheReadIsNotCountedTwice() {
+		BookingSnapshot pending = booking(1L, "Pending", 0L);
+		when(bookingRepository.findAllSnapshots()).thenReturn(List.of(pending));
+		analytics.rebuild();
+
+		// Committed before the read: the rows returned already have it
+		BookingSnapshot confirmed = pending.withStatus("Confirmed");
+		when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> {
+			analytics.onBookingChanged(BookingChangedEvent.statusChanged(pending, confirmed));
+			return List.of(confirmed);
+		});
+		analytics.rebuild();
+
+		assertThat(occupiedNights("Confirmed")).isEqualTo(2);
+		assertThat(occupiedNights("Pending")).isZero();
+	}
+
+	@Test
+	void nightsStopAtTheHorizon() {
+		when(bookingRepository.findAllSnapshots()).thenReturn(List.of(new BookingSnapshot(1L, DAY,
+				LocalDate.of(9999, 12, 31), "Room", "Rwanda", "Confirmed", new BigDecimal("120.00"), null, 0L)));
+		analytics.rebuild();
+
+		List<OccupancyRow> rows = analytics.occupancy(DAY, LocalDate.of(9999, 12, 31),
+				AnalyticsService.Granularity.DAY, AnalyticsService.Dimension.NONE, null);
+		assertThat(rows.get(rows.size() - 1).getPeriod())
+				.isEqualTo(LocalDate.now().plusYears(3).toString());
+	}
+
+	private long occupiedNights(String status) {
+		return analytics.occupancy(DAY, DAY.plusDays(5), AnalyticsService.Granularity.DAY,
+						AnalyticsService.Dimension.NONE, status).stream()
+				.mapToLong(OccupancyRow::getOccupiedNights)
+				.sum();
+	}
+
+	private static BookingSnapshot booking(Long id, String status, Long version) {
+		return new BookingSnapshot(id, DAY, DAY.plusDays(2), "Room", "Rwanda", status, new BigDecimal("120.00"),
+				null, version);
+	}
+}
@@ -0,0 +1,219 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.CollectionStamp;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookingEventHubTest {
+
+	private final List<BookingEventHub.Subscription> subscriptions = new ArrayList<>();
+
+	@AfterEach
+	void cancelSubscriptions() {
+		subscriptions.forEach(BookingEventHub.Subscription::cancel);
+	}
+
+	@Test
+	void fansOutEveryEventToThousandsOfSubscribersInOrder() throws Exception {
+		BookingEventHub hub = hub(64, 100);
+		int subscriberCount = 5_000;
+		int eventCount = 20;
+		List<RecordingSink> sinks = new ArrayList<>();
+		for (int i = 0; i < subscriberCount; i++) {
+			RecordingSink sink = new RecordingSink(eventCount);
+			sinks.add(sink);
+			subscriptions.add(hub.subscribe(sink, null));
+		}
+
+		for (long id = 1; id <= eventCount; id++) {
+			hub.onBookingChanged(BookingChangedEvent.created(snapshot(id)));
+		}
+
+		for (RecordingSink sink : sinks) {
+			assertThat(sink.received.await(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(sink.names()).containsOnly("created").hasSize(eventCount);
+			assertThat(sink.sequences()).isSorted().doesNotHaveDuplicates();
+		}
+		assertThat(hub.subscriberCount()).isEqualTo(subscriberCount);
+	}
+
+	@Test
+	void slowSubscriberDropsOldestEventsAndIsToldToResync() throws Exception {
+		BookingEventHub hub = hub(4, 100);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink slow = new RecordingSink(1) {
+			@Override
+			public void send(BookingEventHub.Event event) {
+				await(release);
+				super.send(event);
+			}
+		};
+		RecordingSink fast = new RecordingSink(50);
+		subscriptions.add(hub.subscribe(slow, null));
+		subscriptions.add(hub.subscribe(fast, null));
+
+		// Paced on the fast subscriber so only the slow one can fall behind
+		for (long id = 1; id <= 50; id++) {
+			hub.onBookingChanged(BookingChangedEvent.created(snapshot(id)));
+			long published = id;
+			waitUntil(() -> fast.events.size() == published);
+		}
+		release.countDown();
+
+		waitUntil(() -> slow.events.stream().anyMatch(event -> event.id() != null && event.id().endsWith("-50")));
+		assertThat(fast.names()).hasSize(50).doesNotContain(BookingEventHub.RESYNC);
+		assertThat(slow.names()).contains(BookingEventHub.RESYNC);
+		assertThat(slow.events.size()).isLessThan(50);
+	}
+
+	@Test
+	void resumesFromLastEventId() throws Exception {
+		BookingEventHub hub = hub(64, 100);
+		RecordingSink first = new RecordingSink(5);
+		subscriptions.add(hub.subscribe(first, null));
+		for (long id = 1; id <= 5; id++) {
+			hub.onBookingChanged(BookingChangedEvent.created(snapshot(id)));
+		}
+		assertThat(first.received.await(10, TimeUnit.SECONDS)).isTrue();
+
+		String secondEventId = first.events.get(1).id();
+		RecordingSink resumed = new RecordingSink(3);
+		subscriptions.add(hub.subscribe(resumed, secondEventId));
+
+		assertThat(resumed.received.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(resumed.events).extracting(BookingEventHub.Event::id)
+				.containsExactly(first.events.get(2).id(), first.events.get(3).id(), first.events.get(4).id());
+	}
+
+	@Test
+	void unknownOrEvictedLastEventIdGetsResync() throws Exception {
+		BookingEventHub hub = hub(64, 2);
+		RecordingSink probe = new RecordingSink(5);
+		subscriptions.add(hub.subscribe(probe, null));
+		for (long id = 1; id <= 5; id++) {
+			hub.onBookingChanged(BookingChangedEvent.created(snapshot(id)));
+		}
+		assertThat(probe.received.await(10, TimeUnit.SECONDS)).isTrue();
+		String firstEventId = probe.events.get(0).id();
+		String epoch = firstEventId.substring(0, firstEventId.lastIndexOf('-'));
+
+		RecordingSink previousRun = new RecordingSink(1);
+		RecordingSink evicted = new RecordingSink(1);
+		subscriptions.add(hub.subscribe(previousRun, "0000-3"));
+		subscriptions.add(hub.subscribe(evicted, epoch + "-1"));
+
+		assertThat(previousRun.received.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(evicted.received.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(previousRun.names()).containsExactly(BookingEventHub.RESYNC);
+		assertThat(evicted.names()).containsExactly(BookingEventHub.RESYNC);
+	}
+
+	@Test
+	void changesThisInstanceDidNotPublishGetResync() throws Exception {
+		BookingRepository bookingRepository = mock(BookingRepository.class);
+		when(bookingRepository.findStamp()).thenReturn(
+				stamp(10, 4), // first check: recorded only
+				stamp(11, 4), // the create published below
+				stamp(12, 5)); // a create and an update made elsewhere
+		BookingEventHub hub = hub(bookingRepository, 64, 100);
+		RecordingSink probe = new RecordingSink(2);
+		subscriptions.add(hub.subscribe(probe, null));
+
+		hub.checkForOutsideChanges();
+		hub.onBookingChanged(BookingChangedEvent.created(snapshot(1)));
+		hub.checkForOutsideChanges();
+		hub.checkForOutsideChanges();
+
+		assertThat(probe.received.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(probe.names()).containsExactly("created", BookingEventHub.RESYNC);
+		assertThat(probe.sequences()).isSorted().doesNotHaveDuplicates();
+	}
+
+	private static BookingEventHub hub(int bufferSize, int replaySize) {
+		return hub(mock(BookingRepository.class), bufferSize, replaySize);
+	}
+
+	private static BookingEventHub hub(BookingRepository bookingRepository, int bufferSize, int replaySize) {
+		return new BookingEventHub(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(),
+				bookingRepository, new Tenants(List.of(TenantContext.DEFAULT_TENANT)), bufferSize, replaySize);
+	}
+
+	private static CollectionStamp stamp(long rows, long versions) {
+		return new CollectionStamp(rows, rows, versions, null);
+	}
+
+	private static BookingSnapshot snapshot(long id) {
+		LocalDate checkIn = LocalDate.of(2030, 1, 1).plusDays(id);
+		return new BookingSnapshot(id, checkIn, checkIn.plusDays(2), "Room", "Rwanda", "Pending",
+				new BigDecimal("120.00"), null, 0L);
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class RecordingSink implements BookingEventHub.Sink {
+		final List<BookingEventHub.Event> events = new CopyOnWriteArrayList<>();
+		final CountDownLatch received;
+
+		RecordingSink(int expected) {
+			this.received = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void send(BookingEventHub.Event event) {
+			events.add(event);
+			received.countDown();
+		}
+
+		@Override
+		public void heartbeat() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		List<String> names() {
+			return events.stream().map(BookingEventHub.Event::name).toList();
+		}
+
+		List<Long> sequences() {
+			return events.stream()
+					.map(event -> Long.parseLong(event.id().substring(event.id().lastIndexOf('-') + 1)))
+					.toList();
+		}
+	}
+}
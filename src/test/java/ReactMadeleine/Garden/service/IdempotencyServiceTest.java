@@ -0,0 +1,185 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.exception.IdempotencyKeyConflictException;
+import ReactMadeleine.Garden.exception.IdempotencyKeyMismatchException;
+import ReactMadeleine.Garden.model.IdempotencyRecord;
+import ReactMadeleine.Garden.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+	private static final Map<String, String> BODY = Map.of("firstName", "Ann");
+
+	private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+	// Rows by id, standing in for the idempotency_keys table
+	private final Map<Long, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private IdempotencyService service;
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(this::insert).when(repository).saveAndFlush(any(IdempotencyRecord.class));
+		when(repository.findById(anyLong())).thenAnswer(invocation ->
+				Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))));
+		TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		service = new IdempotencyService(repository, transactionTemplate, new ObjectMapper(),
+				Duration.ofHours(24), Duration.ofSeconds(30), 100);
+	}
+
+	@Test
+	void duplicateArrivingWhileTheFirstRunsWaitsForItsResponse() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch finish = new CountDownLatch(1);
+		AtomicInteger runs = new AtomicInteger();
+		Supplier<ResponseEntity<?>> action = () -> {
+			runs.incrementAndGet();
+			started.countDown();
+			await(finish);
+			return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 1));
+		};
+
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			Future<ResponseEntity<?>> first = executor.submit(() -> service.execute("key-1", "create", BODY, action));
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			Future<ResponseEntity<?>> duplicate = executor.submit(() -> service.execute("key-1", "create", BODY, action));
+			Thread.sleep(100);
+			assertThat(duplicate.isDone()).isFalse();
+
+			finish.countDown();
+			assertThat(first.get(10, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+			ResponseEntity<?> replayed = duplicate.get(10, TimeUnit.SECONDS);
+			assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+			assertThat(replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+			assertThat(replayed.getBody()).isEqualTo("{\"id\":1}");
+		}
+		assertThat(runs).hasValue(1);
+		verify(repository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+	}
+
+	@Test
+	void keyReusedForAnotherRequestIsRejected() {
+		AtomicInteger runs = new AtomicInteger();
+		Supplier<ResponseEntity<?>> action = () -> {
+			runs.incrementAndGet();
+			return ResponseEntity.status(HttpStatus.CREATED).body("created");
+		};
+		service.execute("key-1", "create", BODY, action);
+
+		assertThatThrownBy(() -> service.execute("key-1", "create", Map.of("firstName", "Bob"), action))
+				.isInstanceOf(IdempotencyKeyMismatchException.class);
+		assertThatThrownBy(() -> service.execute("key-1", "update", BODY, action))
+				.isInstanceOf(IdempotencyKeyMismatchException.class);
+		assertThat(runs).hasValue(1);
+	}
+
+	@Test
+	void serverErrorReleasesTheKeyForARetry() {
+		ResponseEntity<?> failed = service.execute("key-1", "create", BODY,
+				() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+		assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		verify(repository).deleteByIds(List.of(1L));
+
+		ResponseEntity<?> retried = service.execute("key-1", "create", BODY,
+				() -> ResponseEntity.status(HttpStatus.CREATED).body("created"));
+		assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		assertThat(retried.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+		assertThat(rows.get(2L).isCompleted()).isTrue();
+		assertThat(rows.get(2L).getResponseStatus()).isEqualTo(201);
+	}
+
+	@Test
+	void exceptionReleasesTheKey() {
+		assertThatThrownBy(() -> service.execute("key-1", "create", BODY, () -> {
+			throw new IllegalStateException("boom");
+		})).isInstanceOf(IllegalStateException.class);
+
+		verify(repository).deleteByIds(List.of(1L));
+	}
+
+	@Test
+	void claimAbandonedByAnotherNodeIsTakenOver() {
+		IdempotencyRecord abandoned = claimedElsewhere(LocalDateTime.now().minusMinutes(1));
+		doThrow(new DataIntegrityViolationException("uk_idempotency_keys_tenant_principal_key"))
+				.doAnswer(this::insert)
+				.when(repository).saveAndFlush(any(IdempotencyRecord.class));
+
+		ResponseEntity<?> response = service.execute("key-1", "create", BODY,
+				() -> ResponseEntity.status(HttpStatus.CREATED).body("created"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		verify(repository).deleteByIds(List.of(abandoned.getId()));
+		verify(repository, times(2)).saveAndFlush(any(IdempotencyRecord.class));
+	}
+
+	@Test
+	void claimStillRunningOnAnotherNodeIsAConflict() {
+		claimedElsewhere(LocalDateTime.now());
+		doThrow(new DataIntegrityViolationException("uk_idempotency_keys_tenant_principal_key"))
+				.when(repository).saveAndFlush(any(IdempotencyRecord.class));
+		AtomicInteger runs = new AtomicInteger();
+
+		assertThatThrownBy(() -> service.execute("key-1", "create", BODY, () -> {
+			runs.incrementAndGet();
+			return ResponseEntity.ok().build();
+		})).isInstanceOf(IdempotencyKeyConflictException.class);
+		assertThat(runs).hasValue(0);
+		verify(repository, never()).deleteByIds(any());
+	}
+
+	private IdempotencyRecord insert(InvocationOnMock invocation) {
+		IdempotencyRecord record = invocation.getArgument(0);
+		record.setId(ids.incrementAndGet());
+		rows.put(record.getId(), record);
+		return record;
+	}
+
+	private IdempotencyRecord claimedElsewhere(LocalDateTime createdAt) {
+		IdempotencyRecord record = new IdempotencyRecord(99L, "anonymous", "key-1", "other-node", false,
+				null, null, null, createdAt, createdAt.plusHours(24), "default");
+		when(repository.findByPrincipalAndIdempotencyKey("anonymous", "key-1")).thenReturn(Optional.of(record));
+		return record;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,319 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.dto.AvailabilityRange;
+import ReactMadeleine.Garden.event.BookingChangedEvent;
+import ReactMadeleine.Garden.event.BookingSnapshot;
+import ReactMadeleine.Garden.model.BookableUnit;
+import ReactMadeleine.Garden.model.InventoryLock;
+import ReactMadeleine.Garden.repository.BookableUnitRepository;
+import ReactMadeleine.Garden.repository.BookingRepository;
+import ReactMadeleine.Garden.repository.InventoryLockRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceTest {
+
+	private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+	private final BookableUnitRepository unitRepository = mock(BookableUnitRepository.class);
+	private final BookingRepository bookingRepository = mock(BookingRepository.class);
+	private final InventoryLockRepository lockRepository = mock(InventoryLockRepository.class);
+
+	// The bookings table, written by this instance or by others
+	private final List<BookingSnapshot> rows = new ArrayList<>();
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void fillsAUnitUpToItsCapacity() {
+		InventoryService inventory = inventory(unit(1L, "Room", 2));
+
+		assertThat(book(inventory, 1L, "Room", 1L, DAY, DAY.plusDays(2))).isEqualTo(1L);
+		assertThat(book(inventory, 2L, "Room", 1L, DAY.plusDays(1), DAY.plusDays(3))).isEqualTo(1L);
+
+		assertThatThrownBy(() -> book(inventory, 3L, "Room", 1L, DAY.plusDays(2), DAY.plusDays(4)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> book(inventory, 3L, "Room", null, DAY.plusDays(1), DAY.plusDays(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(book(inventory, 3L, "Room", 1L, DAY.plusDays(3), DAY.plusDays(5))).isEqualTo(1L);
+	}
+
+	@Test
+	void checkOutDayIsPartOfTheStay() {
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+		book(inventory, 1L, "Room", 1L, DAY, DAY.plusDays(2));
+
+		assertThatThrownBy(() -> book(inventory, 2L, "Room", 1L, DAY.plusDays(2), DAY.plusDays(4)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(book(inventory, 2L, "Room", 1L, DAY.plusDays(3), DAY.plusDays(4))).isEqualTo(1L);
+	}
+
+	@Test
+	void inactiveAndOtherTypeUnitsAreNotPicked() {
+		BookableUnit closed = unit(1L, "Room", 5);
+		closed.setActive(false);
+		InventoryService inventory = inventory(closed, unit(2L, "Tent", 5), unit(3L, "Room", 1));
+
+		assertThat(book(inventory, 1L, "Room", null, DAY, DAY)).isEqualTo(3L);
+		assertThatThrownBy(() -> book(inventory, 2L, "Room", null, DAY, DAY))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> book(inventory, 2L, "Room", 1L, DAY.plusDays(5), DAY.plusDays(5)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> book(inventory, 2L, "Room", 2L, DAY.plusDays(5), DAY.plusDays(5)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void typeWithoutUnitsBooksTheWholeGardenOnce() {
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+
+		assertThat(book(inventory, 1L, "Garden", null, DAY, DAY.plusDays(1))).isNull();
+		assertThatThrownBy(() -> book(inventory, 2L, "Garden", null, DAY.plusDays(1), DAY.plusDays(2)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rolledBackReservationGivesItsDaysBack() {
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		inventory.reserve("Room", 1L, DAY, DAY.plusDays(2));
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isTrue();
+
+		TransactionSynchronizationManager.initSynchronization();
+		Long unitId = inventory.reserve("Room", 1L, DAY, DAY.plusDays(2));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		inventory.onBookingChanged(BookingChangedEvent.created(write(booking(1L, unitId, DAY, DAY.plusDays(2)))));
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+	}
+
+	@Test
+	void rolledBackMoveRestoresTheOldStay() {
+		BookingSnapshot booked = write(booking(5L, 1L, DAY, DAY.plusDays(2)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1), unit(2L, "Room", 1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		assertThat(inventory.move(booked, "Room", 2L, DAY.plusDays(5), DAY.plusDays(6))).isEqualTo(2L);
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isTrue();
+		assertThat(available(inventory, 2L, DAY.plusDays(5), DAY.plusDays(6))).isFalse();
+
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+		assertThat(available(inventory, 2L, DAY.plusDays(5), DAY.plusDays(6))).isTrue();
+	}
+
+	@Test
+	void committedMoveLeavesOnlyTheNewStay() {
+		BookingSnapshot booked = write(booking(5L, 1L, DAY, DAY.plusDays(2)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1), unit(2L, "Room", 1));
+
+		TransactionSynchronizationManager.initSynchronization();
+		inventory.move(booked, "Room", 2L, DAY.plusDays(5), DAY.plusDays(6));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		BookingSnapshot moved = write(new BookingSnapshot(5L, DAY.plusDays(5), DAY.plusDays(6), "Room", "Rwanda",
+				"Confirmed", new BigDecimal("120.00"), 2L, 1L));
+		inventory.onBookingChanged(BookingChangedEvent.updated(booked, moved));
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isTrue();
+		assertThat(available(inventory, 2L, DAY.plusDays(5), DAY.plusDays(6))).isFalse();
+		inventory.resync();
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isTrue();
+		assertThat(available(inventory, 2L, DAY.plusDays(4), DAY.plusDays(4))).isTrue();
+	}
+
+	@Test
+	void moveRefusedByTheDatabaseKeepsTheOldStay() {
+		BookingSnapshot booked = write(booking(5L, 1L, DAY, DAY.plusDays(2)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1), unit(2L, "Room", 1));
+		// Booked on another instance, which this one has not resynced yet
+		write(booking(99L, 2L, DAY.plusDays(5), DAY.plusDays(6)));
+
+		assertThatThrownBy(() -> inventory.move(booked, "Room", 2L, DAY.plusDays(5), DAY.plusDays(6)))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+		assertThat(available(inventory, 2L, DAY.plusDays(5), DAY.plusDays(6))).isTrue();
+	}
+
+	@Test
+	void calendarsStopAtTheHorizonAndLeaveLaterDaysToTheDatabase() {
+		write(booking(5L, 1L, DAY, LocalDate.of(9999, 12, 31)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(30))).isFalse();
+		LocalDate pastHorizon = LocalDate.now().plusYears(4);
+		assertThat(available(inventory, 1L, pastHorizon, pastHorizon.plusDays(1))).isTrue();
+		assertThatThrownBy(() -> book(inventory, 6L, "Room", 1L, pastHorizon, pastHorizon.plusDays(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void unitFullInTheDatabaseFallsBackToTheNextOne() {
+		InventoryService inventory = inventory(unit(1L, "Room", 1), unit(2L, "Room", 1));
+		write(booking(99L, 1L, DAY, DAY));
+
+		assertThat(book(inventory, 1L, "Room", null, DAY, DAY)).isEqualTo(2L);
+
+		assertThat(available(inventory, 1L, DAY, DAY)).isTrue();
+		assertThatThrownBy(() -> book(inventory, 2L, "Room", 1L, DAY, DAY))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void fullCalendarAsksTheDatabaseBeforeRefusing() {
+		BookingSnapshot booked = write(booking(5L, 1L, DAY, DAY.plusDays(2)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+		// Cancelled on another instance, which this one has not resynced yet
+		write(booked.withStatus("Cancelled"));
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+		assertThat(book(inventory, 6L, "Room", 1L, DAY, DAY.plusDays(2))).isEqualTo(1L);
+		assertThat(book(inventory, 7L, "Room", null, DAY.plusDays(3), DAY.plusDays(4))).isEqualTo(1L);
+	}
+
+	@Test
+	void resyncTakesInOtherInstancesBookingsWithoutCountingOwnOnesTwice() {
+		InventoryService inventory = inventory(unit(1L, "Room", 3));
+		book(inventory, 1L, "Room", 1L, DAY, DAY);
+		write(booking(2L, 1L, DAY, DAY));
+
+		inventory.resync();
+		assertThat(available(inventory, 1L, DAY, DAY)).isTrue();
+
+		write(booking(3L, 1L, DAY, DAY));
+		inventory.resync();
+		assertThat(available(inventory, 1L, DAY, DAY)).isFalse();
+
+		write(booking(3L, 1L, DAY, DAY).withStatus("Cancelled"));
+		inventory.resync();
+		assertThat(available(inventory, 1L, DAY, DAY)).isTrue();
+	}
+
+	@Test
+	void cancellationCommittedDuringARebuildIsNotLost() {
+		BookingSnapshot booked = write(booking(5L, 1L, DAY, DAY.plusDays(2)));
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+
+		// Committed after the read: the rows returned still have the booking
+		when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> {
+			List<BookingSnapshot> read = List.copyOf(rows);
+			BookingSnapshot cancelled = write(booked.withStatus("Cancelled"));
+			inventory.onBookingChanged(BookingChangedEvent.statusChanged(booked, cancelled));
+			return read;
+		});
+		inventory.rebuild();
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isTrue();
+	}
+
+	@Test
+	void reservationCommittedDuringARebuildIsNotLost() {
+		InventoryService inventory = inventory(unit(1L, "Room", 1));
+
+		// Committed after the read: the rows returned do not have it
+		when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> {
+			List<BookingSnapshot> read = List.copyOf(rows);
+			book(inventory, 1L, "Room", 1L, DAY, DAY.plusDays(2));
+			return read;
+		});
+		inventory.rebuild();
+
+		assertThat(available(inventory, 1L, DAY, DAY.plusDays(2))).isFalse();
+		assertThat(book(inventory, 2L, "Room", 1L, DAY.plusDays(3), DAY.plusDays(4))).isEqualTo(1L);
+	}
+
+	private InventoryService inventory(BookableUnit... units) {
+		when(unitRepository.findAll()).thenReturn(List.of(units));
+		for (BookableUnit unit : units) {
+			when(unitRepository.lockById(unit.getId())).thenReturn(Optional.of(unit));
+			when(unitRepository.findById(unit.getId())).thenReturn(Optional.of(unit));
+		}
+		when(lockRepository.existsById(anyString())).thenReturn(true);
+		when(lockRepository.lockByName(anyString())).thenAnswer(invocation ->
+				Optional.of(new InventoryLock(invocation.getArgument(0))));
+		when(bookingRepository.findAllSnapshots()).thenAnswer(invocation -> List.copyOf(rows));
+		// Every row is returned: the versions tell which ones are new
+		when(bookingRepository.findSnapshotsUpdatedSince(any(LocalDateTime.class)))
+				.thenAnswer(invocation -> List.copyOf(rows));
+		when(bookingRepository.findActiveOnUnit(any(), any(LocalDate.class), any(LocalDate.class)))
+				.thenAnswer(invocation -> active(invocation.getArgument(0), invocation.getArgument(1),
+						invocation.getArgument(2)));
+		when(bookingRepository.findActiveUnassigned(any(LocalDate.class), any(LocalDate.class)))
+				.thenAnswer(invocation -> active(null, invocation.getArgument(0), invocation.getArgument(1)));
+		InventoryService inventory = new InventoryService(unitRepository, bookingRepository, lockRepository,
+				new Tenants(List.of(TenantContext.DEFAULT_TENANT)), Period.ofYears(3), Duration.ofMinutes(2));
+		inventory.loadInventory();
+		return inventory;
+	}
+
+	// Reserves and writes the booking like BookingService.createBooking, then delivers its event
+	private Long book(InventoryService inventory, Long id, String bookingType, Long unitId,
+					  LocalDate checkIn, LocalDate checkOut) {
+		Long reserved = inventory.reserve(bookingType, unitId, checkIn, checkOut);
+		BookingSnapshot booking = write(new BookingSnapshot(id, checkIn, checkOut, bookingType, "Rwanda", "Pending",
+				new BigDecimal("120.00"), reserved, 0L));
+		inventory.onBookingChanged(BookingChangedEvent.created(booking));
+		return reserved;
+	}
+
+	// Inserts or replaces the row, without telling the inventory (as another instance would)
+	private BookingSnapshot write(BookingSnapshot booking) {
+		rows.removeIf(row -> row.id().equals(booking.id()));
+		rows.add(booking);
+		return booking;
+	}
+
+	private List<BookingSnapshot> active(Long unitId, LocalDate checkIn, LocalDate checkOut) {
+		return rows.stream()
+				.filter(row -> !row.isCancelled() && Objects.equals(row.unitId(), unitId))
+				.filter(row -> !row.checkInDate().isAfter(checkOut) && !row.checkOutDate().isBefore(checkIn))
+				.toList();
+	}
+
+	private static boolean available(InventoryService inventory, Long unitId, LocalDate from, LocalDate to) {
+		return inventory.getAvailability(from, to, null, unitId).stream().allMatch(AvailabilityRange::isAvailable);
+	}
+
+	// Ends the transaction the reservations registered with
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+	}
+
+	private static BookableUnit unit(Long id, String bookingType, int capacity) {
+		return new BookableUnit(id, bookingType + " " + id, bookingType, capacity, true, TenantContext.DEFAULT_TENANT);
+	}
+
+	private static BookingSnapshot booking(Long id, Long unitId, LocalDate checkIn, LocalDate checkOut) {
+		return new BookingSnapshot(id, checkIn, checkOut, "Room", "Rwanda", "Confirmed", new BigDecimal("120.00"), unitId, 0L);
+	}
+}
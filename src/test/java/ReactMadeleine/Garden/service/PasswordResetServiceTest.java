@@ -0,0 +1,216 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.PasswordResetToken;
+import ReactMadeleine.Garden.model.User;
+import ReactMadeleine.Garden.repository.PasswordResetTokenRepository;
+import ReactMadeleine.Garden.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordResetServiceTest {
+
+	private static final String SECRET = "test-secret";
+	private static final String EMAIL = "ann@example.com";
+	private static final Duration TTL = Duration.ofHours(1);
+	private static final int MAX_ATTEMPTS = 3;
+	private static final Clock CLOCK = Clock.fixed(Instant.parse("2030-01-01T10:00:00Z"), ZoneOffset.UTC);
+	private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final PasswordResetTokenRepository tokenRepository = mock(PasswordResetTokenRepository.class);
+	private final EmailService emailService = mock(EmailService.class);
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+	// The password_reset_tokens row of EMAIL, if any
+	private final AtomicReference<PasswordResetToken> row = new AtomicReference<>();
+	private PasswordResetService service;
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(invocation -> Optional.ofNullable(row.get())).when(tokenRepository).findByEmail(EMAIL);
+		doAnswer(invocation -> {
+			PasswordResetToken token = row.get();
+			if (token == null || token.getAttempts() >= invocation.<Integer>getArgument(1)) {
+				return 0;
+			}
+			token.setAttempts(token.getAttempts() + 1);
+			return 1;
+		}).when(tokenRepository).countAttempt(eq(EMAIL), anyInt());
+		doAnswer(invocation -> {
+			PasswordResetToken token = row.get();
+			return token != null && token.getAttempts() >= invocation.<Integer>getArgument(1)
+					&& row.compareAndSet(token, null) ? 1 : 0;
+		}).when(tokenRepository).deleteExhausted(eq(EMAIL), anyInt());
+		doAnswer(invocation -> {
+			PasswordResetToken token = row.get();
+			return token != null && token.getId().equals(invocation.getArgument(0))
+					&& row.compareAndSet(token, null) ? 1 : 0;
+		}).when(tokenRepository).consume(anyLong(), anyString());
+		doAnswer(invocation -> {
+			row.set(invocation.getArgument(0));
+			return invocation.getArgument(0);
+		}).when(tokenRepository).save(any(PasswordResetToken.class));
+		when(passwordEncoder.encode("new-password")).thenReturn("encoded");
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+		service = new PasswordResetService(userRepository, tokenRepository, emailService, passwordEncoder,
+				transactionTemplate, CLOCK, TTL, MAX_ATTEMPTS, Duration.ofMinutes(1), 100, SECRET);
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void liveCodeResetsThePasswordOnce() {
+		row.set(token(7L, "123456", NOW.plusMinutes(30)));
+
+		assertThat(service.resetPassword(" Ann@Example.com ", "123456", "new-password")).isTrue();
+		assertThat(service.resetPassword(EMAIL, "123456", "new-password")).isFalse();
+
+		verify(userRepository).updatePassword(7L, "encoded", NOW);
+		assertThat(row.get()).isNull();
+	}
+
+	@Test
+	void expiredCodeIsRejected() {
+		row.set(token(7L, "123456", NOW.minusSeconds(1)));
+
+		assertThat(service.resetPassword(EMAIL, "123456", "new-password")).isFalse();
+
+		verify(userRepository, never()).updatePassword(anyLong(), anyString(), any());
+	}
+
+	@Test
+	void unknownAddressRunsTheSameQueriesAsAWrongCode() {
+		assertThat(service.resetPassword(EMAIL, "123456", "new-password")).isFalse();
+		List<String> miss = tokenRepositoryCalls();
+
+		clearInvocations(tokenRepository);
+		row.set(token(7L, "123456", NOW.plusMinutes(30)));
+		assertThat(service.resetPassword(EMAIL, "654321", "new-password")).isFalse();
+		List<String> wrongCode = tokenRepositoryCalls();
+
+		assertThat(miss).containsExactly("findByEmail", "countAttempt", "deleteExhausted");
+		assertThat(wrongCode).isEqualTo(miss);
+		verify(passwordEncoder, never()).encode(anyString());
+	}
+
+	@Test
+	void codeIsInvalidatedOnceItsAttemptsAreUsedUp() {
+		row.set(token(7L, "123456", NOW.plusMinutes(30)));
+
+		for (int i = 0; i < MAX_ATTEMPTS; i++) {
+			assertThat(service.resetPassword(EMAIL, "00000" + i, "new-password")).isFalse();
+		}
+
+		assertThat(row.get()).isNull();
+		assertThat(service.resetPassword(EMAIL, "123456", "new-password")).isFalse();
+		verify(userRepository, never()).updatePassword(anyLong(), anyString(), any());
+	}
+
+	@Test
+	void rightCodeFailsWhenAnotherInstanceUsedTheLastAttempt() {
+		PasswordResetToken token = token(7L, "123456", NOW.plusMinutes(30));
+		token.setAttempts(MAX_ATTEMPTS);
+		row.set(token);
+
+		assertThat(service.resetPassword(EMAIL, "123456", "new-password")).isFalse();
+
+		verify(tokenRepository, never()).consume(anyLong(), anyString());
+		verify(userRepository, never()).updatePassword(anyLong(), anyString(), any());
+	}
+
+	@Test
+	void repeatedRequestsWithinTheResendIntervalSendOneCode() {
+		when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+
+		service.requestReset(EMAIL);
+		service.requestReset(" ANN@example.com");
+
+		verify(emailService, timeout(5_000)).sendEmail(eq(EMAIL), anyString(), anyString());
+		verify(userRepository, after(200)).findByEmail(anyString());
+		verify(emailService).sendEmail(anyString(), anyString(), anyString());
+		assertThat(row.get().getEmail()).isEqualTo(EMAIL);
+		assertThat(row.get().getExpiresAt()).isEqualTo(NOW.plus(TTL));
+	}
+
+	@Test
+	void codeSentRecentlyByAnotherInstanceIsNotResent() {
+		when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user()));
+		PasswordResetToken recent = token(7L, "123456", NOW.plus(TTL).minusSeconds(10));
+		row.set(recent);
+
+		service.requestReset(EMAIL);
+
+		verify(userRepository, timeout(5_000)).findByEmail(EMAIL);
+		verify(emailService, after(200).never()).sendEmail(anyString(), anyString(), anyString());
+		verify(tokenRepository, never()).save(any(PasswordResetToken.class));
+		assertThat(row.get()).isSameAs(recent);
+	}
+
+	private List<String> tokenRepositoryCalls() {
+		return mockingDetails(tokenRepository).getInvocations().stream()
+				.map(invocation -> invocation.getMethod().getName())
+				.toList();
+	}
+
+	private static PasswordResetToken token(Long userId, String code, LocalDateTime expiresAt) {
+		return new PasswordResetToken(1L, userId, EMAIL, HexFormat.of().formatHex(hmac(userId, code)), 0,
+				expiresAt, "default");
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setId(7L);
+		user.setUsername("ann");
+		user.setEmail(EMAIL);
+		return user;
+	}
+
+	// Same construction as the service: HMAC-SHA256 over the user id, a zero byte and the code
+	private static byte[] hmac(Long userId, String code) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			mac.update(Long.toString(userId).getBytes(StandardCharsets.UTF_8));
+			mac.update((byte) 0);
+			return mac.doFinal(code.getBytes(StandardCharsets.UTF_8));
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
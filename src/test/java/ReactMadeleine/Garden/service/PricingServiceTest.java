@@ -0,0 +1,70 @@
+package ReactMadeleine.Garden.service;
+
+import ReactMadeleine.Garden.model.RateTable;
+import ReactMadeleine.Garden.repository.RateTableRepository;
+import ReactMadeleine.Garden.repository.StayDiscountRepository;
+import ReactMadeleine.Garden.tenancy.TenantContext;
+import ReactMadeleine.Garden.tenancy.Tenants;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingServiceTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+	private final RateTableRepository rateTableRepository = mock(RateTableRepository.class);
+	private final StayDiscountRepository stayDiscountRepository = mock(StayDiscountRepository.class);
+	private final PricingService pricing = new PricingService(rateTableRepository, stayDiscountRepository,
+			new Tenants(List.of("lyon", "kigali", "nantes")), 365);
+
+	@Test
+	void eachTenantIsQuotedFromItsOwnRates() {
+		// Hibernate filters the rows by the current tenant; the mock does the same
+		when(rateTableRepository.findAll()).thenAnswer(invocation -> switch (TenantContext.current()) {
+			case "lyon" -> List.of(rate("80.00", "lyon"));
+			case "kigali" -> List.of(rate("50.00", "kigali"));
+			default -> List.of();
+		});
+		pricing.reload();
+
+		assertThat(quoteAs("lyon")).hasValue(new BigDecimal("160.00"));
+		assertThat(quoteAs("kigali")).hasValue(new BigDecimal("100.00"));
+		assertThat(quoteAs("nantes")).isEmpty();
+	}
+
+	@Test
+	void editReloadsOnlyTheEditingTenant() {
+		when(rateTableRepository.findAll()).thenReturn(List.of());
+		pricing.reload();
+
+		RateTable saved = rate("80.00", "lyon");
+		saved.setId(1L);
+		when(rateTableRepository.save(rate("80.00", "lyon"))).thenAnswer(invocation -> {
+			when(rateTableRepository.findAll()).thenReturn(List.of(saved));
+			return saved;
+		});
+		TenantContext.runAs("lyon", () -> pricing.createRate(rate("80.00", "lyon")));
+
+		assertThat(quoteAs("lyon")).hasValue(new BigDecimal("160.00"));
+		assertThat(quoteAs("kigali")).isEmpty();
+	}
+
+	private Optional<BigDecimal> quoteAs(String tenant) {
+		try (TenantContext.Scope ignored = TenantContext.use(tenant)) {
+			return pricing.quote("Room", MONDAY, MONDAY.plusDays(2));
+		}
+	}
+
+	private static RateTable rate(String nightly, String tenant) {
+		return new RateTable(null, "Room", "All year", 1, 1, 12, 31, new BigDecimal(nightly), new BigDecimal(nightly),
+				tenant);
+	}
+}
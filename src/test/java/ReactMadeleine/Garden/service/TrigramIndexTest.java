@@ -0,0 +1,44 @@
+package ReactMadeleine.Garden.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+	private final TrigramIndex index = new TrigramIndex();
+
+	@Test
+	void matchesSubstringsWhateverTheCase() {
+		index.put(1L, "Marie.Curie@Garden.test");
+		index.put(2L, "pierre@garden.test");
+
+		assertThat(index.search("CURIE")).containsExactly(1L);
+		assertThat(index.search("garden")).containsExactly(1L, 2L);
+		assertThat(index.search("curies")).isEmpty();
+	}
+
+	@Test
+	void termsShorterThanATrigramStillMatch() {
+		index.put(1L, "Ada", "Lovelace");
+		index.put(2L, "Alan", "Turing");
+
+		assertThat(index.search("a")).containsExactly(1L, 2L);
+		assertThat(index.search("LO")).containsExactly(1L);
+		assertThat(index.search("")).containsExactly(1L, 2L);
+	}
+
+	@Test
+	void removedOrReplacedValuesNoLongerMatch() {
+		index.put(1L, "Ada", "Lovelace");
+		index.put(2L, "Alan", "Turing");
+
+		index.remove(2L);
+		assertThat(index.search("turing")).isEmpty();
+		assertThat(index.search("a")).containsExactly(1L);
+
+		index.put(1L, "Ada", "Byron");
+		assertThat(index.search("lovelace")).isEmpty();
+		assertThat(index.search("byron")).containsExactly(1L);
+	}
+}
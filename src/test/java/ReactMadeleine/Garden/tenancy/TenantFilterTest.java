@@ -0,0 +1,59 @@
+package ReactMadeleine.Garden.tenancy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFilterTest {
+
+	private static final String ORIGIN = "https://garden.example";
+
+	private final TenantFilter filter = new TenantFilter(new Tenants(List.of("lyon")), cors(), new ObjectMapper(),
+			"X-Tenant-Id");
+
+	@Test
+	void unknownTenantIsRejectedWithTheCorsHeaders() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+		request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+		request.addHeader("X-Tenant-Id", "nowhere");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, response, chain);
+
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo(ORIGIN);
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).isEqualTo("true");
+		assertThat(chain.getRequest()).isNull();
+	}
+
+	@Test
+	void knownTenantIsPassedOn() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+		request.addHeader("X-Tenant-Id", "lyon");
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+		assertThat(chain.getRequest()).isSameAs(request);
+	}
+
+	private static UrlBasedCorsConfigurationSource cors() {
+		CorsConfiguration configuration = new CorsConfiguration();
+		configuration.setAllowedOrigins(List.of(ORIGIN));
+		configuration.setAllowedMethods(List.of("GET"));
+		configuration.setAllowCredentials(true);
+		UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+		source.registerCorsConfiguration("/**", configuration);
+		return source;
+	}
+}